@@ -0,0 +1,341 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchDecoder decodes every {@code .tlg} file of a directory tree and parses the
+ * decoded user data.
+ * <p>
+ * The tree is listed first; the files are then claimed one at a time by at most
+ * {@link ForkJoinPool#getParallelism()} workers of the pool, so a large folder never
+ * occupies more threads than the pool allows. Each file is read, decoded with
+ * {@link TelegramDecoder#decode(byte[])} and, if it decodes, handed to the parser
+ * (e.g. into the packet list of a {@code TlgTemp}). The outcome of every file, with its
+ * timing or error, is passed to the listener as soon as the file is done.
+ * </p>
+ *
+ * @param <T> the type of the parsed telegram
+ */
+public final class BatchDecoder<T> {
+
+    private static final Logger LOG = LogManager.getLogger(BatchDecoder.class);
+
+    /** Extension of the telegram files, compared case-insensitively. */
+    public static final String EXTENSION = ".tlg";
+
+    /**
+     * Turns a decoded telegram into its parsed form.
+     *
+     * @param <T> the type of the parsed telegram
+     */
+    @FunctionalInterface
+    public interface Parser<T> {
+        /**
+         * @param file   the decoded file
+         * @param result the successful decode result
+         * @return the parsed telegram
+         * @throws Exception if the user data cannot be parsed
+         */
+        T parse(Path file, DecodeResult result) throws Exception;
+    }
+
+    /**
+     * Receives the outcome of every file. It is called from the pool threads, possibly
+     * concurrently, in completion order.
+     *
+     * @param <T> the type of the parsed telegram
+     */
+    @FunctionalInterface
+    public interface ResultListener<T> {
+        void onResult(FileResult<T> result);
+    }
+
+    /**
+     * Outcome of one file: the decode result, the parsed telegram or the error that
+     * stopped it, and the time spent in each step.
+     *
+     * @param <T> the type of the parsed telegram
+     */
+    public static final class FileResult<T> {
+        private final Path file;
+        private final DecodeResult decoded;
+        private final T parsed;
+        private final Throwable error;
+        private final long readNanos;
+        private final long decodeNanos;
+        private final long parseNanos;
+
+        FileResult(Path file, DecodeResult decoded, T parsed, Throwable error,
+                   long readNanos, long decodeNanos, long parseNanos) {
+            this.file = file;
+            this.decoded = decoded;
+            this.parsed = parsed;
+            this.error = error;
+            this.readNanos = readNanos;
+            this.decodeNanos = decodeNanos;
+            this.parseNanos = parseNanos;
+        }
+
+        /**
+         * @return true if the file was read, decoded and parsed
+         */
+        public boolean isSuccess() {
+            return error == null && decoded != null && decoded.isSuccess();
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * @return the decode result, or null if the file could not be read
+         */
+        public DecodeResult getDecoded() {
+            return decoded;
+        }
+
+        /**
+         * @return the parsed telegram, or null unless {@link #isSuccess()}
+         */
+        public T getParsed() {
+            return parsed;
+        }
+
+        /**
+         * @return the read or parse error, or null
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public long getReadNanos() {
+            return readNanos;
+        }
+
+        public long getDecodeNanos() {
+            return decodeNanos;
+        }
+
+        public long getParseNanos() {
+            return parseNanos;
+        }
+
+        /**
+         * @return time spent on the file in total
+         */
+        public long getTotalNanos() {
+            return readNanos + decodeNanos + parseNanos;
+        }
+
+        @Override
+        public String toString() {
+            String outcome = error != null ? "error " + error
+                    : decoded.isSuccess() ? "ok" : "failed at " + decoded.getFailureStage();
+            return String.format(Locale.ROOT, "%s: %s (read %.3f ms, decode %.3f ms, parse %.3f ms)",
+                    file, outcome, readNanos / 1e6, decodeNanos / 1e6, parseNanos / 1e6);
+        }
+    }
+
+    /**
+     * Totals of one batch.
+     */
+    public static final class Summary {
+        private final int files;
+        private final int failed;
+        private final long elapsedNanos;
+        private final boolean cancelled;
+
+        Summary(int files, int failed, long elapsedNanos, boolean cancelled) {
+            this.files = files;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * @return number of files processed; less than found if cancelled
+         */
+        public int getFiles() {
+            return files;
+        }
+
+        /**
+         * @return number of files that could not be read, decoded or parsed
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d files, %d failed in %.3f ms%s",
+                    files, failed, elapsedNanos / 1e6, cancelled ? " (cancelled)" : "");
+        }
+    }
+
+    private final Parser<T> parser;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private CancellationToken cancellationToken;
+    private boolean correctErrors;
+
+    /**
+     * @param parser turns each decoded telegram into its parsed form
+     */
+    public BatchDecoder(Parser<T> parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Sets the pool the files are decoded on; the common pool is used by default.
+     *
+     * @param pool the ForkJoin pool
+     * @return this decoder
+     */
+    public BatchDecoder<T> setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Sets the token through which another thread can stop the batch. Files already
+     * being decoded are finished; no new ones are started.
+     *
+     * @param cancellationToken the token, or null for an uncancellable batch
+     * @return this decoder
+     */
+    public BatchDecoder<T> setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
+    /**
+     * Enables the error-correcting decode of {@link TelegramDecoder#decode(byte[], boolean)},
+     * e.g. for field recordings; corrected files are flagged in their decode result.
+     *
+     * @param correctErrors true to correct single-bit and short double-bit errors
+     * @return this decoder
+     */
+    public BatchDecoder<T> setCorrectErrors(boolean correctErrors) {
+        this.correctErrors = correctErrors;
+        return this;
+    }
+
+    /**
+     * Lists the telegram files below a directory.
+     *
+     * @param root the directory tree
+     * @return the {@code .tlg} files in path order
+     * @throws IOException if the tree cannot be walked
+     */
+    public static List<Path> findTelegrams(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Decodes and parses every telegram file below a directory, blocking until all are
+     * done or the batch is cancelled.
+     *
+     * @param root     the directory tree
+     * @param listener receives the outcome of every file
+     * @return the totals of the batch
+     * @throws IOException if the tree cannot be walked
+     */
+    public Summary decode(Path root, ResultListener<T> listener) throws IOException {
+        return decode(findTelegrams(root), listener);
+    }
+
+    /**
+     * Decodes and parses the given telegram files, blocking until all are done or the
+     * batch is cancelled.
+     *
+     * @param files    the files to decode
+     * @param listener receives the outcome of every file
+     * @return the totals of the batch
+     */
+    public Summary decode(List<Path> files, ResultListener<T> listener) {
+        LOG.info("Dávkové dekódování - " + files.size() + " souborů - vláken " + pool.getParallelism());
+        long start = System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        int workers = Math.min(pool.getParallelism(), files.size());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            tasks.add(pool.submit(() -> {
+                int index;
+                while (!isCancelled() && (index = next.getAndIncrement()) < files.size()) {
+                    FileResult<T> result = process(files.get(index));
+                    if (!result.isSuccess()) {
+                        failed.incrementAndGet();
+                    }
+                    done.incrementAndGet();
+                    listener.onResult(result);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        Summary summary = new Summary(done.get(), failed.get(), System.nanoTime() - start,
+                done.get() < files.size());
+        LOG.info("Dávkové dekódování dokončeno - " + summary);
+        return summary;
+    }
+
+    private boolean isCancelled() {
+        return cancellationToken != null && cancellationToken.isCancelled();
+    }
+
+    private FileResult<T> process(Path file) {
+        long start = System.nanoTime();
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Soubor nelze přečíst - [" + file + "] - " + e.getMessage());
+            return new FileResult<>(file, null, null, e, System.nanoTime() - start, 0, 0);
+        }
+        long read = System.nanoTime();
+        DecodeResult decoded = TelegramDecoder.decode(bytes, correctErrors);
+        long decodedAt = System.nanoTime();
+        if (!decoded.isSuccess()) {
+            LOG.warn("Soubor nelze dekódovat - [" + file + "] - " + decoded);
+            return new FileResult<>(file, decoded, null, null, read - start, decodedAt - read, 0);
+        }
+        try {
+            T parsed = parser.parse(file, decoded);
+            return new FileResult<>(file, decoded, parsed, null, read - start, decodedAt - read, System.nanoTime() - decodedAt);
+        } catch (Exception e) {
+            LOG.warn("Telegram nelze zpracovat - [" + file + "] - " + e.getMessage());
+            return new FileResult<>(file, decoded, null, e, read - start, decodedAt - read, System.nanoTime() - decodedAt);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package Encoding;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * BitSlicedEvaluator applies the alphabet and off-synch parsing conditions to 64
+ * candidates of one SB at once.
+ * <p>
+ * The candidates {@code base .. base + 63} of an aligned block share everything except
+ * the six low ESB bits (85..90) and the check bits (0..84), and the check bits are
+ * linear in the ESB. Candidate {@code j} of the block is therefore the block's first
+ * candidate XOR a fixed 91-bit delta {@code DELTA[j]}, which only depends on the format.
+ * Words and windows that do not touch bits 0..90 are the same for all 64 candidates.
+ * </p>
+ * <p>
+ * Every word or window position yields a 64-bit mask with one lane per candidate.
+ * Constant positions become all-ones or all-zeros with a single lookup; varying ones
+ * look up the XORed word of each lane that is still alive. The masks are then combined
+ * with bitwise logic: the alphabet condition is the AND of the word masks, and the
+ * off-synch condition keeps a 4-bit run counter per lane in four longs, incremented and
+ * compared to the limit by bitwise operations. A lane is dropped as soon as it fails,
+ * so the lookups per block shrink quickly.
+ * </p>
+ * <p>
+ * An instance keeps per-SB state and must not be shared between threads.
+ * </p>
+ */
+final class BitSlicedEvaluator {
+
+    /** Number of candidates evaluated per pass. */
+    static final int LANES = 64;
+
+    /** Lowest bit that is the same for all candidates of an aligned block. */
+    static final int CONSTANT_FROM = CHECK_BITS_SIZE + 6;
+
+    private static final long[][] DELTAS_LONG = deltas(true);
+    private static final long[][] DELTAS_SHORT = deltas(false);
+
+    private final int size;
+    private final int words;
+    private final int[] maxCvw;
+    private final long[][] deltas;
+
+    // Validity of the words above CONSTANT_FROM, which only depend on the SB
+    private int constantSB = -1;
+    private boolean constantValid;
+
+    BitSlicedEvaluator(boolean isLongFormat) {
+        this.size = isLongFormat ? SIZE_LONG : SIZE_SHORT;
+        this.words = size / 11;
+        this.maxCvw = isLongFormat ? TelegramEncoder.MAX_CVW_LONG : TelegramEncoder.MAX_CVW_SHORT;
+        this.deltas = isLongFormat ? DELTAS_LONG : DELTAS_SHORT;
+    }
+
+    /**
+     * Returns the lanes whose candidate passes the alphabet condition.
+     *
+     * @param base  the first candidate of the aligned block, complete with check bits
+     * @param sb    the SB of the block
+     * @param lanes the candidates to evaluate, bit {@code j} for {@code base + j}
+     * @return the surviving lanes
+     */
+    long alphabet(long[] base, int sb, long lanes) {
+        if (sb != constantSB) {
+            int first = (CONSTANT_FROM + 10) / 11;
+            constantValid = ValidWordScanner.allValid(base, first * 11, words - first);
+            constantSB = sb;
+        }
+        if (!constantValid) {
+            return 0;
+        }
+
+        long low = base[0];
+        long high = base[1];
+        long alive = lanes;
+        for (int position = 0; position < CONSTANT_FROM && alive != 0; position += 11) {
+            long valid = 0;
+            for (long m = alive; m != 0; m &= m - 1) {
+                int j = Long.numberOfTrailingZeros(m);
+                if (ValidWordScanner.isValid(window(low ^ deltas[j][0], high ^ deltas[j][1], position))) {
+                    valid |= 1L << j;
+                }
+            }
+            alive = valid;
+        }
+        return alive;
+    }
+
+    /**
+     * Returns the lanes whose candidate passes the off-synch parsing condition.
+     *
+     * @param base  the first candidate of the aligned block, complete with check bits
+     * @param lanes the candidates to evaluate
+     * @return the surviving lanes
+     */
+    long offSynch(long[] base, long lanes) {
+        long alive = lanes;
+        for (int offset = 1; offset < 11 && alive != 0; offset++) {
+            int max = maxCvw[offset];
+            long c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+            for (int position = offset; position < size + (offset + 1) * 11; position += 11) {
+                int baseWindow = ValidWordScanner.windowWrap(base, size, position);
+                int wrapped = position >= size ? position - size : position;
+                long valid;
+                if (wrapped >= CONSTANT_FROM && wrapped + 11 <= size) {
+                    valid = ValidWordScanner.isValid(baseWindow) ? -1L : 0L;
+                } else {
+                    valid = 0;
+                    for (long m = alive; m != 0; m &= m - 1) {
+                        int j = Long.numberOfTrailingZeros(m);
+                        int window = baseWindow ^ ValidWordScanner.windowWrap(deltas[j], size, position);
+                        if (ValidWordScanner.isValid(window)) {
+                            valid |= 1L << j;
+                        }
+                    }
+                }
+
+                // run = valid ? run + 1 : 0, four bit-sliced counter bits
+                long carry1 = c0;
+                long carry2 = carry1 & c1;
+                long carry3 = carry2 & c2;
+                c0 = ~c0 & valid;
+                c1 = (c1 ^ carry1) & valid;
+                c2 = (c2 ^ carry2) & valid;
+                c3 = (c3 ^ carry3) & valid;
+
+                alive &= ~greaterThan(c0, c1, c2, c3, max);
+                if (alive == 0) {
+                    return 0;
+                }
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Bit-sliced comparison of the 4-bit lane counters with a constant.
+     *
+     * @return the lanes whose counter is greater than {@code max}
+     */
+    private static long greaterThan(long c0, long c1, long c2, long c3, int max) {
+        long greater = 0;
+        long equal = -1L;
+        if ((max & 8) == 0) {
+            greater = c3;
+            equal = ~c3;
+        } else {
+            equal = c3;
+        }
+        if ((max & 4) == 0) {
+            greater |= equal & c2;
+            equal &= ~c2;
+        } else {
+            equal &= c2;
+        }
+        if ((max & 2) == 0) {
+            greater |= equal & c1;
+            equal &= ~c1;
+        } else {
+            equal &= c1;
+        }
+        if ((max & 1) == 0) {
+            greater |= equal & c0;
+        }
+        return greater;
+    }
+
+    /**
+     * Reads an 11-bit window below bit 128 from two longs.
+     */
+    private static int window(long low, long high, int position) {
+        long value;
+        if (position >= 64) {
+            value = high >>> (position - 64);
+        } else {
+            value = low >>> position;
+            if (position > 53) {
+                value |= high << (64 - position);
+            }
+        }
+        return (int) value & 0x7FF;
+    }
+
+    /**
+     * Computes the bits flipped by the six low ESB bits for every lane: the ESB bits
+     * themselves and the XOR of their check-bit remainders.
+     */
+    private static long[][] deltas(boolean isLongFormat) {
+        long[][] remainders = IncrementalCheckBits.esbRemainders(isLongFormat);
+        long[][] result = new long[LANES][2];
+        for (int j = 0; j < LANES; j++) {
+            long low = 0;
+            long high = (long) j << (CHECK_BITS_SIZE - 64);
+            for (int k = 0; k < 6; k++) {
+                if ((j >>> k & 1) != 0) {
+                    low ^= remainders[0][k];
+                    high ^= remainders[1][k];
+                }
+            }
+            result[j][0] = low;
+            result[j][1] = high;
+        }
+        return result;
+    }
+}
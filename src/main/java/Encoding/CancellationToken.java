@@ -0,0 +1,28 @@
+package Encoding;
+
+/**
+ * CancellationToken lets another thread stop a running encoder search.
+ * <p>
+ * The search polls the token between candidate blocks, so a cancelled search returns
+ * within a few milliseconds with {@link EncodeReport.Outcome#CANCELLED}. A token can
+ * be shared by several searches, e.g. all telegrams of one batch.
+ * </p>
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Requests cancellation of every search using this token.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true once {@link #cancel()} has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,237 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * CaptureDecoder finds and decodes the telegrams of a long continuous bit capture, as
+ * recorded trackside while passing several balises.
+ * <p>
+ * The capture is read once, bit by bit, most significant bit of the first byte first;
+ * files are mapped into memory a segment at a time ({@link MappedByteBuffer}). For both
+ * telegram formats a {@link RollingSyndrome} follows the window ending at the current
+ * bit, and the last 1024 bits are kept in a ring so a window can be cut out when its
+ * g(x) syndrome becomes zero. A balise repeating its telegram gives a run of such
+ * windows, one per bit; only the first window of a run is decoded with
+ * {@link TelegramDecoder}. A decoded telegram is passed to the listener only the first
+ * time it is seen, so repetitions within and across runs are dropped.
+ * </p>
+ * <p>
+ * The heap use does not depend on the capture size: the ring, the two syndrome
+ * registers and a bounded set of the last distinct telegrams. A decoder is not
+ * thread-safe; use one per capture.
+ * </p>
+ */
+public final class CaptureDecoder {
+
+    private static final Logger LOG = LogManager.getLogger(CaptureDecoder.class);
+
+    /** Default number of distinct telegrams remembered for de-duplication. */
+    public static final int DEFAULT_DISTINCT_CAPACITY = 256;
+
+    /** Number of bytes of a file mapped at once. */
+    static final int SEGMENT_BYTES = 1 << 26;
+
+    // History of the last RING_BITS bits, enough for a long window
+    private static final int RING_BITS = 1024;
+    private static final int RING_MASK = RING_BITS - 1;
+
+    /**
+     * Receives the telegrams found in a capture.
+     */
+    @FunctionalInterface
+    public interface TelegramListener {
+        /**
+         * Called once per distinct telegram, in capture order.
+         *
+         * @param bitOffset the capture bit at which the first decoded window of the
+         *                  telegram starts
+         * @param result    the decoded telegram
+         */
+        void onTelegram(long bitOffset, DecodeResult result);
+    }
+
+    private final TelegramListener listener;
+    private final RollingSyndrome[] syndromes = {new RollingSyndrome(false), new RollingSyndrome(true)};
+    private final boolean[] inRun = new boolean[2];
+    private final long[] ring = new long[RING_BITS >>> 6];
+    private final Map<String, Boolean> seen;
+
+    private long position;
+    private long windows;
+    private long telegrams;
+    private long repeats;
+    private long failures;
+
+    /**
+     * Creates a decoder remembering {@value #DEFAULT_DISTINCT_CAPACITY} distinct telegrams.
+     *
+     * @param listener receives every distinct telegram
+     */
+    public CaptureDecoder(TelegramListener listener) {
+        this(listener, DEFAULT_DISTINCT_CAPACITY);
+    }
+
+    /**
+     * Creates a decoder.
+     *
+     * @param listener         receives every distinct telegram
+     * @param distinctCapacity number of distinct telegrams remembered; a telegram not
+     *                         seen among the last ones is reported again
+     */
+    public CaptureDecoder(TelegramListener listener, int distinctCapacity) {
+        this.listener = listener;
+        this.seen = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > distinctCapacity;
+            }
+        };
+    }
+
+    /**
+     * Decodes a capture file, mapping it into memory segment by segment.
+     *
+     * @param capture the raw capture
+     * @return the number of distinct telegrams passed to the listener
+     * @throws IOException if the file cannot be read
+     */
+    public long decode(Path capture) throws IOException {
+        LOG.info("Dekódování záznamu - [" + capture + "]");
+        try (FileChannel channel = FileChannel.open(capture, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long start = 0; start < size; start += SEGMENT_BYTES) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_BYTES, size - start));
+                feed(segment);
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * Decodes the capture between the buffer's position and limit. The position of the
+     * buffer is not changed.
+     *
+     * @param capture the raw capture
+     * @return the number of distinct telegrams passed to the listener
+     */
+    public long decode(ByteBuffer capture) {
+        feed(capture);
+        return finish();
+    }
+
+    /**
+     * @return number of windows whose g(x) syndrome was zero
+     */
+    public long getWindows() {
+        return windows;
+    }
+
+    /**
+     * @return number of decoded telegrams dropped as repetitions
+     */
+    public long getRepeats() {
+        return repeats;
+    }
+
+    /**
+     * @return number of runs of windows that passed g(x) but did not decode
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    private long finish() {
+        LOG.info("Záznam dekódován - " + position + " bitů - oken " + windows + " - telegramů " + telegrams
+                + " - opakování " + repeats + " - nedekódováno " + failures);
+        return telegrams;
+    }
+
+    private void feed(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            int value = buffer.get(i) & 0xFF;
+            for (int shift = 7; shift >= 0; shift--) {
+                push(value >>> shift & 1);
+            }
+        }
+    }
+
+    /**
+     * Appends the next capture bit and checks the windows of both formats ending at it.
+     * <p>
+     * Three repetitions of a short telegram form a long window that is divisible by the
+     * long g(x) as well, since {@code x^341 + 1} divides {@code x^1023 + 1}; a long
+     * window is therefore not tried while the short window ending at the same bit is a
+     * codeword.
+     * </p>
+     */
+    private void push(int bit) {
+        long p = position;
+        setRingBit(p, bit);
+        boolean shortCodeword = false;
+        for (int format = 0; format < 2; format++) {
+            RollingSyndrome syndrome = syndromes[format];
+            int n = syndrome.length();
+            if (p < n) {
+                syndrome.fill(bit);
+            } else {
+                syndrome.slide(bit, ringBit(p - n));
+            }
+            if (p >= n - 1 && syndrome.isZero() && !shortCodeword) {
+                windows++;
+                shortCodeword = n == SIZE_SHORT;
+                if (!inRun[format]) {
+                    inRun[format] = true;
+                    found(p - n + 1, n);
+                }
+            } else {
+                inRun[format] = false;
+            }
+        }
+        position = p + 1;
+    }
+
+    private void found(long start, int n) {
+        TelegramBits window = new TelegramBits(n);
+        for (int i = 0; i < n; i++) {
+            if (ringBit(start + i) != 0) {
+                window.setBit(n - 1 - i);
+            }
+        }
+        DecodeResult result = TelegramDecoder.decode(window);
+        if (!result.isSuccess()) {
+            failures++;
+            LOG.debug("Okno s nulovým syndromem nedekódováno - bit " + start + " - " + result);
+            return;
+        }
+        String key = (n == SIZE_LONG ? "L" : "S") + result.getUserDataHex();
+        if (seen.put(key, Boolean.TRUE) != null) {
+            repeats++;
+            return;
+        }
+        telegrams++;
+        LOG.info("Telegram v záznamu - bit " + start + " - " + result);
+        listener.onTelegram(start, result);
+    }
+
+    private int ringBit(long index) {
+        int i = (int) (index & RING_MASK);
+        return (int) (ring[i >>> 6] >>> i) & 1;
+    }
+
+    private void setRingBit(long index, int bit) {
+        int i = (int) (index & RING_MASK);
+        ring[i >>> 6] = (ring[i >>> 6] & ~(1L << i)) | ((long) bit << i);
+    }
+}
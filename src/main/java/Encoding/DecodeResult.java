@@ -0,0 +1,194 @@
+package Encoding;
+
+import java.util.Arrays;
+
+/**
+ * DecodeResult describes the outcome of decoding one received telegram with
+ * {@link TelegramDecoder#decode(byte[])}.
+ * <p>
+ * Besides the user data it records what the decoder found on the way: the format, the
+ * f(x) syndrome and the substitution index derived from it, the control bits and
+ * whether the telegram was transmitted inverted. A failed decode names the
+ * {@link Stage} that rejected the telegram; the values of the later stages are then
+ * not available.
+ * </p>
+ * <p>
+ * If errors were corrected (see {@link TelegramDecoder#decode(byte[], boolean)}), the
+ * result lists the flipped bits; all other values describe the corrected telegram.
+ * </p>
+ */
+public final class DecodeResult {
+
+    /**
+     * The decoding step that rejected a telegram.
+     */
+    public enum Stage {
+        /** The input is too short for a short telegram. */
+        FORMAT,
+        /** The telegram is not divisible by g(x). */
+        G_SYNDROME,
+        /** The f(x) syndrome does not select a substitution word. */
+        SUBSTITUTION,
+        /** Not every 11-bit word of the telegram is a valid word. */
+        WORDS,
+        /** The control bits b108, b107 are not "01". */
+        CONTROL_BITS
+    }
+
+    private final Stage failureStage;
+    private final boolean longFormat;
+    private final int syndrome;
+    private final int substitutionIndex;
+    private final int controlBits;
+    private final boolean inverted;
+    private final TelegramBits userData;
+    private final int[] correctedBits;
+
+    DecodeResult(Stage failureStage, boolean longFormat, int syndrome, int substitutionIndex,
+                 int controlBits, boolean inverted, TelegramBits userData) {
+        this(failureStage, longFormat, syndrome, substitutionIndex, controlBits, inverted, userData, null);
+    }
+
+    DecodeResult(Stage failureStage, boolean longFormat, int syndrome, int substitutionIndex,
+                 int controlBits, boolean inverted, TelegramBits userData, int[] correctedBits) {
+        this.failureStage = failureStage;
+        this.longFormat = longFormat;
+        this.syndrome = syndrome;
+        this.substitutionIndex = substitutionIndex;
+        this.controlBits = controlBits;
+        this.inverted = inverted;
+        this.userData = userData;
+        this.correctedBits = correctedBits;
+    }
+
+    /**
+     * @return true if the user data was recovered
+     */
+    public boolean isSuccess() {
+        return failureStage == null;
+    }
+
+    /**
+     * @return the stage that rejected the telegram, or null if decoding succeeded
+     */
+    public Stage getFailureStage() {
+        return failureStage;
+    }
+
+    /**
+     * @return true for a long telegram (n=1023), false for a short one (n=341); not
+     *         meaningful if the stage {@link Stage#FORMAT} failed
+     */
+    public boolean isLongFormat() {
+        return longFormat;
+    }
+
+    /**
+     * @return the f(x) remainder of the received telegram, or -1 if the g(x) check failed
+     */
+    public int getSyndrome() {
+        return syndrome;
+    }
+
+    /**
+     * @return the number of bits the telegram was rotated by to undo the substitution
+     *         word, or -1 if none was found
+     */
+    public int getSubstitutionIndex() {
+        return substitutionIndex;
+    }
+
+    /**
+     * @return the control bits b109, b108, b107 as a 3-bit value (b109 highest) as
+     *         received, or -1 if decoding stopped before they were read
+     */
+    public int getControlBits() {
+        return controlBits;
+    }
+
+    /**
+     * @return true if the inversion bit b109 was set and the telegram was inverted back
+     */
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    /**
+     * @return true if bits of the received telegram were flipped to correct errors
+     */
+    public boolean isCorrected() {
+        return correctedBits != null;
+    }
+
+    /**
+     * @return the positions of the corrected bits in the received telegram, counted from
+     *         the first transmitted bit (0) in ascending order; empty if none were corrected
+     */
+    public int[] getCorrectedBits() {
+        return correctedBits != null ? correctedBits.clone() : new int[0];
+    }
+
+    /**
+     * @return the user data (830 bits for a long, 210 bits for a short telegram) as a new
+     *         bit vector, or null if decoding failed
+     */
+    public TelegramBits getUserData() {
+        if (userData == null) {
+            return null;
+        }
+        TelegramBits copy = new TelegramBits(userData.size());
+        copy.copyFrom(userData);
+        return copy;
+    }
+
+    /**
+     * @return the user data, most significant bit first and filled up to whole bytes with
+     *         zero bits, or null if decoding failed
+     */
+    public byte[] getUserDataBytes() {
+        return userData != null ? userData.toByteArray() : null;
+    }
+
+    /**
+     * @return the user data in hexadecimal form, filled up to whole hex digits with zero
+     *         bits, as returned by {@link TelegramDecoder#decodeTelegram(String)}; empty if
+     *         decoding failed
+     */
+    public String getUserDataHex() {
+        if (userData == null) {
+            return "";
+        }
+        byte[] bytes = userData.toByteArray();
+        char[] chars = new char[(userData.size() + 3) >>> 2];
+        for (int i = 0; i < chars.length; i++) {
+            int nibble = (i & 1) == 0 ? (bytes[i >>> 1] >>> 4) & 0xF : bytes[i >>> 1] & 0xF;
+            chars[i] = Character.toUpperCase(Character.forDigit(nibble, 16));
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(isSuccess() ? "DECODED" : "FAILED at " + failureStage);
+        if (failureStage != Stage.FORMAT) {
+            sb.append(" - ").append(longFormat ? "long" : "short");
+        }
+        if (syndrome >= 0) {
+            sb.append(" - syndrome=").append(Integer.toHexString(syndrome));
+        }
+        if (substitutionIndex >= 0) {
+            sb.append(" - substitution=").append(substitutionIndex);
+        }
+        if (controlBits >= 0) {
+            sb.append(" - control=").append(Integer.toBinaryString(controlBits | 0b1000).substring(1));
+        }
+        if (inverted) {
+            sb.append(" - inverted");
+        }
+        if (correctedBits != null) {
+            sb.append(" - corrected=").append(Arrays.toString(correctedBits));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,399 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tools.crypto.ArithmeticalFunctions;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * EncodeCache remembers encoded telegrams, keyed by the SHA-256 of the user-data bits
+ * together with the starting SB, ESB and step of the search.
+ * <p>
+ * The cache has two tiers. An in-memory LRU map holds recently used telegrams; it
+ * only ever contains telegrams produced by the encoder in this process or verified
+ * since. The optional disk tier lives in a workspace directory and consists of an
+ * append-only data file and an append-only index of record offsets. The index is
+ * loaded on the first disk access; records the index is missing (e.g. after a crash
+ * between the two writes) are recovered by scanning the tail of the data file.
+ * </p>
+ * <p>
+ * A telegram read from disk is decoded with {@link TelegramDecoder} and only used if
+ * it decodes back to the requested user data. All methods are thread-safe. The cache
+ * monitor guards only the memory map, the index and the counters; file I/O and the
+ * verification of disk records run outside it, and appends to the disk tier are
+ * serialized on a separate lock.
+ * </p>
+ */
+public final class EncodeCache {
+
+    private static final Logger LOG = LogManager.getLogger(EncodeCache.class);
+
+    /** Default number of telegrams kept in memory. */
+    public static final int DEFAULT_MEMORY_CAPACITY = 1024;
+
+    static final String DATA_FILE = "encode-cache.dat";
+    static final String INDEX_FILE = "encode-cache.idx";
+
+    private static final int KEY_BYTES = 32;
+    // key, SB, ESB, hex length
+    private static final int RECORD_HEADER_BYTES = KEY_BYTES + 2 + 2 + 2;
+    // key, offset
+    static final int INDEX_RECORD_BYTES = KEY_BYTES + 8;
+
+    private static EncodeCache defaultCache;
+
+    /**
+     * A cached telegram with the SB/ESB of its accepted candidate.
+     */
+    static final class Entry {
+        final String hex;
+        final int sb;
+        final int esb;
+
+        Entry(String hex, int sb, int esb) {
+            this.hex = hex;
+            this.sb = sb;
+            this.esb = esb;
+        }
+    }
+
+    private final Path directory;
+    private final Map<String, Entry> memory;
+    // Serializes loading the index and appending to the disk tier; taken before the monitor
+    private final Object diskLock = new Object();
+
+    // Offsets of the records in the data file, loaded lazily
+    private Map<String, Long> index;
+    private volatile boolean diskEnabled;
+
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+
+    /**
+     * Creates a cache.
+     *
+     * @param directory      workspace directory of the disk tier, or null for a memory-only cache
+     * @param memoryCapacity number of telegrams kept in memory
+     */
+    public EncodeCache(Path directory, int memoryCapacity) {
+        this.directory = directory;
+        this.diskEnabled = directory != null;
+        this.memory = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the shared cache whose disk tier is in {@code ~/.SedloGram/encode-cache},
+     * or in the directory given by the system property {@code sedlogram.cache.dir}.
+     *
+     * @return the shared cache
+     */
+    public static synchronized EncodeCache getDefault() {
+        if (defaultCache == null) {
+            String dir = System.getProperty("sedlogram.cache.dir");
+            Path path = dir != null
+                    ? Paths.get(dir)
+                    : Paths.get(System.getProperty("user.home"), ".SedloGram", "encode-cache");
+            defaultCache = new EncodeCache(path, DEFAULT_MEMORY_CAPACITY);
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Looks up a telegram in memory and then on disk. Telegrams of warm-started searches
+     * are kept apart from those of canonical searches, see {@link SearchHints}.
+     *
+     * @return the cached telegram, or null
+     */
+    Entry get(String input, int sb, int esb, BigInteger adder, boolean hinted) {
+        String key = key(input, sb, esb, adder, hinted);
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                memoryHits++;
+                return entry;
+            }
+        }
+
+        Entry entry = readFromDisk(key);
+        if (entry != null) {
+            String decoded = TelegramDecoder.decodeTelegram(entry.hex);
+            if (decoded.equalsIgnoreCase(ArithmeticalFunctions.bin2Hex(input))) {
+                synchronized (this) {
+                    diskHits++;
+                    memory.put(key, entry);
+                }
+                return entry;
+            }
+            LOG.warn("Záznam cache neodpovídá uživatelským datům, kóduji znovu");
+        }
+        synchronized (this) {
+            misses++;
+        }
+        return null;
+    }
+
+    /**
+     * Stores a telegram produced by the encoder in both tiers.
+     */
+    void put(String input, int sb, int esb, BigInteger adder, boolean hinted, Entry entry) {
+        String key = key(input, sb, esb, adder, hinted);
+        synchronized (this) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+
+    /**
+     * @return number of lookups answered from memory
+     */
+    public synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    /**
+     * @return number of lookups answered from the disk tier
+     */
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * @return number of lookups that had to run the encoder
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Computes the cache key of a search.
+     */
+    static String key(String input, int sb, int esb, BigInteger adder, boolean hinted) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(input.getBytes(StandardCharsets.US_ASCII));
+            digest.update(ByteBuffer.allocate(9).put((byte) (hinted ? 1 : 0)).putInt(sb).putInt(esb).array());
+            digest.update(adder.toByteArray());
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        if (!diskEnabled) {
+            return null;
+        }
+        try {
+            loadIndex();
+            Long offset = indexedOffset(key);
+            if (offset == null) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.READ)) {
+                return readRecord(channel, offset, null);
+            }
+        } catch (IOException e) {
+            disableDisk(e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (!diskEnabled) {
+            return;
+        }
+        try {
+            loadIndex();
+            byte[] hex = entry.hex.getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + hex.length);
+            record.put(fromHex(key)).putShort((short) entry.sb).putShort((short) entry.esb)
+                    .putShort((short) hex.length).put(hex).flip();
+
+            synchronized (diskLock) {
+                if (indexedOffset(key) != null) {
+                    return;
+                }
+                long offset;
+                try (FileChannel channel = FileChannel.open(directory.resolve(DATA_FILE),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    offset = channel.size();
+                    writeFully(channel, record);
+                }
+                appendIndex(key, offset);
+                synchronized (this) {
+                    index.put(key, offset);
+                }
+            }
+        } catch (IOException e) {
+            disableDisk(e);
+        }
+    }
+
+    private synchronized Long indexedOffset(String key) {
+        return index.get(key);
+    }
+
+    /**
+     * Reads the index and recovers records appended to the data file after the last
+     * indexed one.
+     */
+    private void loadIndex() throws IOException {
+        synchronized (this) {
+            if (index != null) {
+                return;
+            }
+        }
+        synchronized (diskLock) {
+            synchronized (this) {
+                if (index != null) {
+                    return;
+                }
+            }
+            Map<String, Long> loaded = readIndex();
+            synchronized (this) {
+                index = loaded;
+            }
+        }
+    }
+
+    private Map<String, Long> readIndex() throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Long> offsets = new HashMap<>();
+        Path dataPath = directory.resolve(DATA_FILE);
+        Path indexPath = directory.resolve(INDEX_FILE);
+        long dataSize = Files.exists(dataPath) ? Files.size(dataPath) : 0;
+
+        long lastOffset = -1;
+        if (Files.exists(indexPath)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            byte[] keyBytes = new byte[KEY_BYTES];
+            while (buffer.remaining() >= INDEX_RECORD_BYTES) {
+                buffer.get(keyBytes);
+                long offset = buffer.getLong();
+                if (offset >= 0 && offset + RECORD_HEADER_BYTES <= dataSize) {
+                    offsets.put(toHex(keyBytes), offset);
+                    lastOffset = Math.max(lastOffset, offset);
+                }
+            }
+        }
+
+        if (dataSize == 0) {
+            return offsets;
+        }
+        int recovered = 0;
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            long position = 0;
+            if (lastOffset >= 0) {
+                ByteBuffer header = readBytes(channel, lastOffset, RECORD_HEADER_BYTES);
+                position = lastOffset + RECORD_HEADER_BYTES + (header.getShort(KEY_BYTES + 4) & 0xFFFF);
+            }
+            while (position + RECORD_HEADER_BYTES <= dataSize) {
+                String[] key = new String[1];
+                Entry entry = readRecord(channel, position, key);
+                if (entry == null) {
+                    break;
+                }
+                if (!offsets.containsKey(key[0])) {
+                    appendIndex(key[0], position);
+                    offsets.put(key[0], position);
+                    recovered++;
+                }
+                position += RECORD_HEADER_BYTES + entry.hex.length();
+            }
+        }
+        if (recovered > 0) {
+            LOG.info("Obnoveno " + recovered + " záznamů indexu cache");
+        }
+        return offsets;
+    }
+
+    /**
+     * Reads one data record; returns null for a truncated record.
+     */
+    private static Entry readRecord(FileChannel channel, long offset, String[] keyOut) throws IOException {
+        if (offset + RECORD_HEADER_BYTES > channel.size()) {
+            return null;
+        }
+        ByteBuffer header = readBytes(channel, offset, RECORD_HEADER_BYTES);
+        byte[] keyBytes = new byte[KEY_BYTES];
+        header.get(keyBytes);
+        int sb = header.getShort() & 0xFFFF;
+        int esb = header.getShort() & 0xFFFF;
+        int length = header.getShort() & 0xFFFF;
+        if (offset + RECORD_HEADER_BYTES + length > channel.size()) {
+            return null;
+        }
+        ByteBuffer hex = readBytes(channel, offset + RECORD_HEADER_BYTES, length);
+        if (keyOut != null) {
+            keyOut[0] = toHex(keyBytes);
+        }
+        return new Entry(new String(hex.array(), StandardCharsets.US_ASCII), sb, esb);
+    }
+
+    private void appendIndex(String key, long offset) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_BYTES);
+        record.put(fromHex(key)).putLong(offset).flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writeFully(channel, record);
+        }
+    }
+
+    private static ByteBuffer readBytes(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of cache file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void disableDisk(IOException e) {
+        LOG.error("Diskovou cache nelze použít: " + e.getMessage());
+        diskEnabled = false;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,221 @@
+package Encoding;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * EncodeReport describes the outcome of one encoder search.
+ * <p>
+ * Besides the encoded telegram it records the accepted SB/ESB, how many candidates
+ * were visited and how much time each stage of the candidate pipeline took, so the
+ * caller can tell why a particular telegram was slow to encode.
+ * </p>
+ * <p>
+ * Stage times are summed over all workers; in a parallel search they can therefore
+ * exceed the wall-clock time of the search.
+ * </p>
+ */
+public final class EncodeReport {
+
+    /**
+     * How the search ended.
+     */
+    public enum Outcome {
+        /** A valid candidate was found. */
+        FOUND,
+        /** The search reached the last candidate index without a hit. */
+        LIMIT_REACHED,
+        /** The search was stopped through its {@link CancellationToken}. */
+        CANCELLED,
+        /** The search ran past its deadline. */
+        DEADLINE_EXCEEDED
+    }
+
+    private final String result;
+    private final byte[] bytes;
+    private final int sb;
+    private final int esb;
+    private final Outcome outcome;
+    private final boolean cached;
+    private final int hintSB;
+    private final boolean hintHit;
+    private final long candidatesTried;
+    private final long candidatesEvaluated;
+    private final long scrambleNanos;
+    private final long shapingNanos;
+    private final long checkBitsNanos;
+    private final long totalNanos;
+    private final List<EncoderSession.ConditionStats> conditions;
+
+    EncodeReport(String result, byte[] bytes, int sb, int esb, Outcome outcome, boolean cached, int hintSB, boolean hintHit,
+                 long candidatesTried, long candidatesEvaluated,
+                 long scrambleNanos, long shapingNanos, long checkBitsNanos, long totalNanos,
+                 List<EncoderSession.ConditionStats> conditions) {
+        this.result = result;
+        this.bytes = bytes;
+        this.sb = sb;
+        this.esb = esb;
+        this.outcome = outcome;
+        this.cached = cached;
+        this.hintSB = hintSB;
+        this.hintHit = hintHit;
+        this.candidatesTried = candidatesTried;
+        this.candidatesEvaluated = candidatesEvaluated;
+        this.scrambleNanos = scrambleNanos;
+        this.shapingNanos = shapingNanos;
+        this.checkBitsNanos = checkBitsNanos;
+        this.totalNanos = totalNanos;
+        this.conditions = Collections.unmodifiableList(conditions);
+    }
+
+    /**
+     * @return the encoded telegram in hexadecimal form, or null if no candidate was found
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return the encoded telegram as written to a .tlg file (128 bytes for a long, 43 for
+     *         a short telegram), or null if no candidate was found; a new copy on every call
+     */
+    public byte[] getBytes() {
+        return bytes != null ? bytes.clone() : null;
+    }
+
+    /**
+     * @return true if a valid encoding was found
+     */
+    public boolean isSuccess() {
+        return result != null;
+    }
+
+    /**
+     * @return the SB of the accepted candidate, or the starting SB if none was found
+     */
+    public int getSB() {
+        return sb;
+    }
+
+    /**
+     * @return the ESB of the accepted candidate, or the starting ESB if none was found
+     */
+    public int getESB() {
+        return esb;
+    }
+
+    /**
+     * @return how the search ended
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return true if the result was taken from an {@link EncodeCache} without a search
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * @return the SB suggested by {@link SearchHints} for this telegram, or -1 if there was none
+     */
+    public int getHintSB() {
+        return hintSB;
+    }
+
+    /**
+     * @return true if the telegram was found within {@link SearchHints#HINT_SPAN} SB values of the hint
+     */
+    public boolean isHintHit() {
+        return hintHit;
+    }
+
+    /**
+     * @return true if the search reached the last candidate index (4 194 303) without a hit
+     */
+    public boolean isLimitReached() {
+        return outcome == Outcome.LIMIT_REACHED;
+    }
+
+    /**
+     * @return number of candidate indices visited, including those with an invalid header;
+     *         a stopped parallel search may count a few candidates past the stop
+     */
+    public long getCandidatesTried() {
+        return candidatesTried;
+    }
+
+    /**
+     * @return number of candidates whose telegram was built and checked
+     */
+    public long getCandidatesEvaluated() {
+        return candidatesEvaluated;
+    }
+
+    /**
+     * @return time spent scrambling the user data (once per SB), in nanoseconds
+     */
+    public long getScrambleNanos() {
+        return scrambleNanos;
+    }
+
+    /**
+     * @return time spent in the 10-to-11-bit shaping (once per SB), in nanoseconds
+     */
+    public long getShapingNanos() {
+        return shapingNanos;
+    }
+
+    /**
+     * @return time spent assembling the header and computing check bits, in nanoseconds
+     */
+    public long getCheckBitsNanos() {
+        return checkBitsNanos;
+    }
+
+    /**
+     * @return wall-clock time of the whole search, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return per-condition counters and times, in the fixed condition order
+     */
+    public List<EncoderSession.ConditionStats> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Returns the counters of one condition.
+     *
+     * @param condition the condition
+     * @return its counters
+     */
+    public EncoderSession.ConditionStats getCondition(EncoderSession.Condition condition) {
+        return conditions.get(condition.ordinal());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(outcome).append(cached ? " (cache)" : "")
+                .append(" - SB=").append(Integer.toHexString(this.sb))
+                .append(" ESB=").append(Integer.toHexString(esb));
+        if (hintSB >= 0) {
+            sb.append(" - hint SB=").append(Integer.toHexString(hintSB)).append(hintHit ? " (hit)" : " (miss)");
+        }
+        sb.append(" - tried=").append(candidatesTried)
+                .append(" evaluated=").append(candidatesEvaluated)
+                .append(String.format(" - total=%.3f ms scramble=%.3f ms shaping=%.3f ms check bits=%.3f ms",
+                        totalNanos / 1_000_000.0, scrambleNanos / 1_000_000.0,
+                        shapingNanos / 1_000_000.0, checkBitsNanos / 1_000_000.0));
+        for (EncoderSession.ConditionStats stats : conditions) {
+            sb.append(" - ").append(stats);
+        }
+        return sb.toString();
+    }
+}
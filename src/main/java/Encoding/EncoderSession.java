@@ -0,0 +1,1183 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tools.crypto.ArithmeticalFunctions;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+import static Encoding.EncryptionHelperList.*;
+import static Encoding.TelegramEncoder.*;
+
+/**
+ * EncoderSession holds all mutable state of a single telegram encoding search.
+ * <p>
+ * Every call to {@link TelegramEncoder#encode(String)} creates its own session, so
+ * several telegrams can be encoded concurrently from different threads without
+ * sharing the SB/ESB search position. A session is not thread-safe itself and is
+ * meant to be used for exactly one search.
+ * </p>
+ * <p>
+ * Candidates are addressed by their index {@code SB << 10 | ESB} and are accepted in
+ * ascending index order unless a {@link SearchStrategy} is set, and only indices listed
+ * in {@link ValidHeaders} are built. In {@link SearchMode#PARALLEL} mode that list is cut into chunks which are
+ * claimed in ascending order by workers of a {@link ForkJoinPool}; once a hit is found,
+ * chunks above it are abandoned, and the lowest hit wins, so both modes return the same
+ * telegram.
+ * </p>
+ * <p>
+ * With {@link SearchHints} the search may instead start at the SB where the last
+ * telegram of the same family was found, run to the end of the index space and wrap
+ * around to the starting point; {@link #setDeterministic(boolean)} turns this off.
+ * </p>
+ * <p>
+ * Every {@value #CHECKPOINT_INTERVAL} candidates the search reports its progress and
+ * stops early if its {@link CancellationToken} was cancelled or its deadline passed.
+ * </p>
+ */
+public class EncoderSession {
+
+    private static final Logger LOG = LogManager.getLogger(EncoderSession.class);
+
+    /**
+     * Number of (SB, ESB) candidate indices, 12-bit SB times 10-bit ESB.
+     */
+    static final int SEARCH_SPACE = 4096 * 1024;
+
+    /**
+     * Number of consecutive candidates with a valid header a parallel worker claims at once.
+     */
+    static final int PARALLEL_CHUNK = 64;
+
+    /**
+     * Number of evaluated candidates after which an adaptive worker reorders its checks.
+     */
+    static final int REORDER_INTERVAL = 1024;
+
+    /**
+     * Number of candidate indices between two checks of cancellation, deadline and
+     * progress.
+     */
+    static final int CHECKPOINT_INTERVAL = 1 << 14;
+
+    /**
+     * Receives the progress of a running search.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called every few thousand candidates; in a parallel search it may be called
+         * from any worker thread.
+         *
+         * @param tried number of candidate indices visited so far
+         * @param total number of candidate indices in the search space
+         */
+        void onProgress(long tried, long total);
+    }
+
+    /**
+     * Receives the encodings of {@link #encodeAll(int, SolutionListener)}.
+     */
+    @FunctionalInterface
+    public interface SolutionListener {
+        /**
+         * Called on the thread that runs the search, once per encoding, in search order.
+         *
+         * @param hex the encoded telegram in hexadecimal form
+         * @param sb  the SB of the encoding
+         * @param esb the ESB of the encoding
+         */
+        void onSolution(String hex, int sb, int esb);
+    }
+
+    /**
+     * Candidate search strategy of the session.
+     */
+    public enum SearchMode {
+        /** Candidates are tested one after another on the calling thread. */
+        SERIAL,
+        /** Candidate ranges are tested concurrently on a ForkJoin pool. */
+        PARALLEL
+    }
+
+    /**
+     * How candidates are screened before the full condition checks.
+     */
+    public enum Evaluation {
+        /** Every candidate with a valid header is built and checked on its own. */
+        SCALAR,
+        /**
+         * Aligned blocks of 64 candidates are screened together by the alphabet and
+         * off-synch parsing conditions, see {@link BitSlicedEvaluator}; only survivors
+         * are built and checked on their own. Stacks with {@link SearchMode#PARALLEL}.
+         */
+        BIT_SLICED
+    }
+
+    /**
+     * Order in which the conditions are applied to a candidate. All conditions must pass,
+     * so the order only changes how soon a candidate is rejected, never the result.
+     */
+    public enum ConditionOrder {
+        /** Alphabet, aperiodicity, off-synch parsing, undersampling; reproducible timing. */
+        FIXED,
+        /** Periodically sorted by rejections per nanosecond measured in the running search. */
+        ADAPTIVE
+    }
+
+    /**
+     * The conditions a candidate telegram must satisfy, in their fixed order.
+     */
+    public enum Condition {
+        ALPHABET("Neprošla abeceda") {
+            @Override
+            boolean test(TelegramEncoder.Telegram telegram) {
+                return check_alphabet_condition(telegram);
+            }
+        },
+        APERIODICITY("Neprošla aperiodicity") {
+            @Override
+            boolean test(TelegramEncoder.Telegram telegram) {
+                return check_aperiodicity_condition(telegram);
+            }
+        },
+        OFF_SYNCH("Neprošla synch parsing") {
+            @Override
+            boolean test(TelegramEncoder.Telegram telegram) {
+                return check_off_synch_parsing_condition(telegram);
+            }
+        },
+        UNDERSAMPLING("Neprošla undersampling") {
+            @Override
+            boolean test(TelegramEncoder.Telegram telegram) {
+                return checkUndersamplingCondition(telegram);
+            }
+        };
+
+        private final String rejectionMessage;
+
+        Condition(String rejectionMessage) {
+            this.rejectionMessage = rejectionMessage;
+        }
+
+        abstract boolean test(TelegramEncoder.Telegram telegram);
+    }
+
+    /**
+     * Counters of one condition collected during a search.
+     */
+    public static final class ConditionStats {
+        private final Condition condition;
+        private final long checked;
+        private final long rejected;
+        private final long nanos;
+
+        ConditionStats(Condition condition, long checked, long rejected, long nanos) {
+            this.condition = condition;
+            this.checked = checked;
+            this.rejected = rejected;
+            this.nanos = nanos;
+        }
+
+        public Condition getCondition() {
+            return condition;
+        }
+
+        /**
+         * @return number of candidates the condition was applied to
+         */
+        public long getChecked() {
+            return checked;
+        }
+
+        /**
+         * @return number of candidates the condition rejected
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return total time spent in the condition in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return condition + ": checked=" + checked + ", rejected=" + rejected + ", time=" + nanos / 1_000_000 + " ms";
+        }
+    }
+
+    private final String input;
+    private final TelegramEncoder.Telegram telegram;
+    private final int m;
+    // U' (user data with the checksum word) as scrambler input
+    private final long[] uTick;
+
+    // Search state owned by this session
+    private int sb;
+    private int esb;
+    private final BigInteger adderESB;
+    private SearchMode searchMode = SearchMode.SERIAL;
+    private ConditionOrder conditionOrder = ConditionOrder.FIXED;
+    private Evaluation evaluation = Evaluation.SCALAR;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private CancellationToken cancellationToken;
+    private Instant deadline;
+    private ProgressListener progressListener;
+    private EncodeCache cache;
+    private SearchHints hints;
+    private String family;
+    private boolean deterministic;
+    private SearchStrategy strategy;
+
+    // Set once the search has to stop early; read by all workers
+    private volatile EncodeReport.Outcome stopReason;
+    private long deadlineNanos;
+    private long searchSize;
+    private long progressBase;
+    private int hintSB = -1;
+    private boolean hintHit;
+
+    // Counters merged from all workers of the search
+    private final long[] checked = new long[Condition.values().length];
+    private final long[] rejected = new long[Condition.values().length];
+    private final long[] nanos = new long[Condition.values().length];
+    private long tried;
+    private long evaluated;
+    private long scrambleNanos;
+    private long shapingNanos;
+    private long checkBitsNanos;
+
+    // Read once per session so the hot loop does not query the logger
+    private final boolean debugEnabled = LOG.isDebugEnabled();
+
+    /**
+     * Creates a new session for the given user data and search starting point.
+     *
+     * @param input    the input telegram as a binary string
+     * @param sb       initial SB value (12 bits)
+     * @param esb      initial ESB value (10 bits)
+     * @param adderESB additional value to be added to ESB during processing
+     */
+    public EncoderSession(String input, int sb, int esb, BigInteger adderESB) {
+        this.input = input;
+        this.telegram = new TelegramEncoder.Telegram(input);
+        this.m = telegram.isLongTelegram ? 830 : 210;
+        this.uTick = TelegramBits.fromBigInteger(determineUTick(telegram.userdata, m), m).words();
+        this.sb = sb;
+        this.esb = esb;
+        this.adderESB = adderESB;
+    }
+
+    /**
+     * Creates a new session starting from SB=0, ESB=0 with step 1.
+     *
+     * @param input the input telegram as a binary string
+     */
+    public EncoderSession(String input) {
+        this(input, 0, 0, BigInteger.ONE);
+    }
+
+    /**
+     * Selects serial or parallel candidate search.
+     *
+     * @param searchMode the search mode
+     * @return this session
+     */
+    public EncoderSession setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+        return this;
+    }
+
+    /**
+     * Selects the fixed or adaptive order of the condition checks.
+     *
+     * @param conditionOrder the condition order
+     * @return this session
+     */
+    public EncoderSession setConditionOrder(ConditionOrder conditionOrder) {
+        this.conditionOrder = conditionOrder;
+        return this;
+    }
+
+    /**
+     * Selects scalar or bit-sliced screening of the candidates. Both return the same
+     * telegram; in bit-sliced mode the off-synch condition may reject a candidate before
+     * the aperiodicity condition, which shifts the per-condition counters.
+     *
+     * @param evaluation the evaluation mode
+     * @return this session
+     */
+    public EncoderSession setEvaluation(Evaluation evaluation) {
+        this.evaluation = evaluation;
+        return this;
+    }
+
+    /**
+     * Sets the pool used by {@link SearchMode#PARALLEL}; the common pool is used by default.
+     *
+     * @param pool the ForkJoin pool
+     * @return this session
+     */
+    public EncoderSession setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Sets the token through which another thread can cancel the search.
+     *
+     * @param cancellationToken the token, or null for an uncancellable search
+     * @return this session
+     */
+    public EncoderSession setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
+    /**
+     * Sets the point in time after which the search gives up.
+     *
+     * @param deadline the deadline, or null for no deadline
+     * @return this session
+     */
+    public EncoderSession setDeadline(Instant deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * Sets the listener receiving the number of candidates tried.
+     *
+     * @param progressListener the listener, or null
+     * @return this session
+     */
+    public EncoderSession setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Sets the cache consulted before the search and filled with its result.
+     *
+     * @param cache the cache, or null to always search
+     * @return this session
+     */
+    public EncoderSession setCache(EncodeCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Sets the hint store used to warm-start the search; the family of the telegram is
+     * taken from its {@code NID_C} and {@code NID_BG} header fields.
+     *
+     * @param hints the hint store, or null to always start at the given SB/ESB
+     * @return this session
+     */
+    public EncoderSession setHints(SearchHints hints) {
+        return setHints(hints, SearchHints.familyOf(input));
+    }
+
+    /**
+     * Sets the hint store used to warm-start the search together with a caller-supplied
+     * family key.
+     *
+     * @param hints  the hint store, or null to always start at the given SB/ESB
+     * @param family the family key, or null to disable hints
+     * @return this session
+     */
+    public EncoderSession setHints(SearchHints hints, String family) {
+        this.hints = hints;
+        this.family = family;
+        return this;
+    }
+
+    /**
+     * Selects the order in which the candidates are visited. Any strategy other than
+     * {@link SearchStrategy#lexicographic()} may return a different (valid) telegram than
+     * the reference; such a search evaluates every candidate on its own, ignoring
+     * {@link Evaluation#BIT_SLICED}, and neither uses the cache nor warm-starts from hints.
+     *
+     * @param strategy the candidate order, or null for the lexicographic order
+     * @return this session
+     */
+    public EncoderSession setSearchStrategy(SearchStrategy strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+
+    /**
+     * Keeps the result independent of the hints. A deterministic session searches in
+     * canonical order from its starting point and returns the same telegram as a
+     * session without hints; the hint is only scored and updated, so the hit rate shows
+     * what warm start would gain.
+     *
+     * @param deterministic true to ignore hints for the search order
+     * @return this session
+     */
+    public EncoderSession setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+        return this;
+    }
+
+    /**
+     * Runs the candidate search and returns the first valid encoding.
+     *
+     * @return the encoded telegram in hexadecimal form, or null if encoding fails
+     */
+    public String encode() {
+
+        return encodeWithReport().getResult();
+    }
+
+    /**
+     * Runs the candidate search and returns the first valid encoding as the bytes of a
+     * .tlg file, taken straight from the encoded bit vector.
+     *
+     * @return the 128-byte (long) or 43-byte (short) telegram, or null if encoding fails
+     */
+    public byte[] encodeToBytes() {
+        return encodeWithReport().getBytes();
+    }
+
+    /**
+     * Runs the candidate search and reports the result together with the search
+     * statistics.
+     *
+     * @return the report; its result is null if encoding fails
+     */
+    public EncodeReport encodeWithReport() {
+
+        long startNanos = System.nanoTime();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Začátek kodování - [" + ArithmeticalFunctions.bin2Hex(input) + "]");
+            LOG.info("Délka telegramu - (" + (telegram.isLongTelegram ? "Dlouhý" : "Krátký") + ")");
+            LOG.info("SB=" + Integer.toHexString(sb) + " - ESB=" + Integer.toHexString(esb) + " - krok=" + adderESB.toString(16)
+                    + " - režim=" + searchMode + " - pořadí podmínek=" + conditionOrder);
+        }
+
+        int startSB = sb;
+        int startESB = esb;
+        // The search always continues after the given starting point.
+        int first = (sb << 10) + esb + 1;
+        if (hints != null && family != null) {
+            hintSB = hints.suggest(family);
+        }
+        boolean ordered = isOrdered();
+        // A warm start searches from the hinted SB to the end and then wraps around
+        boolean warmStart = !ordered && !deterministic && hintSB >= 0 && (hintSB << 10) > first;
+
+        if (cache != null && !ordered) {
+            EncodeCache.Entry entry = cache.get(input, startSB, startESB, adderESB, warmStart);
+            if (entry != null) {
+                sb = entry.sb;
+                esb = entry.esb;
+                if (hints != null && family != null) {
+                    hints.record(family, sb);
+                }
+                LOG.info("Výsledek z cache - [" + entry.hex + "] - SB=" + Integer.toHexString(sb) + " - ESB=" + Integer.toHexString(esb));
+                return report(entry.hex, toBytes(entry.hex), EncodeReport.Outcome.FOUND, true, startNanos);
+            }
+        }
+
+        searchSize = Math.max(0, SEARCH_SPACE - first);
+        if (deadline != null) {
+            deadlineNanos = startNanos + Duration.between(Instant.now(), deadline).toNanos();
+        }
+
+        Worker worker = new Worker();
+        int found;
+        if (ordered) {
+            LOG.info("Pořadí kandidátů - " + strategy);
+            Order order = new Order(first);
+            searchSize = order.count;
+            int rank = searchOrdered(worker, order, 0);
+            found = rank < 0 ? -1 : order.index(rank);
+        } else if (warmStart) {
+            LOG.info("Teplý start - rodina " + family + " - SB=" + Integer.toHexString(hintSB));
+            int hintStart = hintSB << 10;
+            found = search(worker, hintStart, SEARCH_SPACE);
+            if (found < 0 && stopReason == null) {
+                progressBase = SEARCH_SPACE - hintStart;
+                found = search(worker, first, hintStart);
+            }
+        } else {
+            found = search(worker, first, SEARCH_SPACE);
+        }
+        if (searchMode == SearchMode.SERIAL) {
+            mergeStats(worker);
+        }
+        if (hintSB >= 0 && stopReason == null) {
+            hintHit = hints.score(hintSB, found < 0 ? -1 : found >>> 10);
+        }
+        if (debugEnabled) {
+            for (ConditionStats stats : getConditionStats()) {
+                LOG.debug("Statistika podmínky - " + stats);
+            }
+        }
+
+        if (stopReason != null) {
+            LOG.info("Kódování přerušeno - " + stopReason);
+            return report(null, null, stopReason, false, startNanos);
+        }
+        if (found < 0) {
+            LOG.info("Nenalezen žádný vyhovující kandidát");
+            return report(null, null, EncodeReport.Outcome.LIMIT_REACHED, false, startNanos);
+        }
+
+        sb = found >>> 10;
+        esb = found & 0x3FF;
+        if (searchMode == SearchMode.PARALLEL) {
+            worker.evaluate(found);
+        }
+
+        byte[] bytes = worker.telegram.transformData.toByteArray();
+        String hex = toHex(bytes);
+
+        LOG.info("Výsledek - [" + hex + "] - SB=" + Integer.toHexString(sb) + " - ESB=" + Integer.toHexString(esb));
+
+        if (hints != null && family != null) {
+            hints.record(family, sb);
+        }
+        if (cache != null && !ordered) {
+            cache.put(input, startSB, startESB, adderESB, warmStart, new EncodeCache.Entry(hex, sb, esb));
+        }
+        return report(hex, bytes, EncodeReport.Outcome.FOUND, false, startNanos);
+    }
+
+    /**
+     * Keeps searching after the first valid candidate and passes every valid encoding to
+     * the listener, in search order, until {@code maxSolutions} were found,
+     * the search space is exhausted, or the search was cancelled or ran past its deadline.
+     * <p>
+     * The candidates are walked once, so the first N encodings cost about as much as the
+     * search for the N-th one alone. Search mode, evaluation, search strategy,
+     * cancellation, deadline and progress apply as in {@link #encodeWithReport()}; the
+     * cache and search hints are not used.
+     * </p>
+     *
+     * @param maxSolutions the number of encodings wanted, at least 1
+     * @param listener     receives each encoding as soon as it is found
+     * @return the report of the whole search; its result, SB and ESB are those of the last
+     *         encoding found, and its outcome is {@link EncodeReport.Outcome#FOUND} only if
+     *         all {@code maxSolutions} encodings were found
+     */
+    public EncodeReport encodeAllWithReport(int maxSolutions, SolutionListener listener) {
+        if (maxSolutions < 1) {
+            throw new IllegalArgumentException("maxSolutions must be at least 1");
+        }
+
+        long startNanos = System.nanoTime();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Začátek hledání více kódování - [" + ArithmeticalFunctions.bin2Hex(input) + "] - počet=" + maxSolutions);
+        }
+
+        int first = (sb << 10) + esb + 1;
+        searchSize = Math.max(0, SEARCH_SPACE - first);
+        if (deadline != null) {
+            deadlineNanos = startNanos + Duration.between(Instant.now(), deadline).toNanos();
+        }
+
+        Worker worker = new Worker();
+        Order order = isOrdered() ? new Order(first) : null;
+        if (order != null) {
+            searchSize = order.count;
+        }
+        String hex = null;
+        byte[] bytes = null;
+        int solutions = 0;
+        // The next index, or with a search strategy the next rank, to search from
+        for (int from = order != null ? 0 : first; solutions < maxSolutions; ) {
+            int found;
+            if (order != null) {
+                progressBase = from;
+                int rank = searchOrdered(worker, order, from);
+                found = rank < 0 ? -1 : order.index(rank);
+                from = rank + 1;
+            } else {
+                progressBase = from - first;
+                found = search(worker, from, SEARCH_SPACE);
+                from = found + 1;
+            }
+            if (found < 0) {
+                break;
+            }
+            if (searchMode == SearchMode.PARALLEL) {
+                worker.evaluate(found);
+            }
+            sb = found >>> 10;
+            esb = found & 0x3FF;
+            bytes = worker.telegram.transformData.toByteArray();
+            hex = toHex(bytes);
+            solutions++;
+            LOG.info("Řešení " + solutions + " - [" + hex + "] - SB=" + Integer.toHexString(sb) + " - ESB=" + Integer.toHexString(esb));
+            listener.onSolution(hex, sb, esb);
+        }
+        if (searchMode == SearchMode.SERIAL) {
+            mergeStats(worker);
+        }
+
+        EncodeReport.Outcome outcome;
+        if (solutions == maxSolutions) {
+            outcome = EncodeReport.Outcome.FOUND;
+        } else if (stopReason != null) {
+            LOG.info("Hledání více kódování přerušeno - " + stopReason + " - nalezeno " + solutions);
+            outcome = stopReason;
+        } else {
+            LOG.info("Prohledán celý prostor kandidátů - nalezeno " + solutions);
+            outcome = EncodeReport.Outcome.LIMIT_REACHED;
+        }
+        return report(hex, bytes, outcome, false, startNanos);
+    }
+
+    /**
+     * Finds up to {@code maxSolutions} valid encodings in one pass, see
+     * {@link #encodeAllWithReport(int, SolutionListener)}.
+     *
+     * @param maxSolutions the number of encodings wanted, at least 1
+     * @param listener     receives each encoding as soon as it is found
+     * @return the number of encodings passed to the listener
+     */
+    public int encodeAll(int maxSolutions, SolutionListener listener) {
+        int[] count = new int[1];
+        encodeAllWithReport(maxSolutions, (hex, solutionSB, solutionESB) -> {
+            count[0]++;
+            listener.onSolution(hex, solutionSB, solutionESB);
+        });
+        return count[0];
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Formats the byte image of a telegram as upper-case hexadecimal, two digits per byte.
+     */
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >>> 4) & 0xF];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parses a hexadecimal telegram as produced by {@link #toHex(byte[])}.
+     */
+    private static byte[] toBytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (Character.digit(hex.charAt(2 * i), 16) << 4 | Character.digit(hex.charAt(2 * i + 1), 16));
+        }
+        return bytes;
+    }
+
+    private synchronized EncodeReport report(String hex, byte[] bytes, EncodeReport.Outcome outcome, boolean cached,
+                                             long startNanos) {
+        return new EncodeReport(hex, bytes, sb, esb, outcome, cached, hintSB, hintHit, tried, evaluated,
+                scrambleNanos, shapingNanos, checkBitsNanos, System.nanoTime() - startNanos,
+                getConditionStats());
+    }
+
+    /**
+     * Searches the candidate indices {@code [from, to)} in the session's search mode.
+     *
+     * @return index of the first valid candidate, or -1
+     */
+    private int search(Worker worker, int from, int to) {
+        return searchMode == SearchMode.PARALLEL ? searchParallel(from, to) : searchSerial(worker, from, to);
+    }
+
+    /**
+     * Tests candidates one after another starting at {@code from}, walking the
+     * {@link ValidHeaders} so that indices with an invalid header are skipped.
+     *
+     * @return index of the first valid candidate, or -1
+     */
+    private int searchSerial(Worker worker, int from, int to) {
+        int[] headers = ValidHeaders.indices();
+        int position = ValidHeaders.positionOf(from);
+        for (int blockStart = from; blockStart < to; blockStart += CHECKPOINT_INTERVAL) {
+            if (checkpoint(blockStart - from)) {
+                return -1;
+            }
+            int blockEnd = Math.min(blockStart + CHECKPOINT_INTERVAL, to);
+            if (evaluation == Evaluation.BIT_SLICED) {
+                int hit = worker.scanSliced(blockStart, blockEnd);
+                if (hit >= 0) {
+                    return hit;
+                }
+                continue;
+            }
+            for (; position < headers.length && headers[position] < blockEnd; position++) {
+                int index = headers[position];
+                if (worker.evaluate(index)) {
+                    worker.tried += index - blockStart + 1;
+                    return index;
+                }
+            }
+            worker.tried += blockEnd - blockStart;
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the candidates are visited in the order of a search strategy
+     *         rather than by ascending index
+     */
+    private boolean isOrdered() {
+        return strategy != null && !(strategy instanceof SearchStrategy.Lexicographic);
+    }
+
+    /**
+     * Candidate order of a {@link SearchStrategy} over the valid candidates from a
+     * starting index to the end of the search space.
+     */
+    private final class Order {
+        final int[] headers = ValidHeaders.indices();
+        final int base;
+        final int count;
+        final IntUnaryOperator ranks;
+
+        Order(int first) {
+            this.base = ValidHeaders.positionOf(first);
+            this.count = headers.length - base;
+            this.ranks = strategy.order(first, count);
+        }
+
+        /**
+         * @return the candidate index at the given rank of the order
+         */
+        int index(int rank) {
+            return headers[base + ranks.applyAsInt(rank)];
+        }
+    }
+
+    /**
+     * Tests the candidates in the order of the search strategy, starting at rank
+     * {@code fromRank}, in the session's search mode. Every candidate visited counts as
+     * one candidate tried.
+     *
+     * @return rank of the first valid candidate, or -1
+     */
+    private int searchOrdered(Worker worker, Order order, int fromRank) {
+        if (searchMode == SearchMode.PARALLEL) {
+            return searchOrderedParallel(order, fromRank);
+        }
+        for (int blockStart = fromRank; blockStart < order.count; blockStart += CHECKPOINT_INTERVAL) {
+            if (checkpoint(blockStart - fromRank)) {
+                return -1;
+            }
+            int blockEnd = Math.min(blockStart + CHECKPOINT_INTERVAL, order.count);
+            for (int rank = blockStart; rank < blockEnd; rank++) {
+                worker.tried++;
+                if (worker.evaluate(order.index(rank))) {
+                    return rank;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tests chunks of consecutive ranks concurrently; like {@link #searchParallel} the
+     * lowest hit wins, so the result is the same as the serial one.
+     *
+     * @return rank of the first valid candidate, or -1
+     */
+    private int searchOrderedParallel(Order order, int fromRank) {
+        final AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        final AtomicInteger nextChunk = new AtomicInteger(fromRank);
+        final AtomicLong progress = new AtomicLong();
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int w = 0; w < pool.getParallelism(); w++) {
+            tasks.add(pool.submit(() -> {
+                Worker worker = new Worker();
+                try {
+                    while (true) {
+                        int chunkStart = nextChunk.getAndAdd(PARALLEL_CHUNK);
+                        if (chunkStart >= order.count || chunkStart > best.get() || shouldStop()) {
+                            return;
+                        }
+                        int chunkEnd = Math.min(chunkStart + PARALLEL_CHUNK, order.count);
+                        long done = progress.addAndGet(chunkEnd - chunkStart);
+                        if (progressListener != null && done % CHECKPOINT_INTERVAL < chunkEnd - chunkStart) {
+                            progressListener.onProgress(progressBase + done, searchSize);
+                        }
+                        for (int rank = chunkStart; rank < chunkEnd; rank++) {
+                            if (rank > best.get()) {
+                                return;
+                            }
+                            worker.tried++;
+                            if (worker.evaluate(order.index(rank))) {
+                                best.accumulateAndGet(rank, Math::min);
+                                return;
+                            }
+                        }
+                    }
+                } finally {
+                    mergeStats(worker);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        int found = best.get();
+        return found == Integer.MAX_VALUE ? -1 : found;
+    }
+
+    /**
+     * Reports progress and checks whether the search has to stop.
+     *
+     * @param tried number of candidate indices visited so far
+     * @return true if the search was cancelled or ran past its deadline
+     */
+    private boolean checkpoint(long tried) {
+        if (progressListener != null && tried > 0) {
+            progressListener.onProgress(progressBase + tried, searchSize);
+        }
+        return shouldStop();
+    }
+
+    /**
+     * @return true if the search was cancelled or ran past its deadline
+     */
+    private boolean shouldStop() {
+        if (stopReason != null) {
+            return true;
+        }
+        if (cancellationToken != null && cancellationToken.isCancelled()) {
+            stopReason = EncodeReport.Outcome.CANCELLED;
+            return true;
+        }
+        if (deadline != null && System.nanoTime() - deadlineNanos > 0) {
+            stopReason = EncodeReport.Outcome.DEADLINE_EXCEEDED;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tests candidate chunks concurrently. A chunk is {@value #PARALLEL_CHUNK} consecutive
+     * entries of {@link ValidHeaders}, so every chunk holds the same number of candidates
+     * to build. Chunks are handed out in ascending order and a worker stops as soon as it
+     * reaches an index above the best hit so far, so the returned index is the same one
+     * {@link #searchSerial} would find.
+     *
+     * @return index of the first valid candidate, or -1
+     */
+    private int searchParallel(int from, int to) {
+        final int[] headers = ValidHeaders.indices();
+        final int firstPosition = ValidHeaders.positionOf(from);
+        final int endPosition = ValidHeaders.positionOf(to);
+        final AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        final AtomicInteger nextChunk = new AtomicInteger(firstPosition);
+        final AtomicLong progress = new AtomicLong();
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int w = 0; w < pool.getParallelism(); w++) {
+            tasks.add(pool.submit(() -> {
+                Worker worker = new Worker();
+                try {
+                    while (true) {
+                        int chunkStart = nextChunk.getAndAdd(PARALLEL_CHUNK);
+                        if (chunkStart >= endPosition || headers[chunkStart] > best.get() || shouldStop()) {
+                            return;
+                        }
+                        int chunkEnd = Math.min(chunkStart + PARALLEL_CHUNK, endPosition);
+                        // Indices covered by the chunk, including the invalid headers before
+                        // its first entry and, for the last chunk, after its last entry
+                        int spanStart = chunkStart == firstPosition ? from : headers[chunkStart - 1] + 1;
+                        int spanEnd = chunkEnd == endPosition ? to : headers[chunkEnd - 1] + 1;
+                        long done = progress.addAndGet(spanEnd - spanStart);
+                        if (progressListener != null && done % CHECKPOINT_INTERVAL < spanEnd - spanStart) {
+                            progressListener.onProgress(progressBase + done, searchSize);
+                        }
+                        if (evaluation == Evaluation.BIT_SLICED) {
+                            int hit = worker.scanSliced(spanStart, spanEnd);
+                            if (hit >= 0) {
+                                best.accumulateAndGet(hit, Math::min);
+                                return;
+                            }
+                            continue;
+                        }
+                        for (int position = chunkStart; position < chunkEnd; position++) {
+                            int index = headers[position];
+                            if (index > best.get()) {
+                                worker.tried += index - spanStart;
+                                return;
+                            }
+                            if (worker.evaluate(index)) {
+                                worker.tried += index - spanStart + 1;
+                                best.accumulateAndGet(index, Math::min);
+                                return;
+                            }
+                        }
+                        worker.tried += spanEnd - spanStart;
+                    }
+                } finally {
+                    mergeStats(worker);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        int found = best.get();
+        return found == Integer.MAX_VALUE ? -1 : found;
+    }
+
+    /**
+     * Checks whether both 11-bit words of the 25-bit header (control bits, SB and ESB)
+     * at the given candidate index are valid words.
+     *
+     * @param index candidate index {@code SB << 10 | ESB}
+     * @return true if the header words are valid
+     */
+    static boolean isValidHeader(int index) {
+        int temp = (STATIC_VALUE << 10) | index;
+        return ValidWordScanner.isValid((temp >>> 14) & 0x7FF)
+                && ValidWordScanner.isValid((temp >>> 3) & 0x7FF);
+    }
+
+    /**
+     * Adds the counters of a finished worker to the session totals.
+     */
+    private synchronized void mergeStats(Worker worker) {
+        for (int i = 0; i < checked.length; i++) {
+            checked[i] += worker.checked[i];
+            rejected[i] += worker.rejected[i];
+            nanos[i] += worker.nanos[i];
+        }
+        tried += worker.tried;
+        evaluated += worker.evaluated;
+        scrambleNanos += worker.scrambleNanos;
+        shapingNanos += worker.shapingNanos;
+        checkBitsNanos += worker.checkBitsNanos;
+    }
+
+    /**
+     * Returns the per-condition counters of the search, in the fixed condition order.
+     *
+     * @return one entry per condition
+     */
+    public synchronized List<ConditionStats> getConditionStats() {
+        List<ConditionStats> stats = new ArrayList<>();
+        for (Condition condition : Condition.values()) {
+            int i = condition.ordinal();
+            stats.add(new ConditionStats(condition, checked[i], rejected[i], nanos[i]));
+        }
+        return stats;
+    }
+
+    /**
+     * @return the SB of the accepted candidate (or the starting SB before the search)
+     */
+    public int getSB() {
+        return sb;
+    }
+
+    /**
+     * @return the ESB of the accepted candidate (or the starting ESB before the search)
+     */
+    public int getESB() {
+        return esb;
+    }
+
+    /**
+     * Evaluates candidates on its own copy of the telegram. Every thread of a parallel
+     * search uses its own worker.
+     */
+    private class Worker {
+
+        private final TelegramEncoder.Telegram telegram = new TelegramEncoder.Telegram(EncoderSession.this.telegram);
+        private final TelegramBits shapedData = new TelegramBits(telegram.getSize());
+        private final long[] scrambled = new long[uTick.length];
+        private final IncrementalCheckBits checkBits = new IncrementalCheckBits(telegram.isLongTelegram);
+        private final BitSlicedEvaluator sliced = evaluation == Evaluation.BIT_SLICED
+                ? new BitSlicedEvaluator(telegram.isLongTelegram) : null;
+        private int currentSB = -1;
+
+        private final Condition[] order = Condition.values();
+        private final long[] checked = new long[order.length];
+        private final long[] rejected = new long[order.length];
+        private final long[] nanos = new long[order.length];
+        private int untilReorder = REORDER_INTERVAL;
+        private long tried;
+        private long evaluated;
+        private long scrambleNanos;
+        private long shapingNanos;
+        private long checkBitsNanos;
+
+        /**
+         * Builds the telegram for the given candidate and tests all conditions.
+         *
+         * @param index candidate index {@code SB << 10 | ESB}
+         * @return true if the candidate is a valid encoding
+         */
+        boolean evaluate(int index) {
+            evaluated++;
+            long start = build(index);
+
+            if (conditionOrder == ConditionOrder.ADAPTIVE && --untilReorder == 0) {
+                reorder();
+                untilReorder = REORDER_INTERVAL;
+            }
+
+            // Check several conditions to validate the transformation.
+            for (Condition condition : order) {
+                int i = condition.ordinal();
+                boolean passed = condition.test(telegram);
+                long end = System.nanoTime();
+                nanos[i] += end - start;
+                start = end;
+                checked[i]++;
+                if (!passed) {
+                    rejected[i]++;
+                    if (debugEnabled) {
+                        LOG.debug(condition.rejectionMessage);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Screens the candidates {@code [from, to)} block by block with the bit-sliced
+         * evaluator and fully checks the survivors in ascending order.
+         *
+         * @return index of the first valid candidate, or -1
+         */
+        int scanSliced(int from, int to) {
+            int[] headers = ValidHeaders.indices();
+            int position = ValidHeaders.positionOf(from);
+            for (int blockBase = from & -BitSlicedEvaluator.LANES; blockBase < to; blockBase += BitSlicedEvaluator.LANES) {
+                int first = Math.max(from, blockBase);
+                int end = Math.min(to, blockBase + BitSlicedEvaluator.LANES);
+                long lanes = 0;
+                for (; position < headers.length && headers[position] < end; position++) {
+                    lanes |= 1L << (headers[position] - blockBase);
+                }
+                if (lanes == 0) {
+                    tried += end - first;
+                    continue;
+                }
+
+                long start = build(blockBase);
+                long[] base = telegram.transformData.words();
+                long alphabet = sliced.alphabet(base, blockBase >>> 10, lanes);
+                long afterAlphabet = System.nanoTime();
+                long survivors = alphabet == 0 ? 0 : sliced.offSynch(base, alphabet);
+                long afterOffSynch = System.nanoTime();
+                nanos[Condition.ALPHABET.ordinal()] += afterAlphabet - start;
+                nanos[Condition.OFF_SYNCH.ordinal()] += afterOffSynch - afterAlphabet;
+
+                int hit = -1;
+                for (long m = survivors; m != 0 && hit < 0; m &= m - 1) {
+                    int index = blockBase + Long.numberOfTrailingZeros(m);
+                    if (evaluate(index)) {
+                        hit = index;
+                    }
+                }
+
+                // Count the screened-out lanes up to the hit like the scalar path would
+                int last = hit >= 0 ? hit - blockBase : BitSlicedEvaluator.LANES - 1;
+                long upTo = last == 63 ? -1L : (1L << (last + 1)) - 1;
+                countScreened(Condition.ALPHABET, Long.bitCount(lanes & ~alphabet & upTo));
+                countScreened(Condition.OFF_SYNCH, Long.bitCount(alphabet & ~survivors & upTo));
+                if (hit >= 0) {
+                    tried += hit - first + 1;
+                    return hit;
+                }
+                tried += end - first;
+            }
+            return -1;
+        }
+
+        private void countScreened(Condition condition, int count) {
+            int i = condition.ordinal();
+            evaluated += count;
+            checked[i] += count;
+            rejected[i] += count;
+        }
+
+        /**
+         * Builds the telegram of the given candidate in {@code telegram.transformData},
+         * scrambling and shaping the user data again only when the SB changes.
+         *
+         * @param index candidate index {@code SB << 10 | ESB}
+         * @return the time stamp at which the telegram was complete
+         */
+        private long build(int index) {
+            int candidateSB = index >>> 10;
+            TelegramBits data = telegram.transformData;
+
+            long start = System.nanoTime();
+            if (candidateSB != currentSB) {
+                Scrambler.scramble(Scrambler.seed(candidateSB), uTick, scrambled, m);
+                long scrambledAt = System.nanoTime();
+                transform10to11(scrambled, m, shapedData);
+                long shaped = System.nanoTime();
+                scrambleNanos += scrambledAt - start;
+                shapingNanos += shaped - scrambledAt;
+                start = shaped;
+
+                // Base remainder of this SB (ESB = 0); ESB bits are added incrementally
+                data.clear();
+                data.write(85, (STATIC_VALUE << 10) | (candidateSB << 10), 25);
+                data.or(shapedData);
+                checkBits.setBase(data);
+                currentSB = candidateSB;
+            }
+
+            data.clear();
+            data.write(85, (STATIC_VALUE << 10) | index, 25);
+            // Update the telegram's transformation data.
+            data.or(shapedData);
+            checkBits.apply(data, index & 0x3FF);
+            long built = System.nanoTime();
+            checkBitsNanos += built - start;
+            return built;
+        }
+
+        /**
+         * Sorts the conditions by rejections per nanosecond, highest first. Conditions
+         * not checked yet keep their place at the end, so the fixed order is the start.
+         */
+        private void reorder() {
+            double[] score = new double[order.length];
+            for (Condition condition : order) {
+                int i = condition.ordinal();
+                score[i] = checked[i] == 0 ? -1 : rejected[i] / (double) (nanos[i] + 1);
+            }
+            // Stable insertion sort of the four conditions
+            for (int j = 1; j < order.length; j++) {
+                Condition current = order[j];
+                int k = j - 1;
+                while (k >= 0 && score[order[k].ordinal()] < score[current.ordinal()]) {
+                    order[k + 1] = order[k];
+                    k--;
+                }
+                order[k + 1] = current;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package Encoding;
+
+import java.math.BigInteger;
+
+/**
+ * GF2Polynomial - table-driven remainder engine for polynomial division over GF(2).
+ * <p>
+ * For a divisor p(x) of degree d (8 &lt;= d &lt;= 127) the remainder register holds d bits
+ * in two longs. A precomputed 256-entry table gives {@code t(x) * x^d mod p(x)} for
+ * every byte {@code t}, so the data is consumed a byte at a time:
+ * {@code r' = ((r << 8) mod x^d) ^ byte ^ T[top 8 bits of r]}. The result is the plain
+ * remainder {@code data(x) mod p(x)}, without any augmentation.
+ * </p>
+ * <p>
+ * Engines for the Subset-036 polynomials of both telegram formats are shared
+ * constants; they are immutable and safe to use from several threads.
+ * </p>
+ */
+public final class GF2Polynomial {
+
+    /** f(x)g(x) of the long format, used for the encoder check bits. */
+    public static final GF2Polynomial FG_LONG = new GF2Polynomial(EncryptionHelperList.FGLONG);
+    /** f(x)g(x) of the short format, used for the encoder check bits. */
+    public static final GF2Polynomial FG_SHORT = new GF2Polynomial(EncryptionHelperList.FGSHORT);
+    /** g(x) of the long format. */
+    public static final GF2Polynomial G_LONG = new GF2Polynomial(EncryptionHelperList.GLONG);
+    /** g(x) of the short format. */
+    public static final GF2Polynomial G_SHORT = new GF2Polynomial(EncryptionHelperList.GSHORT);
+    /** f(x) of the long format. */
+    public static final GF2Polynomial F_LONG = new GF2Polynomial(EncryptionHelperList.FLONG);
+    /** f(x) of the short format. */
+    public static final GF2Polynomial F_SHORT = new GF2Polynomial(EncryptionHelperList.FSHORT);
+
+    private final BigInteger polynomial;
+    private final int degree;
+    private final long maskLow;
+    private final long maskHigh;
+    private final long[] tableLow = new long[256];
+    private final long[] tableHigh = new long[256];
+
+    /**
+     * Builds the remainder tables for the given divisor.
+     *
+     * @param polynomial the divisor, bit i being the coefficient of x^i
+     */
+    public GF2Polynomial(BigInteger polynomial) {
+        this.polynomial = polynomial;
+        this.degree = polynomial.bitLength() - 1;
+        if (degree < 8 || degree > 127) {
+            throw new IllegalArgumentException("Unsupported polynomial degree: " + degree);
+        }
+        this.maskLow = degree >= 64 ? -1L : (1L << degree) - 1;
+        this.maskHigh = degree > 64 ? (1L << (degree - 64)) - 1 : 0L;
+
+        for (int t = 0; t < 256; t++) {
+            BigInteger r = BigInteger.valueOf(t).shiftLeft(degree);
+            for (int bit = degree + 7; bit >= degree; bit--) {
+                if (r.testBit(bit)) {
+                    r = r.xor(polynomial.shiftLeft(bit - degree));
+                }
+            }
+            tableLow[t] = r.longValue();
+            tableHigh[t] = r.shiftRight(64).longValue();
+        }
+    }
+
+    /**
+     * @return the degree of the divisor (the number of remainder bits)
+     */
+    public int degree() {
+        return degree;
+    }
+
+    /**
+     * @return the divisor as a BigInteger
+     */
+    public BigInteger toBigInteger() {
+        return polynomial;
+    }
+
+    /**
+     * Computes {@code data mod p} into {@code out[0]} (low 64 bits) and {@code out[1]}
+     * (bits 64 and up).
+     *
+     * @param data the dividend
+     * @param out  array of at least two longs receiving the remainder
+     */
+    public void remainder(TelegramBits data, long[] out) {
+        long low = 0;
+        long high = 0;
+        for (int position = topByte(data); position >= 0; position -= 8) {
+            int top = top(low, high);
+            high = ((high << 8) | (low >>> 56)) & maskHigh;
+            low = ((low << 8) & maskLow) ^ data.extract(position, 8) ^ tableLow[top];
+            high ^= tableHigh[top];
+        }
+        out[0] = low;
+        out[1] = high;
+    }
+
+    /**
+     * Computes {@code data mod p}.
+     *
+     * @param data the dividend
+     * @return the remainder
+     */
+    public BigInteger remainder(TelegramBits data) {
+        long[] out = new long[2];
+        remainder(data, out);
+        return toBigInteger(out[0], out[1]);
+    }
+
+    /**
+     * Computes {@code data mod p} for a non-negative BigInteger dividend.
+     *
+     * @param data the dividend
+     * @return the remainder
+     */
+    public BigInteger remainder(BigInteger data) {
+        byte[] bytes = data.toByteArray();
+        long low = 0;
+        long high = 0;
+        for (byte b : bytes) {
+            int top = top(low, high);
+            high = ((high << 8) | (low >>> 56)) & maskHigh;
+            low = ((low << 8) & maskLow) ^ (b & 0xFF) ^ tableLow[top];
+            high ^= tableHigh[top];
+        }
+        return toBigInteger(low, high);
+    }
+
+    /**
+     * Computes {@code data mod first} and {@code data mod second} in a single pass over
+     * the data, e.g. the g(x) and f(x) syndromes of a received telegram.
+     *
+     * @param data   the dividend
+     * @param first  the first divisor
+     * @param second the second divisor
+     * @param out    array of at least four longs receiving the low and high words of
+     *               the first and then of the second remainder
+     */
+    public static void remainders(TelegramBits data, GF2Polynomial first, GF2Polynomial second, long[] out) {
+        long low1 = 0, high1 = 0;
+        long low2 = 0, high2 = 0;
+        for (int position = topByte(data); position >= 0; position -= 8) {
+            int in = data.extract(position, 8);
+
+            int top1 = first.top(low1, high1);
+            high1 = ((high1 << 8) | (low1 >>> 56)) & first.maskHigh;
+            low1 = ((low1 << 8) & first.maskLow) ^ in ^ first.tableLow[top1];
+            high1 ^= first.tableHigh[top1];
+
+            int top2 = second.top(low2, high2);
+            high2 = ((high2 << 8) | (low2 >>> 56)) & second.maskHigh;
+            low2 = ((low2 << 8) & second.maskLow) ^ in ^ second.tableLow[top2];
+            high2 ^= second.tableHigh[top2];
+        }
+        out[0] = low1;
+        out[1] = high1;
+        out[2] = low2;
+        out[3] = high2;
+    }
+
+    /**
+     * Appends one data bit to a remainder register: {@code r' = (x * r + bit) mod p}.
+     * Feeding the bits of a dividend most significant first gives the same remainder
+     * as {@link #remainder(TelegramBits, long[])}.
+     *
+     * @param register the low and high word of the remainder, updated in place
+     * @param bit      the next data bit, 0 or 1
+     */
+    public void shiftIn(long[] register, int bit) {
+        long low = register[0];
+        long high = register[1];
+        boolean carry = degree > 64 ? (high >>> (degree - 65) & 1) != 0 : (low >>> (degree - 1) & 1) != 0;
+        high = ((high << 1) | (low >>> 63)) & maskHigh;
+        low = ((low << 1) & maskLow) | bit;
+        if (carry) {
+            // x^d mod p, the divisor without its leading term
+            low ^= tableLow[1];
+            high ^= tableHigh[1];
+        }
+        register[0] = low;
+        register[1] = high;
+    }
+
+    /**
+     * Returns the top 8 bits of a remainder register.
+     */
+    private int top(long low, long high) {
+        int shift = degree - 8;
+        if (shift >= 64) {
+            return (int) (high >>> (shift - 64)) & 0xFF;
+        }
+        if (shift == 0) {
+            return (int) low & 0xFF;
+        }
+        return (int) ((low >>> shift) | (high << (64 - shift))) & 0xFF;
+    }
+
+    /**
+     * Bit position of the most significant byte of the data; the dividend is padded
+     * with leading zeros to whole bytes, which does not change the remainder.
+     */
+    private static int topByte(TelegramBits data) {
+        return ((data.size() - 1) >>> 3) << 3;
+    }
+
+    private static BigInteger toBigInteger(long low, long high) {
+        return BigInteger.valueOf(high).shiftLeft(64).or(new BigInteger(Long.toUnsignedString(low)));
+    }
+}
@@ -0,0 +1,96 @@
+package Encoding;
+
+import java.math.BigInteger;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * IncrementalCheckBits derives the check bits of consecutive candidates of one SB
+ * without dividing the whole telegram again.
+ * <p>
+ * Within one SB the candidates differ only in the 10 ESB bits at offset 85. The
+ * remainder modulo f(x)g(x) is linear over GF(2), so
+ * {@code rem(data) = rem(base) ^ XOR of rem(x^(85 + j)) for every set ESB bit j},
+ * where {@code base} is the candidate with ESB = 0. The base remainder is computed once
+ * per SB by {@link #setBase(TelegramBits)}; every candidate then needs at most 10 XORs.
+ * </p>
+ * <p>
+ * An instance keeps per-SB state and must not be shared between threads.
+ * </p>
+ */
+final class IncrementalCheckBits {
+
+    // rem(x^(85 + j)) mod f(x)g(x) for j = 0..9, low and high words
+    private static final long[][] ESB_REMAINDERS_LONG = esbRemainders(GF2Polynomial.FG_LONG);
+    private static final long[][] ESB_REMAINDERS_SHORT = esbRemainders(GF2Polynomial.FG_SHORT);
+
+    private final GF2Polynomial fg;
+    private final long[] esbLow;
+    private final long[] esbHigh;
+    private final long gLow;
+    private final long gHigh;
+    private final long[] remainder = new long[2];
+
+    private long baseLow;
+    private long baseHigh;
+
+    IncrementalCheckBits(boolean isLongFormat) {
+        this.fg = isLongFormat ? GF2Polynomial.FG_LONG : GF2Polynomial.FG_SHORT;
+        long[][] esbRemainders = isLongFormat ? ESB_REMAINDERS_LONG : ESB_REMAINDERS_SHORT;
+        this.esbLow = esbRemainders[0];
+        this.esbHigh = esbRemainders[1];
+        this.gLow = isLongFormat ? TelegramEncoder.G_LONG_LOW : TelegramEncoder.G_SHORT_LOW;
+        this.gHigh = isLongFormat ? TelegramEncoder.G_LONG_HIGH : TelegramEncoder.G_SHORT_HIGH;
+    }
+
+    /**
+     * Computes the base remainder of the current SB with a full division.
+     *
+     * @param base the telegram data with ESB = 0 and zero check bits
+     */
+    void setBase(TelegramBits base) {
+        fg.remainder(base, remainder);
+        baseLow = remainder[0];
+        baseHigh = remainder[1];
+    }
+
+    /**
+     * ORs the check bits of the candidate with the given ESB into bits 0..84 of
+     * {@code telegram}, which must otherwise equal the base plus the ESB bits.
+     *
+     * @param telegram the candidate data with zero check bits
+     * @param esb      the candidate's 10-bit ESB
+     */
+    void apply(TelegramBits telegram, int esb) {
+        long low = baseLow;
+        long high = baseHigh;
+        for (int bits = esb & 0x3FF; bits != 0; bits &= bits - 1) {
+            int j = Integer.numberOfTrailingZeros(bits);
+            low ^= esbLow[j];
+            high ^= esbHigh[j];
+        }
+        telegram.or(0, low ^ gLow, 64);
+        telegram.or(64, high ^ gHigh, CHECK_BITS_SIZE - 64);
+    }
+
+    /**
+     * Returns rem(x^(85 + j)) mod f(x)g(x) for j = 0..9 as {low words, high words}; the
+     * arrays are shared and must not be modified.
+     *
+     * @param isLongFormat true for the long format
+     * @return the remainders of the ESB bits
+     */
+    static long[][] esbRemainders(boolean isLongFormat) {
+        return isLongFormat ? ESB_REMAINDERS_LONG : ESB_REMAINDERS_SHORT;
+    }
+
+    private static long[][] esbRemainders(GF2Polynomial fg) {
+        long[][] result = new long[2][EXTRA_SHAPING_BITS_SIZE];
+        for (int j = 0; j < EXTRA_SHAPING_BITS_SIZE; j++) {
+            BigInteger r = fg.remainder(BigInteger.ONE.shiftLeft(CHECK_BITS_SIZE + j));
+            result[0][j] = r.longValue();
+            result[1][j] = r.shiftRight(64).longValue();
+        }
+        return result;
+    }
+}
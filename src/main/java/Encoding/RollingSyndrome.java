@@ -0,0 +1,76 @@
+package Encoding;
+
+import java.math.BigInteger;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * RollingSyndrome keeps the g(x) remainder of an n-bit window sliding over a bit stream.
+ * <p>
+ * Moving the window by one bit multiplies its polynomial by x, adds the incoming bit
+ * and removes the outgoing one, whose weight is the precomputed {@code x^n mod g(x)}.
+ * Each step is a constant number of word operations, whatever the window length.
+ * </p>
+ */
+final class RollingSyndrome {
+
+    // x^n mod g(x) for both formats
+    private static final long[] OUTGOING_LONG = outgoing(GF2Polynomial.G_LONG, SIZE_LONG);
+    private static final long[] OUTGOING_SHORT = outgoing(GF2Polynomial.G_SHORT, SIZE_SHORT);
+
+    private final int n;
+    private final GF2Polynomial g;
+    private final long[] outgoing;
+    private final long[] register = new long[2];
+
+    /**
+     * @param isLongTelegram true for windows of 1023 bits, false for 341 bits
+     */
+    RollingSyndrome(boolean isLongTelegram) {
+        this.n = isLongTelegram ? SIZE_LONG : SIZE_SHORT;
+        this.g = isLongTelegram ? GF2Polynomial.G_LONG : GF2Polynomial.G_SHORT;
+        this.outgoing = isLongTelegram ? OUTGOING_LONG : OUTGOING_SHORT;
+    }
+
+    /**
+     * @return the window length n
+     */
+    int length() {
+        return n;
+    }
+
+    /**
+     * Appends a bit while the window is still filling up.
+     *
+     * @param in the next bit of the stream
+     */
+    void fill(int in) {
+        g.shiftIn(register, in);
+    }
+
+    /**
+     * Slides the full window by one bit.
+     *
+     * @param in  the bit entering the window
+     * @param out the bit leaving it, n bits before {@code in}
+     */
+    void slide(int in, int out) {
+        g.shiftIn(register, in);
+        if (out != 0) {
+            register[0] ^= outgoing[0];
+            register[1] ^= outgoing[1];
+        }
+    }
+
+    /**
+     * @return true if the current window is divisible by g(x)
+     */
+    boolean isZero() {
+        return register[0] == 0 && register[1] == 0;
+    }
+
+    private static long[] outgoing(GF2Polynomial g, int n) {
+        BigInteger remainder = g.remainder(BigInteger.ONE.shiftLeft(n));
+        return new long[]{remainder.longValue(), remainder.shiftRight(64).longValue()};
+    }
+}
@@ -0,0 +1,183 @@
+package Encoding;
+
+/**
+ * Scrambler implements the self-synchronising scrambler of Subset-036 on a 32-bit
+ * {@code int} register, eight bits at a time.
+ * <p>
+ * The register starts at {@code S = 2801775573 * SB mod 2^32}. For every user-data bit,
+ * most significant first, the scrambled bit is {@code S[31] ^ u}, and the register is
+ * shifted left and XORed with the polynomial H ({@link EncryptionHelperList#CURRENT_INPUT})
+ * whenever the scrambled bit is one. Bits shifted out above bit 31 never influence the
+ * output again, so the register can be kept in an {@code int}.
+ * </p>
+ * <p>
+ * Because H only touches bits 31..25 and bit 0, the scrambled byte depends only on the
+ * user-data byte and the top byte of the register. Three 256-entry tables therefore
+ * replace eight single-bit steps:
+ * </p>
+ * <ul>
+ *     <li>{@code SCRAMBLE[top ^ u]} is the scrambled byte,</li>
+ *     <li>{@code DESCRAMBLE[o] ^ top} is the user-data byte of a scrambled byte,</li>
+ *     <li>{@code FEEDBACK[o]} is XORed into {@code S << 8} after a scrambled byte o.</li>
+ * </ul>
+ * <p>
+ * The encoder and {@link TelegramDecoder} share this class, so both directions always
+ * use the same register and tables.
+ * </p>
+ */
+final class Scrambler {
+
+    /** Polynomial H as a 32-bit register mask: bits 31, 30, 29, 27, 25 and 0. */
+    static final int H = EncryptionHelperList.CURRENT_INPUT.intValue();
+
+    private static final long MULTIPLIER = EncryptionHelperList.MULTIPLIER.longValue();
+
+    private static final byte[] SCRAMBLE = new byte[256];
+    private static final byte[] DESCRAMBLE = new byte[256];
+    private static final int[] FEEDBACK = new int[256];
+
+    static {
+        for (int v = 0; v < 256; v++) {
+            // Scramble a zero byte from a register whose top byte is v
+            int s = v << 24;
+            int o = 0;
+            for (int k = 7; k >= 0; k--) {
+                int bit = s >>> 31;
+                o |= bit << k;
+                s = (s << 1) ^ (-bit & H);
+            }
+            SCRAMBLE[v] = (byte) o;
+            FEEDBACK[o] = s;
+        }
+        for (int o = 0; o < 256; o++) {
+            // Descramble the byte o from a zero register
+            int s = 0;
+            int u = 0;
+            for (int k = 7; k >= 0; k--) {
+                int bit = (o >>> k) & 1;
+                u |= ((s >>> 31) ^ bit) << k;
+                s = (s << 1) ^ (-bit & H);
+            }
+            DESCRAMBLE[o] = (byte) u;
+        }
+    }
+
+    private Scrambler() {
+    }
+
+    /**
+     * Computes the initial register value for a scrambling bit value.
+     *
+     * @param sb the SB value (12 bits)
+     * @return {@code 2801775573 * sb mod 2^32}
+     */
+    static int seed(int sb) {
+        return (int) (MULTIPLIER * sb);
+    }
+
+    /**
+     * Scrambles bits {@code 0..m-1} of {@code data} into {@code out}, most significant bit
+     * first. Bit {@code i} lives in {@code data[i >>> 6]} at position {@code i & 63}, as in
+     * {@link TelegramBits}; {@code out} may be the same array as {@code data}.
+     *
+     * @param s    the initial register, see {@link #seed(int)}
+     * @param data the user data
+     * @param out  receives the scrambled bits; bits at and above {@code m} are left untouched
+     * @param m    number of user-data bits
+     */
+    static void scramble(int s, long[] data, long[] out, int m) {
+        int i = m - 1;
+        // Bits above the last full byte, one at a time
+        for (; ((i + 1) & 7) != 0; i--) {
+            int o = (s >>> 31) ^ (int) (data[i >>> 6] >>> i) & 1;
+            writeBit(out, i, o);
+            s = (s << 1) ^ (-o & H);
+        }
+        for (int pos = i - 7; pos >= 0; pos -= 8) {
+            int u = (int) (data[pos >>> 6] >>> pos) & 0xFF;
+            int o = SCRAMBLE[(s >>> 24) ^ u] & 0xFF;
+            writeByte(out, pos, o);
+            s = (s << 8) ^ FEEDBACK[o];
+        }
+    }
+
+    /**
+     * Reverses {@link #scramble(int, long[], long[], int)}.
+     *
+     * @param s    the initial register, see {@link #seed(int)}
+     * @param data the scrambled data
+     * @param out  receives the user data; may be the same array as {@code data}
+     * @param m    number of user-data bits
+     */
+    static void descramble(int s, long[] data, long[] out, int m) {
+        int i = m - 1;
+        for (; ((i + 1) & 7) != 0; i--) {
+            int o = (int) (data[i >>> 6] >>> i) & 1;
+            writeBit(out, i, (s >>> 31) ^ o);
+            s = (s << 1) ^ (-o & H);
+        }
+        for (int pos = i - 7; pos >= 0; pos -= 8) {
+            int o = (int) (data[pos >>> 6] >>> pos) & 0xFF;
+            writeByte(out, pos, (DESCRAMBLE[o] & 0xFF) ^ (s >>> 24));
+            s = (s << 8) ^ FEEDBACK[o];
+        }
+    }
+
+    /**
+     * Scrambles the first {@code bits} bits of a byte stream in place; the first bit is
+     * the most significant bit of {@code data[0]}.
+     *
+     * @param s    the initial register, see {@link #seed(int)}
+     * @param data the user data
+     * @param bits number of user-data bits
+     * @return the register after the last bit, to continue the stream
+     */
+    static int scramble(int s, byte[] data, int bits) {
+        int full = bits >>> 3;
+        for (int j = 0; j < full; j++) {
+            int o = SCRAMBLE[(s >>> 24) ^ (data[j] & 0xFF)] & 0xFF;
+            data[j] = (byte) o;
+            s = (s << 8) ^ FEEDBACK[o];
+        }
+        for (int k = 0; k < (bits & 7); k++) {
+            int shift = 7 - k;
+            int o = (s >>> 31) ^ (data[full] >>> shift) & 1;
+            data[full] = (byte) (data[full] & ~(1 << shift) | o << shift);
+            s = (s << 1) ^ (-o & H);
+        }
+        return s;
+    }
+
+    /**
+     * Reverses {@link #scramble(int, byte[], int)} in place.
+     *
+     * @param s    the initial register, see {@link #seed(int)}
+     * @param data the scrambled data
+     * @param bits number of user-data bits
+     * @return the register after the last bit, to continue the stream
+     */
+    static int descramble(int s, byte[] data, int bits) {
+        int full = bits >>> 3;
+        for (int j = 0; j < full; j++) {
+            int o = data[j] & 0xFF;
+            data[j] = (byte) ((DESCRAMBLE[o] & 0xFF) ^ (s >>> 24));
+            s = (s << 8) ^ FEEDBACK[o];
+        }
+        for (int k = 0; k < (bits & 7); k++) {
+            int shift = 7 - k;
+            int o = (data[full] >>> shift) & 1;
+            data[full] = (byte) (data[full] & ~(1 << shift) | ((s >>> 31) ^ o) << shift);
+            s = (s << 1) ^ (-o & H);
+        }
+        return s;
+    }
+
+    private static void writeBit(long[] out, int i, int bit) {
+        out[i >>> 6] = out[i >>> 6] & ~(1L << i) | (long) bit << i;
+    }
+
+    // pos is a multiple of 8, so the byte never straddles two words
+    private static void writeByte(long[] out, int pos, int value) {
+        out[pos >>> 6] = out[pos >>> 6] & ~(0xFFL << pos) | (long) value << pos;
+    }
+}
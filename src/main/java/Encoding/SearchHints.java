@@ -0,0 +1,134 @@
+package Encoding;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SearchHints remembers at which SB the last telegram of each family was encoded, so that
+ * the next search of the same family can start there instead of at SB=0.
+ * <p>
+ * Telegrams of one balise group usually differ only in header fields such as
+ * {@code M_MCOUNT} or {@code N_PIG}. By default a family is identified by the
+ * {@code NID_C} and {@code NID_BG} fields of the telegram header; callers can supply
+ * their own family key instead, e.g. the name of a SZIF table.
+ * </p>
+ * <p>
+ * A hint counts as a hit when the search found its telegram within
+ * {@value #HINT_SPAN} SB values from the hinted SB. All methods are thread-safe.
+ * </p>
+ */
+public final class SearchHints {
+
+    /** Number of SB values after the hinted SB in which a hit counts as a hint hit. */
+    public static final int HINT_SPAN = 16;
+
+    // Header bit positions of NID_C (10 bits) and NID_BG (14 bits)
+    private static final int NID_C_OFFSET = 25;
+    private static final int NID_BG_OFFSET = 35;
+    private static final int HEADER_BITS = 49;
+
+    private static SearchHints defaultHints;
+
+    // Most recent successful SB of each family
+    private final Map<String, Integer> families = new HashMap<>();
+
+    private long lookups;
+    private long hits;
+
+    /**
+     * @return the hint store shared by the application
+     */
+    public static synchronized SearchHints getDefault() {
+        if (defaultHints == null) {
+            defaultHints = new SearchHints();
+        }
+        return defaultHints;
+    }
+
+    /**
+     * Returns the default family key of a telegram, made of its {@code NID_C} and
+     * {@code NID_BG} in the same form as the telegram file names (e.g. {@code 003_00012}).
+     *
+     * @param input the input telegram as a binary string
+     * @return the family key, or null if the input is too short to hold a header
+     */
+    public static String familyOf(String input) {
+        if (input == null || input.length() < HEADER_BITS) {
+            return null;
+        }
+        int nidC = Integer.parseInt(input.substring(NID_C_OFFSET, NID_BG_OFFSET), 2);
+        int nidBG = Integer.parseInt(input.substring(NID_BG_OFFSET, HEADER_BITS), 2);
+        return String.format("%03d_%05d", nidC, nidBG);
+    }
+
+    /**
+     * Returns the SB at which the next search of the family should start.
+     *
+     * @param family the family key
+     * @return the most recent successful SB of the family, or -1 if there is none
+     */
+    public synchronized int suggest(String family) {
+        Integer sb = families.get(family);
+        return sb == null ? -1 : sb;
+    }
+
+    /**
+     * Records the SB of a successful search.
+     *
+     * @param family the family key
+     * @param sb     the SB of the accepted candidate
+     */
+    public synchronized void record(String family, int sb) {
+        families.put(family, sb);
+    }
+
+    /**
+     * Scores a hint against the SB the search actually found.
+     *
+     * @param hintSB  the hinted SB
+     * @param foundSB the SB of the accepted candidate, or -1 if nothing was found
+     * @return true if the found SB lies within {@link #HINT_SPAN} of the hint
+     */
+    synchronized boolean score(int hintSB, int foundSB) {
+        lookups++;
+        boolean hit = isHit(hintSB, foundSB);
+        if (hit) {
+            hits++;
+        }
+        return hit;
+    }
+
+    static boolean isHit(int hintSB, int foundSB) {
+        return foundSB >= hintSB && foundSB < hintSB + HINT_SPAN;
+    }
+
+    /**
+     * Removes all families and resets the counters.
+     */
+    public synchronized void clear() {
+        families.clear();
+        lookups = 0;
+        hits = 0;
+    }
+
+    /**
+     * @return number of searches that had a hint
+     */
+    public synchronized long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return number of searches that found their telegram near the hint
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return hits divided by lookups, or 0 if there was no lookup yet
+     */
+    public synchronized double getHitRate() {
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+}
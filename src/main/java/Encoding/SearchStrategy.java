@@ -0,0 +1,210 @@
+package Encoding;
+
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * SearchStrategy decides in which order {@link EncoderSession} visits the candidates.
+ * <p>
+ * A search covers the candidates with a valid header ({@link ValidHeaders}) from its
+ * starting index to the end of the search space. The strategy maps the rank of a
+ * candidate in the visiting order to its offset among those candidates; the first
+ * candidate in that order that passes all conditions is the result. Only
+ * {@link #lexicographic()} reproduces the reference encodings; the other orders find
+ * other, equally valid encodings and may get past long runs of failing neighbours
+ * sooner.
+ * </p>
+ * <p>
+ * Strategies are immutable and may be shared between sessions and threads.
+ * </p>
+ */
+public interface SearchStrategy {
+
+    /**
+     * Creates the visiting order of one search.
+     *
+     * @param from  the first candidate index of the search
+     * @param count the number of candidates with a valid header in the search
+     * @return a bijection of {@code [0, count)} from rank to offset
+     */
+    IntUnaryOperator order(int from, int count);
+
+    /**
+     * @return ascending candidate index, the order of the reference encodings
+     */
+    static SearchStrategy lexicographic() {
+        return Lexicographic.INSTANCE;
+    }
+
+    /**
+     * @param stride the distance between two visited candidates, at least 1; raised to
+     *               the next value coprime with the candidate count so that every
+     *               candidate is visited once
+     * @return an order visiting every {@code stride}-th candidate, wrapping around
+     */
+    static SearchStrategy strided(int stride) {
+        return new Strided(stride);
+    }
+
+    /**
+     * @param seed the seed of the permutation; equal seeds give equal orders
+     * @return a pseudo-random permutation of the candidates
+     */
+    static SearchStrategy random(long seed) {
+        return new SeededRandom(seed);
+    }
+
+    /**
+     * @param sb the SB to start at, e.g. from {@link SearchHints#suggest(String)}
+     * @return ascending order starting at {@code sb}, wrapping around to the start of
+     *         the search; the order of a search warm-started by {@link SearchHints}
+     */
+    static SearchStrategy warmStart(int sb) {
+        return new WarmStart(sb);
+    }
+
+    /**
+     * Ascending candidate index.
+     */
+    final class Lexicographic implements SearchStrategy {
+
+        static final Lexicographic INSTANCE = new Lexicographic();
+
+        private Lexicographic() {
+        }
+
+        @Override
+        public IntUnaryOperator order(int from, int count) {
+            return rank -> rank;
+        }
+
+        @Override
+        public String toString() {
+            return "lexicographic";
+        }
+    }
+
+    /**
+     * Every {@code stride}-th candidate modulo the candidate count.
+     */
+    final class Strided implements SearchStrategy {
+
+        private final int stride;
+
+        Strided(int stride) {
+            if (stride < 1) {
+                throw new IllegalArgumentException("Stride must be positive: " + stride);
+            }
+            this.stride = stride;
+        }
+
+        @Override
+        public IntUnaryOperator order(int from, int count) {
+            long step = stride;
+            while (count > 1 && gcd(step % count, count) != 1) {
+                step++;
+            }
+            long coprime = count > 0 ? step % count : 0;
+            return rank -> (int) (rank * coprime % count);
+        }
+
+        private static long gcd(long a, long b) {
+            while (b != 0) {
+                long t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+
+        @Override
+        public String toString() {
+            return "strided(" + stride + ")";
+        }
+    }
+
+    /**
+     * A four-round Feistel permutation on the smallest even number of bits covering the
+     * candidates; values past the candidate count are permuted again until they fall
+     * inside (cycle walking), which keeps the mapping a bijection.
+     */
+    final class SeededRandom implements SearchStrategy {
+
+        private static final int ROUNDS = 4;
+
+        private final long seed;
+        private final int[] keys = new int[ROUNDS];
+
+        SeededRandom(long seed) {
+            this.seed = seed;
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = random.nextInt();
+            }
+        }
+
+        @Override
+        public IntUnaryOperator order(int from, int count) {
+            int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(Math.max(1, count - 1)));
+            int half = (bits + 1) / 2;
+            int mask = (1 << half) - 1;
+            return rank -> {
+                int value = permute(rank, half, mask);
+                while (value >= count) {
+                    value = permute(value, half, mask);
+                }
+                return value;
+            };
+        }
+
+        private int permute(int value, int half, int mask) {
+            int left = value >>> half;
+            int right = value & mask;
+            for (int key : keys) {
+                int next = left ^ (mix(right, key) & mask);
+                left = right;
+                right = next;
+            }
+            return left << half | right;
+        }
+
+        private static int mix(int value, int key) {
+            int h = value * 0x9E3779B9 + key;
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            return "random(" + seed + ")";
+        }
+    }
+
+    /**
+     * Ascending order rotated to start at a given SB.
+     */
+    final class WarmStart implements SearchStrategy {
+
+        private final int sb;
+
+        WarmStart(int sb) {
+            this.sb = sb;
+        }
+
+        @Override
+        public IntUnaryOperator order(int from, int count) {
+            int shift = ValidHeaders.positionOf(sb << 10) - ValidHeaders.positionOf(from);
+            if (shift <= 0 || shift >= count) {
+                return rank -> rank;
+            }
+            return rank -> rank < count - shift ? rank + shift : rank - (count - shift);
+        }
+
+        @Override
+        public String toString() {
+            return "warm-start(" + Integer.toHexString(sb) + ")";
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * SyndromeTable maps a non-zero g(x) syndrome back to the error pattern that caused it,
+ * for the error-correcting mode of {@link TelegramDecoder}.
+ * <p>
+ * The table holds every single-bit error of the telegram and every double-bit error
+ * whose two bits lie at most {@link #MAX_DOUBLE_SPAN} positions apart, counted
+ * cyclically, as a short burst in a recording does. The syndrome of an error in bit
+ * {@code i} is {@code x^i mod g(x)}; a double error has the sum of two such syndromes.
+ * A syndrome shared by two patterns of the same weight is marked ambiguous and not
+ * corrected; a single error wins over a double one.
+ * </p>
+ * <p>
+ * The tables of both formats are built on first use only, so decoding without
+ * correction never loads them. Lookups use open addressing over primitive arrays and
+ * allocate nothing.
+ * </p>
+ */
+final class SyndromeTable {
+
+    private static final Logger LOG = LogManager.getLogger(SyndromeTable.class);
+
+    /** Largest cyclic distance between the two bits of a corrected double error. */
+    static final int MAX_DOUBLE_SPAN = 32;
+
+    // Entry values: bit + 1 in the low 11 bits, second bit + 1 in the next 11 bits
+    private static final int EMPTY = 0;
+    private static final int AMBIGUOUS = -1;
+    private static final int BITS_MASK = 0x7FF;
+
+    private static final class LongHolder {
+        static final SyndromeTable TABLE = new SyndromeTable(GF2Polynomial.G_LONG, SIZE_LONG);
+    }
+
+    private static final class ShortHolder {
+        static final SyndromeTable TABLE = new SyndromeTable(GF2Polynomial.G_SHORT, SIZE_SHORT);
+    }
+
+    private final long[] keysLow;
+    private final long[] keysHigh;
+    private final int[] values;
+    private final int mask;
+
+    /**
+     * @param isLongTelegram true for the table of long telegrams (n=1023), false for short
+     *                       ones (n=341)
+     * @return the table, built on the first call
+     */
+    static SyndromeTable get(boolean isLongTelegram) {
+        return isLongTelegram ? LongHolder.TABLE : ShortHolder.TABLE;
+    }
+
+    private SyndromeTable(GF2Polynomial g, int n) {
+        long start = System.nanoTime();
+        int capacity = Integer.highestOneBit(n * (MAX_DOUBLE_SPAN + 1) * 2 - 1) << 1;
+        keysLow = new long[capacity];
+        keysHigh = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+
+        // x^i mod g(x) for every bit of the telegram
+        long[] singleLow = new long[n];
+        long[] singleHigh = new long[n];
+        long[] register = {1, 0};
+        for (int i = 0; i < n; i++) {
+            singleLow[i] = register[0];
+            singleHigh[i] = register[1];
+            g.shiftIn(register, 0);
+        }
+
+        for (int i = 0; i < n; i++) {
+            put(singleLow[i], singleHigh[i], i + 1, false);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int d = 1; d <= MAX_DOUBLE_SPAN; d++) {
+                int j = (i + d) % n;
+                put(singleLow[i] ^ singleLow[j], singleHigh[i] ^ singleHigh[j], (i + 1) | (j + 1) << 11, true);
+            }
+        }
+        LOG.debug("Tabulka syndromů sestavena - n=" + n + " - " + (System.nanoTime() - start) / 1000 + " us");
+    }
+
+    /**
+     * Finds the error pattern of a syndrome.
+     *
+     * @param low  the low 64 bits of the g(x) remainder
+     * @param high the bits 64 and up of the g(x) remainder
+     * @return the telegram bits to flip (bit 0 least significant), or null if the
+     *         syndrome is not in the table or is ambiguous
+     */
+    int[] lookup(long low, long high) {
+        for (int slot = slot(low, high); ; slot = (slot + 1) & mask) {
+            int value = values[slot];
+            if (value == EMPTY) {
+                return null;
+            }
+            if (keysLow[slot] == low && keysHigh[slot] == high) {
+                if (value == AMBIGUOUS) {
+                    return null;
+                }
+                int second = value >>> 11;
+                return second == 0 ? new int[]{(value & BITS_MASK) - 1}
+                        : new int[]{(value & BITS_MASK) - 1, second - 1};
+            }
+        }
+    }
+
+    private void put(long low, long high, int value, boolean isDouble) {
+        for (int slot = slot(low, high); ; slot = (slot + 1) & mask) {
+            int existing = values[slot];
+            if (existing == EMPTY) {
+                keysLow[slot] = low;
+                keysHigh[slot] = high;
+                values[slot] = value;
+                return;
+            }
+            if (keysLow[slot] == low && keysHigh[slot] == high) {
+                // A single error keeps its entry against a double one
+                boolean existingDouble = existing != AMBIGUOUS && existing >>> 11 != 0;
+                if (existing == AMBIGUOUS || existingDouble == isDouble) {
+                    values[slot] = AMBIGUOUS;
+                }
+                return;
+            }
+        }
+    }
+
+    private int slot(long low, long high) {
+        long h = (low ^ high * 0x9E3779B97F4A7C15L) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ h >>> 32) & mask;
+    }
+}
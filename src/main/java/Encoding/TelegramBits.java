@@ -0,0 +1,323 @@
+package Encoding;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * TelegramBits is a mutable, fixed-width bit vector backed by a {@code long[]}.
+ * <p>
+ * Bit {@code i} has the same meaning as bit {@code i} of the {@link BigInteger} the
+ * encoder used before (bit 0 is the last transmitted bit). A long telegram (1023 bits)
+ * occupies 16 longs, a short one (341 bits) 6 longs. All operations work in place, so
+ * the encoder can reuse one instance for every candidate without allocating.
+ * </p>
+ * <p>
+ * Bits at positions {@code >= size()} are kept at zero; reads past the end of the
+ * vector return zeros, like {@code BigInteger.shiftRight} did.
+ * </p>
+ */
+public final class TelegramBits {
+
+    private final long[] words;
+    private final int size;
+
+    /**
+     * Creates an all-zero bit vector of the given width.
+     *
+     * @param size number of bits (1023 for long, 341 for short telegrams)
+     */
+    public TelegramBits(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Creates an all-zero bit vector for the given telegram format.
+     *
+     * @param isLongTelegram true for n=1023, false for n=341
+     * @return a new bit vector
+     */
+    public static TelegramBits forFormat(boolean isLongTelegram) {
+        return new TelegramBits(isLongTelegram ? EncryptionHelperList.SIZE_LONG : EncryptionHelperList.SIZE_SHORT);
+    }
+
+    /**
+     * Creates a bit vector holding the low {@code size} bits of a BigInteger.
+     *
+     * @param value the source value
+     * @param size  number of bits
+     * @return a new bit vector
+     */
+    public static TelegramBits fromBigInteger(BigInteger value, int size) {
+        TelegramBits bits = new TelegramBits(size);
+        bits.setFrom(value);
+        return bits;
+    }
+
+    /**
+     * Creates a bit vector from a string of '0'/'1' characters; the first character is
+     * the most significant bit.
+     *
+     * @param binary the binary string
+     * @return a new bit vector as wide as the string
+     */
+    public static TelegramBits fromBinaryString(String binary) {
+        int size = binary.length();
+        TelegramBits bits = new TelegramBits(size);
+        for (int i = 0; i < size; i++) {
+            if (binary.charAt(size - 1 - i) == '1') {
+                bits.setBit(i);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the vector as a string of '0'/'1' characters, most significant bit first;
+     * the inverse of {@link #fromBinaryString(String)}.
+     *
+     * @return a string of {@code size()} characters
+     */
+    public String toBinaryString() {
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[size - 1 - i] = testBit(i) ? '1' : '0';
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the vector in transmission order: most significant bit first, eight bits
+     * per byte, with the last byte filled up with zero bits. A long telegram gives the
+     * 128-byte and a short one the 43-byte air-gap image of a .tlg file.
+     *
+     * @return a new array of {@code (size() + 7) / 8} bytes
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(size + 7) >>> 3];
+        int full = size >>> 3;
+        for (int i = 0; i < full; i++) {
+            bytes[i] = (byte) extract(size - 8 - (i << 3), 8);
+        }
+        int tail = size & 7;
+        if (tail != 0) {
+            bytes[full] = (byte) (extract(0, tail) << (8 - tail));
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the width of the vector in bits
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Direct access to the backing words for word-level loops inside the package.
+     */
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Clears all bits.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Replaces the content with a copy of another vector of the same width.
+     *
+     * @param other the source vector
+     */
+    public void copyFrom(TelegramBits other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Replaces the content with the low {@code size()} bits of a BigInteger.
+     *
+     * @param value the source value
+     */
+    public void setFrom(BigInteger value) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = value.shiftRight(i << 6).longValue();
+        }
+        maskTail();
+    }
+
+    /**
+     * Tests a single bit.
+     *
+     * @param index the bit index
+     * @return true if the bit is set
+     */
+    public boolean testBit(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets a single bit.
+     *
+     * @param index the bit index
+     */
+    public void setBit(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Clears a single bit.
+     *
+     * @param index the bit index
+     */
+    public void clearBit(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * ORs another vector of the same width into this one.
+     *
+     * @param other the vector to OR in
+     */
+    public void or(TelegramBits other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * ORs the given value into the bits starting at {@code position}.
+     *
+     * @param position the lowest bit to write
+     * @param value    the value (only the low {@code bits} bits are used)
+     * @param bits     the number of bits, 1..64
+     */
+    public void or(int position, long value, int bits) {
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int w = position >>> 6;
+        int b = position & 63;
+        words[w] |= value << b;
+        if (b != 0 && b + bits > 64) {
+            words[w + 1] |= value >>> (64 - b);
+        }
+    }
+
+    /**
+     * Overwrites {@code bits} bits starting at {@code position} with the given value.
+     *
+     * @param position the lowest bit to write
+     * @param value    the value (only the low {@code bits} bits are used)
+     * @param bits     the number of bits, 1..64
+     */
+    public void write(int position, long value, int bits) {
+        long mask = bits < 64 ? (1L << bits) - 1 : -1L;
+        value &= mask;
+        int w = position >>> 6;
+        int b = position & 63;
+        words[w] = (words[w] & ~(mask << b)) | (value << b);
+        if (b != 0 && b + bits > 64) {
+            words[w + 1] = (words[w + 1] & ~(mask >>> (64 - b))) | (value >>> (64 - b));
+        }
+    }
+
+    /**
+     * Reads {@code bits} bits starting at {@code position}. Positions past the end of the
+     * vector read as zero.
+     *
+     * @param position the lowest bit to read
+     * @param bits     the number of bits, 1..64
+     * @return the extracted window
+     */
+    public long extractLong(int position, int bits) {
+        int w = position >>> 6;
+        int b = position & 63;
+        long value = w < words.length ? words[w] >>> b : 0L;
+        if (b != 0 && b + bits > 64 && w + 1 < words.length) {
+            value |= words[w + 1] << (64 - b);
+        }
+        return bits < 64 ? value & ((1L << bits) - 1) : value;
+    }
+
+    /**
+     * Reads up to 32 bits starting at {@code position}, see {@link #extractLong(int, int)}.
+     *
+     * @param position the lowest bit to read
+     * @param bits     the number of bits, 1..32
+     * @return the extracted window
+     */
+    public int extract(int position, int bits) {
+        return (int) extractLong(position, bits);
+    }
+
+    /**
+     * Reads {@code bits} bits starting at {@code position}, treating the vector as a cycle
+     * of {@code size()} bits (position {@code size()} is bit 0 again).
+     *
+     * @param position the lowest bit to read, any value
+     * @param bits     the number of bits, 1..32 and at most {@code size()}
+     * @return the extracted window
+     */
+    public int extractWrap(int position, int bits) {
+        position = Math.floorMod(position, size);
+        int head = size - position;
+        if (bits <= head) {
+            return extract(position, bits);
+        }
+        return extract(position, head) | (extract(0, bits - head) << head);
+    }
+
+    /**
+     * @return index of the highest set bit plus one, 0 for an all-zero vector
+     */
+    public int bitLength() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                return (i << 6) + 64 - Long.numberOfLeadingZeros(words[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the content as a non-negative BigInteger
+     */
+    public BigInteger toBigInteger() {
+        byte[] bytes = new byte[words.length * 8 + 1];
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            for (int j = 0; j < 8; j++) {
+                bytes[bytes.length - 1 - (i * 8 + j)] = (byte) (word >>> (j * 8));
+            }
+        }
+        return new BigInteger(bytes);
+    }
+
+    private void maskTail() {
+        int tail = size & 63;
+        if (tail != 0) {
+            words[words.length - 1] &= (1L << tail) - 1;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TelegramBits)) return false;
+        TelegramBits other = (TelegramBits) o;
+        return size == other.size && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return toBigInteger().toString(16);
+    }
+}
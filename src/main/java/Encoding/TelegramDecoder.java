@@ -3,433 +3,330 @@ package Encoding;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
-import static tools.crypto.ArithmeticalFunctions.*;
 import static Encoding.EncryptionHelperList.*;
-import static tools.string.StringHelper.*;
 
 /**
- * TelegramDecoder - Decodes a Balise telegram (Subset-036) from a hex input.
+ * TelegramDecoder - Decodes a Balise telegram (Subset-036) from its air-gap bits.
  * <p>
  * This class attempts to detect whether the telegram is in the "long" or "short" format
  * (n=1023 or n=341), perform polynomial checks with g(x) and f(x), validate control bits,
  * handle inversion bit (b109), invert the 10-to-11-bit transformation, and de-scramble the data.
- * After these steps, user data is returned in HEX form if decoding is successful.
+ * </p>
+ * <p>
+ * {@link #decode(byte[])} and {@link #decode(ByteBuffer)} work on packed bits and return a
+ * {@link DecodeResult} telling where decoding failed; {@link #decodeTelegram(String)} is
+ * the hexadecimal wrapper that returns the user data in HEX form, or an empty string.
+ * The result-returning methods are used in bulk (captures, folders) and log only at
+ * debug level; rejected telegrams are reported by their callers.
+ * </p>
+ * <p>
+ * By default a telegram with a non-zero g(x) syndrome is rejected. The overloads taking
+ * {@code correctErrors} first look the syndrome up in a {@link SyndromeTable} and flip
+ * the bits of a single-bit error or a short double-bit error before decoding; the
+ * result then reports the corrected bits.
+ * </p>
  */
 public class TelegramDecoder {
 
     private static final Logger LOG = LogManager.getLogger(TelegramDecoder.class);
 
-
+    /**
+     * Number of bytes of the shortest input decoded as a short telegram; from
+     * {@value #LONG_INPUT_BYTES} bytes on the input is decoded as a long telegram.
+     */
+    static final int SHORT_INPUT_BYTES = 43;
+    static final int LONG_INPUT_BYTES = 128;
 
     /**
      * Main method to decode a Balise telegram (hex input).
      *
      * @param hexString Telegram in hexadecimal form.
-     * @return Decoded telegram in hexadecimal form, or an error code if decoding fails.
+     * @return Decoded telegram in hexadecimal form, or an empty string if decoding fails.
      */
     public static String decodeTelegram(String hexString) {
         LOG.info("Starting decode of telegram from hexString: [{}]", hexString);
 
-        // Convert input from HEX to a binary string
-        String inputDataBits = hex2Bin(hexString);
-        LOG.debug("Converted HEX to binary. Length = {} bits.", inputDataBits.length());
-
-        if(hexString.isEmpty()) {
+        if (hexString.isEmpty()) {
             LOG.error("Prázdný hexstring");
-
             return "";
         }
 
-        BigInteger inputBigInt = new BigInteger(hexString, 16); // (kept for reference if needed)
-        LOG.trace("Created BigInteger from hex: [{}]", inputBigInt.toString(16));
-
         // Determine if the telegram is long or short based on the HEX length
         int telegramFormat = determineTelegramFormat(hexString.length());
+        DecodeResult result;
         if (telegramFormat == -1) {
-            LOG.error("Invalid telegram size");
-            return "";
+            checkHexDigits(hexString);
+            result = failure(DecodeResult.Stage.FORMAT, false);
+        } else {
+            result = decode(fromHex(hexString, getTelegramLength(telegramFormat)));
         }
-
-        LOG.info("Telegram format determined - {}",
-                (telegramFormat == 0 ? "LONG (n=1023)" : "SHORT (n=341)"));
-
-        // Retrieve the number of bits (n) and polynomials f(x) and g(x) for the chosen format
-        int n = getTelegramLength(telegramFormat);
-        BigInteger polynomF = getPolynomF(telegramFormat);
-        BigInteger polynomG = getPolynomG(telegramFormat);
-
-        // Variables for iterative processing
-        BigInteger fxSyndrome;
-        String candidateTelegramBits;
-
-        // Try to find a valid telegram by "sliding" over the bit sequence
-        while (true) {
-            // Extract n bits from the input as a candidate telegram
-            candidateTelegramBits = remove(inputDataBits, n, inputDataBits.length() - n);
-            LOG.debug("Candidate telegram bits length: {}", candidateTelegramBits.length());
-
-            // Check polynomials g(x) and f(x); obtain f(x) syndrome
-            fxSyndrome = checkPolynomialsSyndromes(candidateTelegramBits, polynomF, polynomG);
-            if (fxSyndrome.equals(BigInteger.valueOf(-1))) {
-                // If polynomial check fails, break and return an error
-                LOG.debug("Polynomial check with g(x) failed. Breaking out.");
-                break;
-            }
-
-            LOG.trace("Polynomial check passed. f(x) remainder (syndrome) = {}", fxSyndrome.toString());
-
-            // Determine substitution index (11-bit to 10-bit transformation) based on f(x) result
-            int substitutionIndex = getSubstitutionIndex(telegramFormat, fxSyndrome.intValue());
-            if (substitutionIndex == -1) {
-                LOG.error("Invalid substitution index.");
-                return "";
-            }
-
-            LOG.debug("Applying substitution word with index = {}", substitutionIndex);
-
-            // Apply the substitution word to reconstruct the telegram bits
-            String reconstructedTelegram = applySubstitutionWord(candidateTelegramBits, n, substitutionIndex, telegramFormat);
-            LOG.trace("Reconstructed telegram length: {}", reconstructedTelegram.length());
-
-            // Now try to validate and process these bits:
-            //  - Check inversion bit
-            //  - Check control bits
-            //  - Possibly de-scramble
-            //  - If validation fails, invert bits (subset 036 - b109) and retry
-            while (true) {
-                String result = validateAndProcessTelegram(reconstructedTelegram, n, telegramFormat);
-                if (result != null) {
-                    LOG.info("Decoding ended with result - [{}]", result);
-                    return result;
-                }
-                // If the first attempt fails, invert bits and retry
-                LOG.debug("Validation failed with possible inversion bit. Inverting bits to retry.");
-                reconstructedTelegram = invertBin(reconstructedTelegram);
-            }
+        if (!result.isSuccess()) {
+            LOG.error("Telegram nelze dekódovat - {}", result);
+            return "";
         }
-
-        LOG.error("No valid telegram found after polynomial checks");
-        // If we exit the while loop without returning, a parity/polynomial issue is presumed
-        return "";
-    }
-
-    /**
-     * Determine whether the telegram is long (n=1023) or short (n=341), based on HEX length.
-     * Returns 0 for long, 1 for short, or -1 for an invalid size.
-     */
-    private static int determineTelegramFormat(int hexLength) {
-        // Example logic: if hex < 86 => error, if 86..255 => short, else long
-        // 0 => long, 1 => short, -1 => invalid
-        LOG.trace("Determining telegram format from hex length = {}", hexLength);
-        return hexLength < 86 ? -1 : (hexLength < 256 ? 1 : 0);
+        String hex = result.getUserDataHex();
+        LOG.info("Decoding ended with result - [{}]", hex);
+        return hex;
     }
 
     /**
-     * Returns the number of bits (n) for the given format.
+     * Decodes a telegram from its air-gap bytes, most significant bit first, as written
+     * to a .tlg file.
+     *
+     * @param airGap 128 bytes for a long telegram, 43 bytes for a short one; longer
+     *               inputs are cut to the telegram length
+     * @return the user data, or the stage at which decoding failed
      */
-    private static int getTelegramLength(int telegramFormat) {
-        return (telegramFormat == 0) ? SIZE_LONG : SIZE_SHORT;  // 1023 or 341
+    public static DecodeResult decode(byte[] airGap) {
+        return decode(ByteBuffer.wrap(airGap), false);
     }
 
     /**
-     * Returns the polynomial f(x) for the given format.
+     * Decodes a telegram from its air-gap bytes, see {@link #decode(byte[])}.
+     *
+     * @param airGap        the air-gap bytes
+     * @param correctErrors true to correct single-bit and short double-bit errors
+     * @return the user data, or the stage at which decoding failed
      */
-    private static BigInteger getPolynomF(int telegramFormat) {
-        return (telegramFormat == 0) ? FLONG : FSHORT;
+    public static DecodeResult decode(byte[] airGap, boolean correctErrors) {
+        return decode(ByteBuffer.wrap(airGap), correctErrors);
     }
 
     /**
-     * Returns the polynomial g(x) for the given format.
+     * Decodes a telegram from the bytes between the buffer's position and limit, see
+     * {@link #decode(byte[])}. The position of the buffer is not changed.
+     *
+     * @param buffer the air-gap bytes
+     * @return the user data, or the stage at which decoding failed
      */
-    private static BigInteger getPolynomG(int telegramFormat) {
-        return (telegramFormat == 0) ? GLONG : GSHORT;
+    public static DecodeResult decode(ByteBuffer buffer) {
+        return decode(buffer, false);
     }
 
     /**
-     * Checks if the candidate telegram bits are divisible by g(x) (remainder=0),
-     * then computes the remainder for f(x). If g(x) fails, returns -1.
+     * Decodes a telegram from the bytes between the buffer's position and limit, see
+     * {@link #decode(ByteBuffer)}.
+     *
+     * @param buffer        the air-gap bytes
+     * @param correctErrors true to correct single-bit and short double-bit errors
+     * @return the user data, or the stage at which decoding failed
      */
-    private static BigInteger checkPolynomialsSyndromes(String telegramCandidate,
-                                                        BigInteger f,
-                                                        BigInteger g) {
-        // Step 1: check polynomial division with g(x)
-        String remainderG = polynomialDivision2(telegramCandidate, g);
-        if (!trim(remainderG, '0').isEmpty()) {
-            // g(x) remainder is not empty => polynomial check failed
-            LOG.trace("Remainder of g(x) not empty: [{}]. Polynomials check fails.", remainderG);
-            return BigInteger.valueOf(-1);
+    public static DecodeResult decode(ByteBuffer buffer, boolean correctErrors) {
+        int length = buffer.remaining();
+        if (length < SHORT_INPUT_BYTES) {
+            LOG.debug("Invalid telegram size");
+            return failure(DecodeResult.Stage.FORMAT, false);
         }
-
-        // Step 2: compute remainder for f(x)
-        String remainderF = polynomialDivision2(telegramCandidate, f);
-        BigInteger fxVal = BigInteger.valueOf(bin2Dec(remainderF));
-        LOG.trace("Remainder for f(x) after division: [{}] => as decimal: {}", remainderF, fxVal);
-        return fxVal;
-    }
-
-    /**
-     * Determines the substitution index from the f(x) syndrome.
-     * If the format is long and the syndrome=0, returns -1.
-     */
-    private static int getSubstitutionIndex(int telegramFormat, int fxValue) {
-        // If we have a LONG telegram and fxValue=0 => error
-        if (telegramFormat == 0 && fxValue == 0) {
-            LOG.debug("Long telegram with f(x) = 0 is invalid. Substitution index = -1.");
-            return -1;
+        int n = length < LONG_INPUT_BYTES ? SIZE_SHORT : SIZE_LONG;
+        TelegramBits bits = new TelegramBits(n);
+        int start = buffer.position();
+        int full = n >>> 3;
+        for (int i = 0; i < full; i++) {
+            bits.or(n - 8 - (i << 3), buffer.get(start + i) & 0xFF, 8);
         }
-        // Use either SHORT or LONG substitution table
-        int index = (telegramFormat != 0)
-                ? SHORT_SUBSTITUTION_WORDS[fxValue]
-                : LONG_SUBSTITUTION_WORDS[fxValue];
-        LOG.trace("Substitution index for fxValue = {} => {}", fxValue, index);
-        return index;
+        int tail = n & 7;
+        if (tail != 0) {
+            bits.or(0, (buffer.get(start + full) & 0xFF) >>> (8 - tail), tail);
+        }
+        return decode(bits, correctErrors);
     }
 
     /**
-     * Applies the substitution word, which rearranges bits for the 10->11 or 11->10 transformation.
+     * Decodes the first n received bits of a telegram.
+     *
+     * @param received a vector of 1023 (long) or 341 (short) bits; not modified
      */
-    private static String applySubstitutionWord(String candidateBits,
-                                                int n,
-                                                int substitutionIndex,
-                                                int telegramFormat) {
-        // Example: remove the last (substitutionIndex) bits, re-append them, etc.
-        LOG.trace("Applying substitution word - candidateBits size={} - index={}", candidateBits.length(), substitutionIndex);
-        return remove(candidateBits, 0, n - substitutionIndex)
-                + remove(candidateBits, n - substitutionIndex, substitutionIndex);
+    static DecodeResult decode(TelegramBits received) {
+        return decode(received, false);
     }
 
     /**
-     * Validates a reconstructed telegram:
-     *  - Extracts and checks control bits (b109, b108, b107)
-     *  - If they match expectations, de-scrambles user data
-     *  - Returns the final bin->hex result or an error code
-     *  - If it's not valid, returns null to trigger a bit inversion step
+     * Decodes the first n received bits of a telegram, optionally correcting errors.
+     *
+     * @param received      a vector of 1023 (long) or 341 (short) bits; not modified
+     * @param correctErrors true to correct single-bit and short double-bit errors
      */
-    private static String validateAndProcessTelegram(String candidateTelegram,
-                                                     int n,
-                                                     int telegramFormat) {
-        LOG.debug("Validating reconstructed telegram - Length: {}", candidateTelegram.length());
-
-        // 1) Basic initialization or trimming
-        String initializedTelegram = initializeTelegramCandidate(candidateTelegram);
-        LOG.trace("Initialized telegram (after trimming, etc) - Length: {}", initializedTelegram.length());
-
-        // 2) Extract special bits (inversionBit = b109, controlBits = b108/b107, user data, etc.)
-        String inversionBit = getInversionBit(initializedTelegram, n, telegramFormat);
-        String controlBits  = getControlBits(initializedTelegram, n, telegramFormat);
-        String userDataBits = getUserDataBits(initializedTelegram, n, telegramFormat);
-        LOG.trace("Extracted bits - inversionBit: [{}] - controlBits: [{}] - userDataBits length: {}",
-                inversionBit, controlBits, userDataBits.length());
-
-        // 3) Some core processing (placeholder logic)
-        processTelegramCore(initializedTelegram, n, telegramFormat);
-
-        // 4) Decode the first (n/11) words of 11 bits each
-        String decodedFirstWords = decodeFirstWords(n, telegramFormat, initializedTelegram);
-        LOG.debug("Decoded first - words length: {}", decodedFirstWords.length());
-
-        // 5) Check how many valid 11-bit blocks we have
-        String validWordCount = checkValidWordCount(n, telegramFormat, initializedTelegram, decodedFirstWords);
-        LOG.trace("Valid 11-bit - words count: {}", validWordCount);
-
-        // 6) Evaluate the result:
-        //    If validWordCount == n/11 and inversionBit=0 => check b108=0 & b107=1 => "01"
-        //    If these bits match, de-scramble and build final output
-        if (new BigDecimal(validWordCount).equals(BigDecimal.valueOf((double) n / 11))) {
-            if (inversionBit.equals("0")) {
-                if (!controlBits.equals("01")) {
-                    LOG.debug("Control bits mismatch - Expected '01' but got '{}'", controlBits);
-                    return "";
+    static DecodeResult decode(TelegramBits received, boolean correctErrors) {
+        int n = received.size();
+        boolean isLong = n == SIZE_LONG;
+        LOG.debug("Telegram format determined - {}", isLong ? "LONG (n=1023)" : "SHORT (n=341)");
+
+        // Check polynomials g(x) and f(x) in one pass; obtain f(x) syndrome
+        long[] remainders = new long[4];
+        GF2Polynomial.remainders(received, isLong ? GF2Polynomial.G_LONG : GF2Polynomial.G_SHORT,
+                isLong ? GF2Polynomial.F_LONG : GF2Polynomial.F_SHORT, remainders);
+        int[] correctedBits = null;
+        if (remainders[0] != 0 || remainders[1] != 0) {
+            int[] errorBits = correctErrors ? SyndromeTable.get(isLong).lookup(remainders[0], remainders[1]) : null;
+            if (errorBits == null) {
+                LOG.debug("No valid telegram found after polynomial checks");
+                return failure(DecodeResult.Stage.G_SYNDROME, isLong);
+            }
+            TelegramBits corrected = new TelegramBits(n);
+            corrected.copyFrom(received);
+            correctedBits = new int[errorBits.length];
+            for (int i = 0; i < errorBits.length; i++) {
+                int bit = errorBits[i];
+                if (corrected.extract(bit, 1) != 0) {
+                    corrected.clearBit(bit);
+                } else {
+                    corrected.setBit(bit);
                 }
-                String deScrambled = deScramble(decodedFirstWords, userDataBits);
-                LOG.trace("Data after de-scrambling - length={}", deScrambled.length());
-                String finalOutput = constructFinalOutput(deScrambled);
-                LOG.info("Telegram successfully decoded. Returning final HEX output.");
-                return bin2Hex(finalOutput);
+                correctedBits[i] = n - 1 - bit;
             }
+            Arrays.sort(correctedBits);
+            LOG.debug("Opraveny chybné bity telegramu - {}", Arrays.toString(correctedBits));
+            received = corrected;
+            GF2Polynomial.remainders(received, isLong ? GF2Polynomial.G_LONG : GF2Polynomial.G_SHORT,
+                    isLong ? GF2Polynomial.F_LONG : GF2Polynomial.F_SHORT, remainders);
+        }
+        int syndrome = (int) remainders[2];
+        LOG.trace("Polynomial check passed. f(x) remainder (syndrome) = {}", syndrome);
+
+        // Determine substitution index (11-bit to 10-bit transformation) based on f(x) result
+        int substitutionIndex = getSubstitutionIndex(isLong, syndrome);
+        if (substitutionIndex == -1) {
+            LOG.debug("Invalid substitution index.");
+            return new DecodeResult(DecodeResult.Stage.SUBSTITUTION, isLong, syndrome, -1, -1, false, null, correctedBits);
         }
+        LOG.debug("Applying substitution word with index = {}", substitutionIndex);
 
-        LOG.debug("Validation indicates possible inversion scenario or mismatch. Returning null to trigger inversion.");
-        return "";
-    }
+        // Undo the substitution word: the telegram is rotated by the substitution index
+        TelegramBits telegram = new TelegramBits(n);
+        for (int i = 0; i < n; i += 32) {
+            int bits = Math.min(32, n - i);
+            telegram.write(i, received.extractWrap(i + substitutionIndex, bits) & 0xFFFFFFFFL, bits);
+        }
 
-    /**
-     * Example method to trim or initialize the candidate telegram bits.
-     * The logic is implementation-specific and can be adapted if needed.
-     */
-    private static String initializeTelegramCandidate(String telegramBits) {
-        String newTelegram = new String(telegramBits);
-        // Example removals:
-        remove(newTelegram, newTelegram.length() - 110, 110);
-        remove(newTelegram, 0, newTelegram.length() - 85);
-        return newTelegram;
-    }
+        int controlBits = telegram.extract(OFFSET_SHAPED_DATA - CONTROL_BITS_SIZE, CONTROL_BITS_SIZE);
+        boolean inverted = (controlBits & 0b100) != 0;
+        if (inverted) {
+            // Subset-036 b109: the telegram was transmitted inverted
+            LOG.debug("Inversion bit set. Inverting bits.");
+            invert(telegram);
+        }
 
-    /**
-     * Extracts the inversion bit (b109).
-     */
-    private static String getInversionBit(String telegram, int n, int telegramFormat) {
-        return String.valueOf(telegram.toCharArray()[n - 110]);
+        if (!allWordsValid(telegram)) {
+            LOG.debug("Not all 11-bit words are valid.");
+            return new DecodeResult(DecodeResult.Stage.WORDS, isLong, syndrome, substitutionIndex, controlBits, inverted, null, correctedBits);
+        }
+        if ((telegram.extract(OFFSET_SHAPED_DATA - CONTROL_BITS_SIZE, 2)) != 0b01) {
+            LOG.debug("Control bits mismatch - Expected '01' but got '{}'", Integer.toBinaryString(controlBits & 0b11));
+            return new DecodeResult(DecodeResult.Stage.CONTROL_BITS, isLong, syndrome, substitutionIndex, controlBits, inverted, null, correctedBits);
+        }
+
+        TelegramBits userData = decodeWords(telegram);
+        int sb = telegram.extract(CHECK_BITS_SIZE + EXTRA_SHAPING_BITS_SIZE, SCRAMBLING_BITS_SIZE);
+        Scrambler.descramble(Scrambler.seed(sb), userData.words(), userData.words(), userData.size());
+        restoreFirstWord(userData);
+        LOG.debug("Telegram successfully decoded.");
+        return new DecodeResult(null, isLong, syndrome, substitutionIndex, controlBits, inverted, userData, correctedBits);
     }
 
-    /**
-     * Extracts b108 and b107 after skipping b109.
-     */
-    private static String getControlBits(String telegram, int n, int telegramFormat) {
-        String bits = remove(telegram, 0, n - 109); // b109 + b108 + b107
-        return remove(bits, 2, 107);               // keep only b108 + b107
+    private static DecodeResult failure(DecodeResult.Stage stage, boolean isLong) {
+        return new DecodeResult(stage, isLong, -1, -1, -1, false, null);
     }
 
     /**
-     * Extracts the user data bits (example: skipping b109, b108, b107).
+     * Determine whether the telegram is long (n=1023) or short (n=341), based on HEX length.
+     * Returns 0 for long, 1 for short, or -1 for an invalid size.
      */
-    private static String getUserDataBits(String telegram, int n, int telegramFormat) {
-        String data = remove(telegram, 0, n - 107);
-        // "12" and "95" are placeholders depending on the encoding structure
-        return remove(data, 12, 95);
+    private static int determineTelegramFormat(int hexLength) {
+        // 0 => long, 1 => short, -1 => invalid
+        LOG.trace("Determining telegram format from hex length = {}", hexLength);
+        return hexLength < 2 * SHORT_INPUT_BYTES ? -1 : (hexLength < 2 * LONG_INPUT_BYTES ? 1 : 0);
     }
 
     /**
-     * Placeholder for further telegram processing if needed.
+     * Returns the number of bits (n) for the given format.
      */
-    private static String processTelegramCore(String telegram, int n, int telegramFormat) {
-        // remove(...) operations to handle leftover bits, etc.
-        return remove(remove(telegram, 0, n - 95), WORD_LENGTH, 85);
+    private static int getTelegramLength(int telegramFormat) {
+        return (telegramFormat == 0) ? SIZE_LONG : SIZE_SHORT;  // 1023 or 341
     }
 
     /**
-     * Decodes the first (n/11) 11-bit blocks into some 10-bit words using a lookup table.
+     * Reads the first {@code n} bits of a hexadecimal telegram, first digit most significant.
      */
-    private static String decodeFirstWords(int n, int telegramFormat, String telegramBits) {
-        StringBuilder sb = new StringBuilder();
-        int numberOfWords = (n / 11) - 1;
-
-        for (int i = 0; i <= numberOfWords; i++) {
-            String chunk11 = substring(telegramBits, i * 11, 11);
-            long chunkVal = bin2Dec(chunk11);
-
-            if (chunkVal < 0 || chunkVal >= WORDS_11_REVERSE.length) {
-                continue;
-            }
-            int mappedVal = WORDS_11_REVERSE[(int) chunkVal];
-            if (mappedVal >= 0 && i < (n / 11) - WORD_LENGTH) {
-                sb.append(dec2XBin(Integer.toString(mappedVal), WORD_LENGTH));
-            }
+    private static TelegramBits fromHex(String hex, int n) {
+        checkHexDigits(hex);
+        TelegramBits bits = new TelegramBits(n);
+        int full = n >>> 2;
+        for (int i = 0; i < full; i++) {
+            bits.or(n - 4 - (i << 2), Character.digit(hex.charAt(i), 16), 4);
         }
-        return sb.toString();
+        int tail = n & 3;
+        if (tail != 0) {
+            bits.or(0, Character.digit(hex.charAt(full), 16) >>> (4 - tail), tail);
+        }
+        return bits;
     }
 
-    /**
-     * Checks how many valid 11-bit blocks are in the telegram.
-     * Returns a string like "X.0" to compare with (n/11) in decimal form.
-     */
-    private static String checkValidWordCount(int n,
-                                              int telegramFormat,
-                                              String telegramBits,
-                                              String decodedWords) {
-        int validCount = 0;
-        int numberOfWords = (n / 11) - 1;
-
-        for (int i = 0; i <= numberOfWords; i++) {
-            String chunk11 = substring(telegramBits, i * 11, 11);
-            int mappedVal = WORDS_11_REVERSE[(int) bin2Dec(chunk11)];
-            if (mappedVal >= 0) {
-                validCount++;
+    private static void checkHexDigits(String hex) {
+        for (int i = 0; i < hex.length(); i++) {
+            if (Character.digit(hex.charAt(i), 16) < 0) {
+                throw new IllegalArgumentException("Input contains non-hex character");
             }
         }
-        return validCount + ".0";
     }
 
     /**
-     * De-scrambles the data. This is an example implementation of a
-     * reverse scrambling step as per Subset-036.
+     * Determines the substitution index from the f(x) syndrome.
+     * If the format is long and the syndrome=0, returns -1.
      */
-    private static String deScramble(String firstWordBits, String userDataBits) {
-        LOG.trace("Starting de-scramble process. - firstWordBits length={} - userDataBits length={}",
-                firstWordBits.length(), userDataBits.length());
-        char[] scramblerState = initializeScramblerState(userDataBits);
-        StringBuilder sb = new StringBuilder(firstWordBits.length());
-
-        sb.append(textXOR(firstWordBits.charAt(0), scramblerState[0]));
-
-        for (int i = 1; i < firstWordBits.length(); i++) {
-            char prevChar = firstWordBits.charAt(i - 1);
-            scramblerState = shiftScrambler(scramblerState, prevChar);
-            sb.append(textXOR(firstWordBits.charAt(i), scramblerState[0]));
+    private static int getSubstitutionIndex(boolean isLong, int fxValue) {
+        // If we have a LONG telegram and fxValue=0 => error
+        if (isLong && fxValue == 0) {
+            LOG.debug("Long telegram with f(x) = 0 is invalid. Substitution index = -1.");
+            return -1;
         }
-        return sb.toString();
+        int index = isLong ? LONG_SUBSTITUTION_WORDS[fxValue] : SHORT_SUBSTITUTION_WORDS[fxValue];
+        LOG.trace("Substitution index for fxValue = {} => {}", fxValue, index);
+        return index;
     }
 
-    /**
-     * Shifts the scrambler array with XOR operations on specific bits.
-     */
-    private static char[] shiftScrambler(char[] array, char prevChar) {
-        // Example shifts for the first part
-        for (int i = 0; i < 3; i++) {
-            array[i] = textXOR(array[i + 1], prevChar);
-        }
-
-        // Another set of XOR manipulations
-        int[] affectedIndices = {3, 4, 5, 6};
-        for (int i = 0; i < affectedIndices.length; i += 2) {
-            array[affectedIndices[i]] = array[affectedIndices[i] + 1];
-            array[affectedIndices[i] + 1] = textXOR(array[affectedIndices[i] + 2], prevChar);
+    private static void invert(TelegramBits telegram) {
+        for (int i = 0; i < telegram.size(); i += 32) {
+            int bits = Math.min(32, telegram.size() - i);
+            telegram.write(i, ~telegram.extract(i, bits) & ((1L << bits) - 1), bits);
         }
-
-        // Shift array from index 8 to 7, length 24
-        System.arraycopy(array, 8, array, 7, 24);
-
-        // Place prevChar at the end
-        array[31] = prevChar;
-        return array;
     }
 
     /**
-     * Initializes the scrambler state based on user data bits.
+     * Checks that all n/11 words of the telegram are valid 11-bit words.
      */
-    private static char[] initializeScramblerState(String userDataBits) {
-        char[] arr = new char[33];
-        long val = bin2Dec(userDataBits);
-
-        // Calculate a seed in 32 bits
-        String seed = dec2XBin(
-                String.valueOf(Math.round((double) (2801775573L * val) % 4294967296.0)),
-                32
-        );
-        System.arraycopy(seed.toCharArray(), 0, arr, 0, 32);
-        return arr;
+    private static boolean allWordsValid(TelegramBits telegram) {
+        return ValidWordScanner.allValid(telegram.words(), 0, telegram.size() / 11);
     }
 
     /**
-     * Constructs the final output from the de-scrambled bits, adjusting mod 1024 if needed.
+     * Maps the 11-bit words of the shaped data back to the 10-bit words of the scrambled
+     * user data. The first transmitted word is the most significant one.
      */
-    private static String constructFinalOutput(String deScrambledBits) {
-        // Example logic from the original code
-        LOG.trace("Constructing final output from de-scrambled bits - Délka={}", deScrambledBits.length());
-
-        BigInteger num6 = BigInteger.valueOf(bin2Dec(
-                remove(deScrambledBits, WORD_LENGTH, deScrambledBits.length() - WORD_LENGTH)
-        ));
-        BigInteger num7 = BigInteger.ZERO;
-        int maxChunk = (deScrambledBits.length() / WORD_LENGTH) - 1;
-
-        for (int i = 1; i <= maxChunk; i++) {
-            String chunk = substring(deScrambledBits, i * WORD_LENGTH, WORD_LENGTH);
-            num7 = num7.add(BigInteger.valueOf(bin2Dec(chunk)));
+    private static TelegramBits decodeWords(TelegramBits telegram) {
+        int n = telegram.size();
+        int words = (n - OFFSET_SHAPED_DATA) / 11;
+        TelegramBits data = new TelegramBits(words * WORD_LENGTH);
+        for (int i = 0; i < words; i++) {
+            int word = WORDS_11_REVERSE[telegram.extract(n - 11 - 11 * i, 11)];
+            data.write(data.size() - WORD_LENGTH - WORD_LENGTH * i, word, WORD_LENGTH);
         }
+        return data;
+    }
 
-        BigInteger num5 = num6.subtract(num7.mod(BigInteger.valueOf(1024)));
-        if (num5.compareTo(BigInteger.ZERO) < 0) {
-            num5 = num5.add(BigInteger.valueOf(1024));
+    /**
+     * Undoes the extra shaping of the first 10-bit word: the encoder stored it plus the
+     * sum of all other words, mod 1024.
+     */
+    private static void restoreFirstWord(TelegramBits data) {
+        int words = data.size() / WORD_LENGTH;
+        int sum = 0;
+        for (int i = 1; i < words; i++) {
+            sum += data.extract(data.size() - WORD_LENGTH - WORD_LENGTH * i, WORD_LENGTH);
         }
-
-        String finalBits =
-                dec2XBin(num5.toString(), WORD_LENGTH) + remove(deScrambledBits, 0, WORD_LENGTH);
-
-        LOG.trace("Final bits length={} => returning from constructFinalOutput.", finalBits.length());
-        return finalBits;
+        int first = data.extract(data.size() - WORD_LENGTH, WORD_LENGTH);
+        data.write(data.size() - WORD_LENGTH, Math.floorMod(first - sum, 1024), WORD_LENGTH);
     }
 }
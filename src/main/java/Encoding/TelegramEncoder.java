@@ -1,11 +1,9 @@
 package Encoding;
 
-import org.apache.commons.logging.Log;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import tools.crypto.ArithmeticalFunctions;
 
 import java.math.BigInteger;
+import java.util.function.Consumer;
 
 import static Encoding.EncryptionHelperList.*;
 
@@ -19,16 +17,26 @@ import static Encoding.EncryptionHelperList.*;
  */
 public class TelegramEncoder {
 
-    private static final Logger LOG = LogManager.getLogger(TelegramEncoder.class);
+    /**
+     * Control bits b109..b107 ("001") placed above the 22-bit SB/ESB header.
+     */
+    static final int STATIC_VALUE = 0b001 << 12;
+
+    static final int[] MAX_CVW_LONG = {0, 2, 10, 10, 10, 10, 10, 10, 10, 10, 2};
+    static final int[] MAX_CVW_SHORT = {0, 2, 6, 6, 6, 6, 6, 6, 6, 6, 2};
 
-    // Global state variables used during encoding
-    static BigInteger SB;
-    static BigInteger ESB;
-    static BigInteger adderESB = BigInteger.ONE;
-    static final BigInteger STATIC_VALUE = new BigInteger("001", 2).shiftLeft(12);
+    // g(x) split into low 64 and high bits
+    static final long G_LONG_LOW = GLONG.longValue();
+    static final long G_LONG_HIGH = GLONG.shiftRight(64).longValue();
+    static final long G_SHORT_LOW = GSHORT.longValue();
+    static final long G_SHORT_HIGH = GSHORT.shiftRight(64).longValue();
 
     /**
      * Encodes the provided input string into a telegram using the given SB, ESB, and adder values.
+     * <p>
+     * All search state lives in a fresh {@link EncoderSession}, so this method may be
+     * called from several threads at once.
+     * </p>
      *
      * @param input      the input telegram as a binary string
      * @param sb         initial SB value (12 bits)
@@ -38,91 +46,85 @@ public class TelegramEncoder {
      */
     public static String encode(String input, int sb, int esb, BigInteger adderESB1) {
 
-        LOG.info("Začátek kodování - ["+ArithmeticalFunctions.bin2Hex(input)+"]");
-
-        Telegram telegram = new Telegram(input);
+        return new EncoderSession(input, sb, esb, adderESB1).encode();
+    }
 
-        LOG.info("Délka telegramu - ("+(telegram.isLongTelegram?"Dlouhý":"Krátký")+")");
+    /**
+     * Encodes the provided input string like {@link #encode(String, int, int, BigInteger)}
+     * and reports the search statistics along with the result.
+     *
+     * @param input      the input telegram as a binary string
+     * @param sb         initial SB value (12 bits)
+     * @param esb        initial ESB value (10 bits)
+     * @param adderESB1  additional value to be added to ESB during processing
+     * @return the report; its result is null if encoding fails
+     */
+    public static EncodeReport encodeWithReport(String input, int sb, int esb, BigInteger adderESB1) {
 
-        // Initialize global state variables
-        SB = BigInteger.valueOf(sb);
-        ESB = BigInteger.valueOf(esb);
-        adderESB = adderESB1;
+        return new EncoderSession(input, sb, esb, adderESB1).encodeWithReport();
+    }
 
-        LOG.info("SB="+SB.toString(16)+" - ESB="+ESB.toString(16)+" - krok="+adderESB.toString(16));
+    /**
+     * Encodes the input using default SB, ESB, and adder values and reports the search
+     * statistics along with the result.
+     *
+     * @param input the input telegram as a binary string
+     * @return the report; its result is null if encoding fails
+     */
+    public static EncodeReport encodeWithReport(String input) {
 
-        BigInteger s = BigInteger.ZERO;
-        BigInteger Utick = BigInteger.ZERO;
-        BigInteger scrambledData = BigInteger.ZERO;
-        BigInteger transformData = BigInteger.ZERO;
-        
-        int currentSB = -1;
-
-        // Iterate up to a maximum number of iterations (here 4194303) to find valid encoding.
-        for (int i = 0; i < 4194303; i++) {
-            int tmpSB = setNextSbEsb(telegram);
-            if (tmpSB != currentSB) {
-                
-                s = calculateS(telegram.getSB());
-                Utick = determineUTick(telegram.userdata, telegram.isLongTelegram ? 830 : 210);
-                scrambledData = scrambleUserData(s, CURRENT_INPUT, Utick, telegram.isLongTelegram ? 830 : 210);
-                transformData = transform10to11(scrambledData, telegram.isLongTelegram ? 830 : 210);
-                currentSB = tmpSB;
-            }
-            // Update the telegram's transformation data.
-            telegram.transformData = telegram.transformData.or(transformData);
+        return encodeWithReport(input, 0, 0, BigInteger.ONE);
+    }
 
-            BigInteger CB = computeCheckBits(telegram.transformData, telegram.isLongTelegram);
-            if (CB == null) {
-                continue;
-            }
-            telegram.transformData = telegram.transformData.or(CB);
+    /**
+     * Encodes the input using default SB, ESB, and adder values.
+     *
+     * @param input the input telegram as a binary string
+     * @return the encoded telegram as a hexadecimal string, or null if encoding fails
+     */
+    public static String encode(String input) {
 
-            // Check several conditions to validate the transformation.
-            if (!check_alphabet_condition(telegram)) {
-                LOG.debug("Neprošla abeceda");
-                continue;
-            }
-            if (!check_aperiodicity_condition(telegram)) {
-                LOG.debug("Neprošla aperiodicity");
-                continue;
-            }
-            if (!check_off_synch_parsing_condition(telegram)) {
-                LOG.debug("Neprošla synch parsing");
-                continue;
-            }
-            if (!checkUndersamplingCondition(telegram)) {
-                LOG.debug("Neprošla undersampling");
-                continue;
-            }
+        return encode(input, 0, 0, BigInteger.ONE);
+    }
 
-            // Prepare binary string transformation by padding appropriately.
-            String binaryTransform = telegram.transformData.toString(2);
-            int shiftAmount = telegram.isLongTelegram ? 1023 : 341;
-            int shiftAmount2 = telegram.isLongTelegram ? 1024 : 344;
-            binaryTransform = padStart(binaryTransform, shiftAmount, '0');
-            binaryTransform = padEnd(binaryTransform, shiftAmount2, '0');
-
-            // Convert the binary string to hexadecimal.
-            String result = ArithmeticalFunctions.bin2Hex(binaryTransform);
-            
-            LOG.info("Výsledek - ["+ result+"]");
-            
-            return result;
-        }
+    /**
+     * Encodes the input using default SB, ESB, and adder values into the bytes of a .tlg
+     * file, without the detour through binary and hexadecimal strings.
+     *
+     * @param input the input telegram as a binary string
+     * @return the 128-byte (long) or 43-byte (short) telegram, or null if encoding fails
+     * @see TelegramFileWriter
+     */
+    public static byte[] encodeToBytes(String input) {
 
-        return null;
+        return new EncoderSession(input).encodeToBytes();
     }
 
     /**
-     * Encodes the input using default SB, ESB, and adder values.
+     * Encodes the input using default SB, ESB, and adder values and the given search mode.
      *
      * @param input the input telegram as a binary string
+     * @param mode  serial or parallel candidate search
      * @return the encoded telegram as a hexadecimal string, or null if encoding fails
      */
-    public static String encode(String input) {
-        
-        return encode(input, 0, 0, BigInteger.ONE);
+    public static String encode(String input, EncoderSession.SearchMode mode) {
+
+        return new EncoderSession(input).setSearchMode(mode).encode();
+    }
+
+    /**
+     * Finds up to {@code maxSolutions} different valid encodings of the input in a single
+     * pass over the candidates, starting from SB=0, ESB=0.
+     *
+     * @param input        the input telegram as a binary string
+     * @param maxSolutions the number of encodings wanted, at least 1
+     * @param consumer     receives each encoding in hexadecimal form as soon as it is found
+     * @return the number of encodings passed to the consumer
+     * @see EncoderSession#encodeAllWithReport(int, EncoderSession.SolutionListener)
+     */
+    public static int encodeAll(String input, int maxSolutions, Consumer<String> consumer) {
+
+        return new EncoderSession(input).encodeAll(maxSolutions, (hex, sb, esb) -> consumer.accept(hex));
     }
 
     /**
@@ -133,35 +135,38 @@ public class TelegramEncoder {
      * @return the encoded telegram as a hexadecimal string, or null if encoding fails
      */
     public static String encode(String input, BigInteger adder) {
-        
-        adderESB = adder;
-        return encode(input, 0, 0, adderESB);
+
+        return encode(input, 0, 0, adder);
     }
 
     /**
      * Checks the "off-synch parsing" condition on the telegram.
+     * <p>
+     * The telegram is read as a cycle, so windows past bit {@code n - 1} continue at bit 0.
+     * </p>
      *
      * @param telegram the telegram to check
      * @return true if the condition is satisfied; false otherwise
      */
     public static boolean check_off_synch_parsing_condition(Telegram telegram) {
-        
-        BigInteger tested = telegram.transformData.shiftLeft(telegram.getSize()).or(telegram.transformData);
+
+        long[] data = telegram.transformData.words();
+        if (telegram.kernels != null) {
+            return telegram.kernels.offSynch(data);
+        }
         int telegramSize = telegram.getSize();
-        int[] maxCvw = telegram.isLongTelegram
-                ? new int[]{0, 2, 10, 10, 10, 10, 10, 10, 10, 10, 2}
-                : new int[]{0, 2, 6, 6, 6, 6, 6, 6, 6, 6, 2};
+        int[] maxCvw = telegram.isLongTelegram ? MAX_CVW_LONG : MAX_CVW_SHORT;
 
         for (int offset = 1; offset < 11; offset++) {
             int err = 0;
             for (int i = offset; i < telegramSize + ((offset + 1) * 11); i += 11) {
-                if (EncryptionHelperList.WORDS_11_REVERSE[getIntFromBigIntAtIndex(tested, i, 11).intValue()] != -1) {
+                if (ValidWordScanner.isValid(ValidWordScanner.windowWrap(data, telegramSize, i))) {
                     err += 1;
                 } else {
                     err = 0;
                 }
                 if (err > maxCvw[offset]) {
-                    
+
                     return false;
                 }
             }
@@ -176,88 +181,78 @@ public class TelegramEncoder {
      * @return true if all 11-bit words are valid; false otherwise
      */
     public static boolean check_alphabet_condition(Telegram telegram) {
-        
-        int sizeInWords = telegram.getSize() / 11;
-        for (int i = 0; i < sizeInWords; i++) {
-            int bit11 = getIntFromBigIntAtIndex(telegram.transformData, i * 11, 11).intValue();
-            if (EncryptionHelperList.WORDS_11_REVERSE[bit11] == -1) {
-                
-                return false;
-            }
+
+        if (telegram.kernels != null) {
+            return telegram.kernels.allValid(telegram.transformData.words());
         }
-        return true;
+        int sizeInWords = telegram.getSize() / 11;
+        return ValidWordScanner.allValid(telegram.transformData.words(), 0, sizeInWords);
     }
 
     /**
-     * Undersamples the telegram's user data.
+     * Undersamples the telegram into {@code target}: bit {@code i} of the result is bit
+     * {@code (i * k + offset) mod n} of the telegram.
      *
      * @param telegram the telegram to undersample
      * @param k        the sampling factor
      * @param offset   the sampling offset
-     * @return the undersampled BigInteger value
+     * @param target   the vector receiving the undersampled telegram
      */
-    public static BigInteger undersampleTelegram(Telegram telegram, int k, int offset) {
-        
-        BigInteger result = BigInteger.ZERO;
-        for (int i = 0; i < telegram.getSize(); i++) {
-            int bitVal = telegram.transformData.testBit((i * k + offset) % telegram.getSize()) ? 1 : 0;
-            result = setBit(result, i, bitVal);
+    public static void undersampleTelegram(Telegram telegram, int k, int offset, TelegramBits target) {
+
+        TelegramBits data = telegram.transformData;
+        int size = telegram.getSize();
+        target.clear();
+        int source = offset % size;
+        for (int i = 0; i < size; i++) {
+            if (data.testBit(source)) {
+                target.setBit(i);
+            }
+            source += k;
+            if (source >= size) {
+                source -= size;
+            }
         }
-        return result;
     }
 
     /**
-     * Determines the maximum run of valid 11-bit words within a BigInteger.
+     * Determines the maximum run of valid 11-bit words within a bit vector.
+     * <p>
+     * For every bit offset 0..10 the words are read consecutively from the offset up to
+     * 30 words past the end of the telegram; bits past the end read as zero.
+     * </p>
      *
-     * @param bigInteger the BigInteger containing data words
-     * @param telegram   the telegram (for size reference)
+     * @param bits     the bit vector containing data words
+     * @param telegram the telegram (for size reference)
      * @return the maximum consecutive count of valid words
      */
-    public static int getMaxRunValidWords(BigInteger bigInteger, Telegram telegram) {
-        int telegramSize = telegram.getSize();
+    public static int getMaxRunValidWords(TelegramBits bits, Telegram telegram) {
+        if (telegram.kernels != null) {
+            return telegram.kernels.maxRun(bits.words());
+        }
+        int words = (telegram.getSize() + 30 * 11 + 10) / 11;
         int maxRun = 0;
-        int[][] cache = new int[11][];
         for (int offset = 0; offset < 11; offset++) {
-            cache[offset] = new int[telegramSize + 30 * 11];
-            for (int i = 0, index = 0; i < telegramSize + 30 * 11; i += 11, index++) {
-                cache[offset][index] = getIntFromBigIntAtIndex(bigInteger, i + offset, 11).intValue();
-            }
-        }
-        for (int offset = 0; offset < 11; offset++) {
-            int consecutive = 0;
-            for (int value : cache[offset]) {
-                if (EncryptionHelperList.WORDS_11_REVERSE[value] != -1) {
-                    consecutive++;
-                } else {
-                    maxRun = Math.max(maxRun, consecutive);
-                    consecutive = 0;
-                }
-            }
-            maxRun = Math.max(maxRun, consecutive);
+            maxRun = Math.max(maxRun, ValidWordScanner.maxRun(bits.words(), offset, words));
         }
         return maxRun;
     }
 
     /**
      * Checks the undersampling condition for the telegram.
+     * <p>
+     * Equivalent to running {@link #undersampleTelegram} and {@link #getMaxRunValidWords}
+     * for every k in {2, 4, 8, 16} and offset below 11k, but uses the precomputed
+     * {@link UndersamplingTables} and stops at the first run longer than 30 words.
+     * </p>
      *
      * @param telegram the telegram to check
      * @return true if undersampling condition is met; false otherwise
      */
     public static boolean checkUndersamplingCondition(Telegram telegram) {
-        
-        BigInteger v;
-        for (int k = 2; k <= 16; k *= 2) {
-            for (int offset = 0; offset < 11 * k; offset++) {
-                v = undersampleTelegram(telegram, k, offset);
-                int maxRunValidWords = getMaxRunValidWords(v, telegram);
-                if (maxRunValidWords > 30) {
-                    
-                    return false;
-                }
-            }
-        }
-        return true;
+
+        return UndersamplingTables.forFormat(telegram.isLongTelegram)
+                .check(telegram.transformData, telegram.sampled, telegram.validChains);
     }
 
     /**
@@ -266,25 +261,15 @@ public class TelegramEncoder {
      * @param B the B value (SB, 12 bits)
      * @return the computed S
      */
-    private static BigInteger calculateS(BigInteger B) {
+    static BigInteger calculateS(BigInteger B) {
         
         return MULTIPLIER.multiply(B).mod(MODULO);
     }
 
     /**
-     * Sets a bit in a BigInteger at a specific index to the specified value.
-     *
-     * @param number the original BigInteger
-     * @param index  the bit index
-     * @param value  the bit value (0 or 1)
-     * @return the updated BigInteger
-     */
-    private static BigInteger setBit(BigInteger number, int index, int value) {
-        return (value == 1) ? number.setBit(index) : number.clearBit(index);
-    }
-
-    /**
-     * Scrambles the user data using S and a polynomial from currentInput.
+     * Scrambles the user data using S and a polynomial from currentInput. The standard
+     * polynomial {@link EncryptionHelperList#CURRENT_INPUT} is handled byte-wise by
+     * {@link Scrambler}; any other polynomial one bit at a time.
      *
      * @param S             the computed S value
      * @param currentInput  a polynomial value (CURRENT_INPUT)
@@ -293,7 +278,12 @@ public class TelegramEncoder {
      * @return the scrambled user data
      */
     public static BigInteger scrambleUserData(BigInteger S, BigInteger currentInput, BigInteger userDataOrig, int m) {
-        
+
+        if (CURRENT_INPUT.equals(currentInput)) {
+            TelegramBits bits = TelegramBits.fromBigInteger(userDataOrig, m);
+            Scrambler.scramble(S.intValue(), bits.words(), bits.words(), m);
+            return bits.toBigInteger();
+        }
         BigInteger scrambled = BigInteger.ZERO;
         for (int i = m - 1; i >= 0; i--) {
             boolean userBit = userDataOrig.testBit(i);
@@ -376,43 +366,26 @@ public class TelegramEncoder {
     }
 
     /**
-     * Sets the next SB and ESB values for the telegram until valid 11-bit words are produced.
+     * Transforms the 10-bit words of scrambled user data to 11-bit words and writes them
+     * to the shaped-data area of the telegram, like {@link #transform10to11(BigInteger, int)}.
      *
-     * @param telegram the telegram to update
-     * @return the new SB value as an int
+     * @param userdata the user data, bit {@code i} in {@code userdata[i >>> 6]}
+     * @param m        the length parameter (830 for long, 210 for short)
+     * @param out      the telegram bits; only the shaped-data words are written
      */
-    public static int setNextSbEsb(Telegram telegram) {
-        
-        BigInteger temp = BigInteger.ZERO;
-        BigInteger first11MSB = getIntFromBigIntAtIndex(temp, 14, 11);
-        BigInteger second11MSB = getIntFromBigIntAtIndex(temp, 3, 11);
-        int first11MSBVal, second11MSBVal;
-        while (true) {
-            first11MSBVal = WORDS_11_REVERSE[first11MSB.intValue()];
-            second11MSBVal = WORDS_11_REVERSE[second11MSB.intValue()];
-            if (first11MSBVal != -1 && second11MSBVal != -1) {
-                break;
-            }
-            if (SB.intValue() < 4096) {
-                if (ESB.intValue() < 1024) {
-                    ESB = ESB.add(BigInteger.ONE);
-                } else {
-                    SB = SB.add(BigInteger.ONE);
-                    ESB = BigInteger.ZERO;
-                }
-            }
-            temp = STATIC_VALUE.or(SB).shiftLeft(10).or(ESB);
-            LOG.trace("Test - SB=" +SB.toString(16)+" - ESB=" +ESB.toString(16));
-            first11MSB = getIntFromBigIntAtIndex(temp, 14, 11);
-            second11MSB = getIntFromBigIntAtIndex(temp, 3, 11);
-            telegram.transformData = BigInteger.ZERO;
-            try {
-                telegram.transformData = writeToLocation(telegram.transformData, 85, temp.intValueExact(), 25);
-            } catch (ArithmeticException e) {
-                
+    static void transform10to11(long[] userdata, int m, TelegramBits out) {
+
+        int iterations = m / 10;
+        for (int i = 0; i < iterations; i++) {
+            int position = i * 10;
+            int w = position >>> 6;
+            int b = position & 63;
+            long word = userdata[w] >>> b;
+            if (b > 54) {
+                word |= userdata[w + 1] << (64 - b);
             }
+            out.write(i * 11 + OFFSET_SHAPED_DATA, WORDS_11[(int) word & 0x3FF], 11);
         }
-        return SB.intValue();
     }
 
     /**
@@ -420,32 +393,29 @@ public class TelegramEncoder {
      *
      * @param telegram   the telegram's transformation data as a BigInteger
      * @param isLongFormat true if the telegram is long, false if short
-     * @return the computed check bits as a BigInteger, or null if there is a mismatch
+     * @return the computed check bits as a BigInteger
      */
     public static BigInteger computeCheckBits(BigInteger telegram, Boolean isLongFormat) {
-        
-        BigInteger f, g, fg;
-        if (isLongFormat) {
-            f = FLONG;
-            g = GLONG;
-            fg = FGLONG;
-        } else {
-            f = FSHORT;
-            g = GSHORT;
-            fg = FGSHORT;
-        }
-        BigInteger[] results = gf2Division2(telegram, fg);
-        BigInteger remainder = results[1];
-        if (remainder == null) {
-            return null;
-        }
-        BigInteger checkbits = g.xor(remainder);
-        if (!g.xor(checkbits).equals(remainder)) {
-            LOG.debug("Nevyšly check bits");
-            LOG.trace("Check bits - " + checkbits.toString(16));
-            return null;
-        }
-        return checkbits;
+
+        GF2Polynomial fg = isLongFormat ? GF2Polynomial.FG_LONG : GF2Polynomial.FG_SHORT;
+        BigInteger g = isLongFormat ? GLONG : GSHORT;
+        return g.xor(fg.remainder(telegram));
+    }
+
+    /**
+     * Computes the check bits of the telegram in place: the remainder of the data
+     * (bits 85 and up) modulo f(x)g(x) is XORed with g(x) and written to bits 0..84.
+     *
+     * @param telegram     the telegram's transformation data; bits 0..84 must be zero
+     * @param isLongFormat true if the telegram is long, false if short
+     * @param remainder    scratch array of two longs, reused between calls
+     */
+    public static void computeCheckBits(TelegramBits telegram, boolean isLongFormat, long[] remainder) {
+
+        GF2Polynomial fg = isLongFormat ? GF2Polynomial.FG_LONG : GF2Polynomial.FG_SHORT;
+        fg.remainder(telegram, remainder);
+        telegram.or(0, remainder[0] ^ (isLongFormat ? G_LONG_LOW : G_SHORT_LOW), 64);
+        telegram.or(64, remainder[1] ^ (isLongFormat ? G_LONG_HIGH : G_SHORT_HIGH), CHECK_BITS_SIZE - 64);
     }
 
     /**
@@ -508,74 +478,31 @@ public class TelegramEncoder {
         return result;
     }
 
-    /**
-     * Performs GF(2) division of p by q.
-     *
-     * @param p the dividend
-     * @param q the divisor
-     * @return an array with quotient (null) and remainder as BigInteger
-     */
-    public static BigInteger[] gf2Division2(BigInteger p, BigInteger q) {
-        
-        byte[] remainderBytes = p.toByteArray();
-        byte[] qBytes = q.toByteArray();
-        int remainderOrder = (remainderBytes.length - 1) * 8 + bitLength(remainderBytes[0]) - 1;
-        int qOrder = (qBytes.length - 1) * 8 + bitLength(qBytes[0]) - 1;
-        while (remainderOrder >= qOrder) {
-            int shift = remainderOrder - qOrder;
-            int byteShift = shift / 8;
-            int bitShift = shift % 8;
-            for (int i = 0; i < qBytes.length; i++) {
-                int index = remainderBytes.length - qBytes.length + i - byteShift;
-                if (index >= 0) {
-                    remainderBytes[index] ^= (qBytes[i] & 0xFF) << bitShift;
-                    if (bitShift > 0 && index > 0) {
-                        remainderBytes[index - 1] ^= (qBytes[i] & 0xFF) >>> (8 - bitShift);
-                    }
-                }
-            }
-            while (remainderOrder >= 0 && (remainderBytes[remainderBytes.length - 1 - remainderOrder / 8]
-                    & (1 << (remainderOrder % 8))) == 0) {
-                remainderOrder--;
-            }
-        }
-        BigInteger remainder = new BigInteger(1, remainderBytes);
-        return new BigInteger[]{null, remainder};
-    }
-
-    /**
-     * Computes the bit length of a byte value.
-     *
-     * @param value the byte value
-     * @return the bit length
-     */
-    private static int bitLength(byte value) {
-        int length = 0;
-        while (value != 0) {
-            value >>>= 1;
-            length++;
-        }
-        return length;
-    }
-
     /**
      * Checks the aperiodicity condition for the telegram.
+     * <p>
+     * Windows are taken with {@link #getIntFromBigIntAtIndexWrap} semantics, i.e. the
+     * wrap length is the bit length of the telegram data, so accepted candidates stay
+     * identical to the BigInteger implementation.
+     * </p>
      *
      * @param telegram the telegram to check
      * @return true if the condition is satisfied, false otherwise
      */
     public static boolean check_aperiodicity_condition(Telegram telegram) {
-        
+
         if (!telegram.isLongTelegram) {
             return true;
         }
+        TelegramBits data = telegram.transformData;
+        int bitLength = data.bitLength();
         for (int i = 0; i < telegram.getSize(); i += 11) {
-            BigInteger wordHigh = getIntFromBigIntAtIndexWrap(telegram.transformData, i, 22);
+            int wordHigh = getWrappedWord(data, bitLength, i, 22);
+            int wordLow = getWrappedWord(data, bitLength, i - 341 - 5, 22);
+            int hammingDistance = Integer.bitCount(wordHigh ^ wordLow);
             for (int k = -3; k <= 3; k++) {
-                BigInteger wordLow = getIntFromBigIntAtIndexWrap(telegram.transformData, i - 341 - 5, 22);
-                int hammingDistance = calc_hamming_distance(wordHigh, wordLow, 22);
                 if ((k == 0 && hammingDistance < 3) || (k != 0 && hammingDistance < 2)) {
-                    
+
                     return false;
                 }
             }
@@ -583,6 +510,20 @@ public class TelegramEncoder {
         return true;
     }
 
+    /**
+     * Bit-vector counterpart of {@link #getIntFromBigIntAtIndexWrap}: the index wraps at
+     * {@code bitLength}, and a window crossing it keeps only the wrapped low bits.
+     */
+    private static int getWrappedWord(TelegramBits data, int bitLength, int bitIndex, int length) {
+        if (bitLength == 0) return 0;
+        bitIndex = Math.floorMod(bitIndex, bitLength);
+        if (bitIndex + length > bitLength) {
+            int overflowLength = (bitIndex + length) - bitLength;
+            return data.extract(0, overflowLength) << (length - overflowLength);
+        }
+        return data.extract(bitIndex, length);
+    }
+
     /**
      * Calculates the Hamming distance between two BigIntegers up to n bits.
      *
@@ -643,40 +584,62 @@ public class TelegramEncoder {
      */
     static class Telegram {
         BigInteger userdata;
-        BigInteger transformData;
+        TelegramBits transformData;
+        // Scratch buffers for the undersampling condition
+        TelegramBits sampled;
+        long[] validChains;
+        // Vector API checks, null when only the scalar code is available
+        WordKernels kernels;
         boolean isLongTelegram;
         int size = -1;
 
         public Telegram(String userdataStr) {
 
             this.userdata = new BigInteger(userdataStr, 2);
-            this.transformData = BigInteger.ZERO;
             this.isLongTelegram = (this.userdata.bitLength() > 500);
 
 
             // Shift right by 2 bits as per your original logic
             this.userdata = this.userdata.shiftRight(2);
             this.size = isLongTelegram ? 1023 : 341;
+            this.transformData = new TelegramBits(size);
+            this.sampled = new TelegramBits(size + UndersamplingTables.GATHER_OVERHANG);
+            this.validChains = new long[22];
+            this.kernels = WordKernels.create(isLongTelegram);
+        }
+
+        /**
+         * Creates an independent working copy sharing the (immutable) user data.
+         */
+        Telegram(Telegram other) {
+            this.userdata = other.userdata;
+            this.isLongTelegram = other.isLongTelegram;
+            this.size = other.size;
+            this.transformData = new TelegramBits(size);
+            this.transformData.copyFrom(other.transformData);
+            this.sampled = new TelegramBits(size + UndersamplingTables.GATHER_OVERHANG);
+            this.validChains = new long[22];
+            this.kernels = WordKernels.create(isLongTelegram);
         }
 
         public int getSize() {
             return size;
         }
 
-        BigInteger getSB() {
-            return TelegramEncoder.getIntFromBigIntAtIndex(transformData, 95, 12);
+        int getSB() {
+            return transformData.extract(95, 12);
         }
 
         void setSB(int sb) {
-            transformData = TelegramEncoder.writeToLocation(transformData, 95, sb, 12);
+            transformData.write(95, sb, 12);
         }
 
-        BigInteger getESB() {
-            return TelegramEncoder.getIntFromBigIntAtIndex(transformData, 85, 10);
+        int getESB() {
+            return transformData.extract(85, 10);
         }
 
         void setESB(int esb) {
-            transformData = TelegramEncoder.writeToLocation(transformData, 85, esb, 10);
+            transformData.write(85, esb, 10);
         }
     }
 
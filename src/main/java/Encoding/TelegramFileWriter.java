@@ -0,0 +1,62 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * TelegramFileWriter stores encoded telegrams as .tlg files.
+ * <p>
+ * A .tlg file holds the bytes of {@link EncoderSession#encodeToBytes()}: 128 bytes for
+ * a long and 43 bytes for a short telegram. The bytes are written with one channel
+ * write into a temporary file next to the target, flushed to disk and then moved over
+ * the target in one atomic step, so a reader never sees a partly written telegram and
+ * an interrupted save leaves the previous file untouched.
+ * </p>
+ */
+public final class TelegramFileWriter {
+
+    private static final Logger LOG = LogManager.getLogger(TelegramFileWriter.class);
+
+    private TelegramFileWriter() {
+    }
+
+    /**
+     * Writes a telegram to a file, replacing the file if it exists.
+     *
+     * @param target the .tlg file
+     * @param bytes  the encoded telegram
+     * @throws IOException if the file cannot be written; the target is then unchanged
+     */
+    public static void write(Path target, byte[] bytes) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        Path directory = absolute.getParent();
+        Path temp = Files.createTempFile(directory, absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                LOG.warn("Atomický přesun není podporován - " + directory);
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        LOG.debug("Zapsán telegram - [" + absolute + "] - " + bytes.length + " bajtů");
+    }
+}
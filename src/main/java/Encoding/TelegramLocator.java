@@ -0,0 +1,130 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * TelegramLocator finds telegrams in recorded air-gap captures that do not start on a
+ * telegram boundary.
+ * <p>
+ * A capture is a cyclic bit stream of any length, most significant bit of the first
+ * byte first, as a reader records a balise sending its telegram over and over. Every
+ * bit position starts a window of n bits (wrapping around at the end of the capture);
+ * the locator returns the windows whose g(x) syndrome is zero. The syndrome is rolled
+ * from one window to the next in O(1): the window polynomial is multiplied by x, the
+ * incoming bit is added and the outgoing bit is removed through the precomputed
+ * {@code x^n mod g(x)} (see {@link RollingSyndrome}), so a capture of L bits costs L
+ * register updates instead of L full divisions.
+ * </p>
+ * <p>
+ * The Subset-036 codes are cyclic ({@code g(x)} divides {@code x^n + 1}), so every
+ * rotation of a telegram is again a codeword and the decoder recovers the rotation from
+ * the f(x) syndrome. A capture of exactly n bits of one telegram therefore hits at
+ * every offset; in longer captures the hits mark the stretches free of bit slips,
+ * noise and foreign data.
+ * </p>
+ */
+public final class TelegramLocator {
+
+    private static final Logger LOG = LogManager.getLogger(TelegramLocator.class);
+
+    private TelegramLocator() {
+    }
+
+    /**
+     * Finds all windows of a cyclic capture whose g(x) syndrome is zero.
+     *
+     * @param capture        the captured bits, most significant bit of byte 0 first
+     * @param bits           the number of captured bits, at least the telegram length
+     * @param isLongTelegram true to look for long (n=1023), false for short (n=341) telegrams
+     * @return the bit offsets of the windows in ascending order
+     */
+    public static int[] locate(byte[] capture, int bits, boolean isLongTelegram) {
+        RollingSyndrome syndrome = new RollingSyndrome(isLongTelegram);
+        int n = syndrome.length();
+        checkLength(capture, bits, n);
+
+        for (int i = 0; i < n; i++) {
+            syndrome.fill(bit(capture, i % bits));
+        }
+        int[] offsets = new int[16];
+        int count = 0;
+        for (int offset = 0; offset < bits; offset++) {
+            if (syndrome.isZero()) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = offset;
+            }
+            // Slide by one bit: drop the bit at offset, take in the bit at offset + n
+            syndrome.slide(bit(capture, (offset + n) % bits), bit(capture, offset));
+        }
+        LOG.debug("Nalezeno oken s nulovým syndromem g(x) - " + count + " z " + bits);
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Cuts the window starting at a bit offset out of a cyclic capture.
+     *
+     * @param capture the captured bits, most significant bit of byte 0 first
+     * @param bits    the number of captured bits
+     * @param offset  the first bit of the window
+     * @param n       the window length, 1023 or 341
+     * @return the window as a telegram vector, first bit most significant
+     */
+    public static TelegramBits window(byte[] capture, int bits, int offset, int n) {
+        checkLength(capture, bits, n);
+        TelegramBits window = new TelegramBits(n);
+        for (int i = 0; i < n; i++) {
+            if (bit(capture, (offset + i) % bits) != 0) {
+                window.setBit(n - 1 - i);
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Locates and decodes the first telegram of a capture. Long telegrams are tried
+     * first if the capture is long enough for one, then short ones.
+     *
+     * @param capture the captured bits, most significant bit of byte 0 first
+     * @param bits    the number of captured bits
+     * @return the first located window that decodes, or a failure with stage
+     *         {@link DecodeResult.Stage#FORMAT} if the capture is too short or
+     *         {@link DecodeResult.Stage#G_SYNDROME} if no window passes g(x)
+     */
+    public static DecodeResult decodeCapture(byte[] capture, int bits) {
+        if (bits < SIZE_SHORT) {
+            checkLength(capture, bits, 0);
+            return new DecodeResult(DecodeResult.Stage.FORMAT, false, -1, -1, -1, false, null);
+        }
+        DecodeResult last = null;
+        for (boolean isLong : bits >= SIZE_LONG ? new boolean[]{true, false} : new boolean[]{false}) {
+            int n = isLong ? SIZE_LONG : SIZE_SHORT;
+            for (int offset : locate(capture, bits, isLong)) {
+                DecodeResult result = TelegramDecoder.decode(window(capture, bits, offset, n));
+                if (result.isSuccess()) {
+                    LOG.info("Telegram nalezen v záznamu - offset " + offset + " - " + result);
+                    return result;
+                }
+                last = result;
+            }
+        }
+        return last != null ? last : new DecodeResult(DecodeResult.Stage.G_SYNDROME, bits >= SIZE_LONG, -1, -1, -1, false, null);
+    }
+
+    private static int bit(byte[] capture, int index) {
+        return (capture[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static void checkLength(byte[] capture, int bits, int n) {
+        if (bits < n || bits > capture.length * 8L) {
+            throw new IllegalArgumentException("Capture of " + bits + " bits in " + capture.length
+                    + " bytes cannot hold a telegram of " + n + " bits");
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package Encoding;
+
+import java.util.Arrays;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * UndersamplingTables evaluates the undersampling condition with precomputed gather tables.
+ * <p>
+ * The undersampled telegram for factor {@code k} and offset {@code o} is
+ * {@code v[i] = data[(i * k + o) mod n]}. Writing {@code o = a * k + r} with
+ * {@code 0 <= r < k} gives {@code v[i] = base_r[i + a]}, where
+ * {@code base_r[j] = data[(j * k + r) mod n]}. So for each (k, r) only one gather is
+ * needed; the eleven offsets {@code a = 0..10} are windows into the same buffer.
+ * </p>
+ * <p>
+ * The validity of every 11-bit window of the gathered buffer is packed into eleven
+ * bit chains (one per window position modulo 11), and the runs of each
+ * (offset, word alignment) pair are tested with a few shift-and operations. The check
+ * stops at the first run longer than {@value #MAX_RUN} words.
+ * </p>
+ * <p>
+ * The tables are immutable and shared; the scratch buffers belong to the
+ * {@link TelegramEncoder.Telegram} being checked.
+ * </p>
+ */
+final class UndersamplingTables {
+
+    /** Longest allowed run of valid words in an undersampled telegram. */
+    static final int MAX_RUN = 30;
+
+    static final int[] FACTORS = {2, 4, 8, 16};
+
+    // A window at offset a <= 10 may read up to 10 bits past the end of the base sequence
+    static final int GATHER_OVERHANG = 10;
+
+    // Shift-and steps detecting runs of 2, 4, 8, 16 and then MAX_RUN + 1 bits
+    private static final int[] RUN_STEPS = {1, 2, 4, 8, MAX_RUN - 15};
+
+    private static final UndersamplingTables LONG = new UndersamplingTables(SIZE_LONG);
+    private static final UndersamplingTables SHORT = new UndersamplingTables(SIZE_SHORT);
+
+    private final int size;
+    // gather[f][r][j] = (j * FACTORS[f] + r) mod n for j = 0..n+9
+    private final int[][][] gather;
+
+    private UndersamplingTables(int size) {
+        this.size = size;
+        this.gather = new int[FACTORS.length][][];
+        for (int f = 0; f < FACTORS.length; f++) {
+            int k = FACTORS[f];
+            gather[f] = new int[k][size + GATHER_OVERHANG];
+            for (int r = 0; r < k; r++) {
+                for (int j = 0; j < size + GATHER_OVERHANG; j++) {
+                    gather[f][r][j] = (int) (((long) j * k + r) % size);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param isLongTelegram true for n=1023, false for n=341
+     * @return the shared tables of the format
+     */
+    static UndersamplingTables forFormat(boolean isLongTelegram) {
+        return isLongTelegram ? LONG : SHORT;
+    }
+
+    /**
+     * Checks the undersampling condition for every factor and offset.
+     *
+     * @param data    the telegram data
+     * @param sampled scratch vector at least {@code n + }{@value #GATHER_OVERHANG} bits wide
+     * @param chains  scratch array of 22 longs
+     * @return true if no undersampled telegram has a run of more than {@value #MAX_RUN} valid words
+     */
+    boolean check(TelegramBits data, TelegramBits sampled, long[] chains) {
+        for (int[][] byResidue : gather) {
+            for (int[] table : byResidue) {
+                gather(data, table, sampled);
+                buildChains(sampled, chains);
+                if (hasLongRun(sampled, chains)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects {@code data[table[j]]} into bit {@code j} of {@code target}, a whole
+     * word at a time.
+     */
+    private static void gather(TelegramBits data, int[] table, TelegramBits target) {
+        long[] source = data.words();
+        long[] out = target.words();
+        int length = table.length;
+        int w = 0;
+        for (int j = 0; j < length; w++) {
+            int end = Math.min(j + 64, length);
+            long word = 0;
+            for (int b = 0; j < end; j++, b++) {
+                int s = table[j];
+                word |= ((source[s >>> 6] >>> s) & 1L) << b;
+            }
+            out[w] = word;
+        }
+        for (; w < out.length; w++) {
+            out[w] = 0;
+        }
+    }
+
+    /**
+     * Sets bit {@code q / 11} of chain {@code q mod 11} for every valid full window
+     * starting at {@code q < n}. The windows are built downwards with a rolling 11-bit
+     * register, one new bit per position.
+     */
+    private void buildChains(TelegramBits sampled, long[] chains) {
+        Arrays.fill(chains, 0L);
+        long[] words = sampled.words();
+        int window = sampled.extract(size, 11);
+        int chain = (size - 1) % 11;
+        int index = (size - 1) / 11;
+        for (int q = size - 1; q >= 0; q--) {
+            window = ((window << 1) | (int) ((words[q >>> 6] >>> q) & 1L)) & 0x7FF;
+            if (ValidWordScanner.isValid(window)) {
+                chains[(chain << 1) + (index >>> 6)] |= 1L << index;
+            }
+            if (--chain < 0) {
+                chain = 10;
+                index--;
+            }
+        }
+    }
+
+    /**
+     * Tests every offset {@code a} and word alignment {@code w}: the words start at
+     * {@code p = w + 11 t} of the undersampled telegram, i.e. at {@code p + a} of the
+     * gathered buffer. The last window may be cut by the end of the telegram, in which
+     * case the missing bits read as zero.
+     */
+    private boolean hasLongRun(TelegramBits sampled, long[] chains) {
+        for (int a = 0; a < 11; a++) {
+            for (int w = 0; w < 11; w++) {
+                int start = a + w;
+                int chain = start % 11;
+                int skip = start / 11;
+                int fullWords = (size - 11 - w) / 11 + 1;
+
+                long low = chains[chain << 1];
+                long high = chains[(chain << 1) + 1];
+                if (skip != 0) {
+                    low = (low >>> skip) | (high << (64 - skip));
+                    high >>>= skip;
+                }
+                if (fullWords < 64) {
+                    low &= (1L << fullWords) - 1;
+                    high = 0;
+                } else {
+                    high &= (1L << (fullWords - 64)) - 1;
+                }
+
+                int tail = w + 11 * fullWords;
+                if (tail < size
+                        && ValidWordScanner.isValid(sampled.extract(tail + a, size - tail))) {
+                    if (fullWords < 64) {
+                        low |= 1L << fullWords;
+                    } else {
+                        high |= 1L << (fullWords - 64);
+                    }
+                }
+
+                if (hasRunOverMax(low, high)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests a 128-bit mask for more than {@value #MAX_RUN} consecutive set bits; after
+     * the steps 1, 2, 4, 8 and 15 bit {@code i} survives only if bits
+     * {@code i..i+30} are all set.
+     */
+    private static boolean hasRunOverMax(long low, long high) {
+        for (int shift : RUN_STEPS) {
+            low &= (low >>> shift) | (high << (64 - shift));
+            high &= high >>> shift;
+        }
+        return (low | high) != 0;
+    }
+}
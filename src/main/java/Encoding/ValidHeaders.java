@@ -0,0 +1,63 @@
+package Encoding;
+
+import java.util.Arrays;
+
+/**
+ * ValidHeaders lists the candidate indices whose header words are valid.
+ * <p>
+ * The header of a candidate is {@code STATIC_VALUE | SB << 10 | ESB}, read as the two
+ * 11-bit words tested by {@link EncoderSession#isValidHeader(int)}. It does not depend on
+ * the telegram, so the roughly one million valid indices of the 2^22 search space are
+ * collected once, in ascending order, into a shared {@code int[]}. The search walks this
+ * array instead of testing every index, and the parallel search splits it into chunks
+ * of equal work.
+ * </p>
+ * <p>
+ * The array is built on first use and must not be modified.
+ * </p>
+ */
+final class ValidHeaders {
+
+    private ValidHeaders() {
+    }
+
+    // Initialised on first access of ValidHeaders.indices()
+    private static final class Holder {
+        static final int[] INDICES = build();
+    }
+
+    /**
+     * @return the valid candidate indices in ascending order; shared, do not modify
+     */
+    static int[] indices() {
+        return Holder.INDICES;
+    }
+
+    /**
+     * Finds the first valid index at or above {@code index}.
+     *
+     * @param index a candidate index, may be past the end of the search space
+     * @return its position in {@link #indices()}, or the array length if there is none
+     */
+    static int positionOf(int index) {
+        int position = Arrays.binarySearch(Holder.INDICES, index);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private static int[] build() {
+        int count = 0;
+        for (int index = 0; index < EncoderSession.SEARCH_SPACE; index++) {
+            if (EncoderSession.isValidHeader(index)) {
+                count++;
+            }
+        }
+        int[] indices = new int[count];
+        int position = 0;
+        for (int index = 0; index < EncoderSession.SEARCH_SPACE; index++) {
+            if (EncoderSession.isValidHeader(index)) {
+                indices[position++] = index;
+            }
+        }
+        return indices;
+    }
+}
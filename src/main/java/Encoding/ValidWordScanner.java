@@ -0,0 +1,124 @@
+package Encoding;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * ValidWordScanner - allocation-free validity checks of 11-bit words.
+ * <p>
+ * The 1024 valid words of the 10-to-11-bit transformation are kept in a 2048-bit
+ * bitmap (32 longs) built from {@link EncryptionHelperList#WORDS_11_REVERSE}. The
+ * scanner reads 11-bit windows at any bit offset directly from the packed longs of a
+ * {@link TelegramBits} (bit 0 being the least significant bit of the first long), so
+ * the alphabet, off-synch parsing and undersampling conditions of the encoder and the
+ * word check of the decoder share one primitive.
+ * </p>
+ * <p>
+ * Positions past the end of the array read as zero; the zero word is not valid.
+ * </p>
+ */
+final class ValidWordScanner {
+
+    /** Number of bits of a transformed word. */
+    static final int WORD_BITS = 11;
+
+    private static final int WORD_MASK = (1 << WORD_BITS) - 1;
+
+    private static final long[] VALID = new long[(1 << WORD_BITS) >>> 6];
+
+    static {
+        for (int word = 0; word < WORDS_11_REVERSE.length; word++) {
+            if (WORDS_11_REVERSE[word] != -1) {
+                VALID[word >>> 6] |= 1L << word;
+            }
+        }
+    }
+
+    private ValidWordScanner() {
+    }
+
+    /**
+     * @param word an 11-bit value
+     * @return true if the value is one of the 1024 valid words
+     */
+    static boolean isValid(int word) {
+        return (VALID[word >>> 6] & (1L << word)) != 0;
+    }
+
+    /**
+     * Reads the 11-bit window starting at {@code position}.
+     *
+     * @param words    the packed bits
+     * @param position the lowest bit of the window
+     * @return the window value
+     */
+    static int window(long[] words, int position) {
+        int w = position >>> 6;
+        int b = position & 63;
+        long value = w < words.length ? words[w] >>> b : 0L;
+        if (b > 64 - WORD_BITS && w + 1 < words.length) {
+            value |= words[w + 1] << (64 - b);
+        }
+        return (int) value & WORD_MASK;
+    }
+
+    /**
+     * Reads the 11-bit window starting at {@code position} of a cycle of {@code size}
+     * bits; a window crossing bit {@code size - 1} continues at bit 0.
+     *
+     * @param words    the packed bits, zero at positions {@code >= size}
+     * @param size     the cycle length (at least 11)
+     * @param position the lowest bit of the window, {@code 0 <= position < 2 * size}
+     * @return the window value
+     */
+    static int windowWrap(long[] words, int size, int position) {
+        if (position >= size) {
+            position -= size;
+        }
+        int head = size - position;
+        int value = window(words, position);
+        if (head < WORD_BITS) {
+            value = (value | (window(words, 0) << head)) & WORD_MASK;
+        }
+        return value;
+    }
+
+    /**
+     * Tests {@code count} consecutive words starting at {@code position}.
+     *
+     * @param words    the packed bits
+     * @param position the lowest bit of the first word
+     * @param count    the number of words
+     * @return true if every word is valid
+     */
+    static boolean allValid(long[] words, int position, int count) {
+        for (int i = 0; i < count; i++, position += WORD_BITS) {
+            if (!isValid(window(words, position))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the longest run of valid words among {@code count} consecutive words starting
+     * at {@code position}.
+     *
+     * @param words    the packed bits
+     * @param position the lowest bit of the first word
+     * @param count    the number of words
+     * @return the length of the longest run
+     */
+    static int maxRun(long[] words, int position, int count) {
+        int maxRun = 0;
+        int run = 0;
+        for (int i = 0; i < count; i++, position += WORD_BITS) {
+            if (isValid(window(words, position))) {
+                run++;
+            } else {
+                maxRun = Math.max(maxRun, run);
+                run = 0;
+            }
+        }
+        return Math.max(maxRun, run);
+    }
+}
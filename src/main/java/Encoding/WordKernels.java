@@ -0,0 +1,122 @@
+package Encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * WordKernels - replaceable implementation of the word validity checks of one telegram
+ * format: the alphabet condition, the off-synch parsing condition and the longest run
+ * of valid words.
+ * <p>
+ * The default build only has the scalar code in {@link TelegramEncoder} and
+ * {@link ValidWordScanner}. The {@code vector} Maven profile additionally compiles
+ * {@value #VECTOR_CLASS} from {@code src/vector/java}, which evaluates several 11-bit
+ * windows per instruction with the incubating Vector API.
+ * {@link #create(boolean)} picks it at runtime when the class is present and the JVM
+ * was started with {@code --add-modules jdk.incubator.vector}; otherwise it returns
+ * null and the callers keep using the scalar code. The system property
+ * {@value #DISABLE_PROPERTY}{@code =false} forces the scalar code.
+ * </p>
+ * <p>
+ * Implementations may keep scratch buffers and must not be shared between threads;
+ * every {@link TelegramEncoder.Telegram} creates its own instance.
+ * </p>
+ */
+interface WordKernels {
+
+    /** Fully qualified name of the Vector API implementation. */
+    String VECTOR_CLASS = "Encoding.VectorWordKernels";
+
+    /** System property that disables the vector kernels when set to {@code false}. */
+    String DISABLE_PROPERTY = "encoding.vector";
+
+    /**
+     * @param words the telegram, {@code n} bits
+     * @return true if all {@code n / 11} words starting at bit 0 are valid
+     */
+    boolean allValid(long[] words);
+
+    /**
+     * @param words the telegram, {@code n} bits, zero above
+     * @return true if the off-synch parsing condition holds for the cyclic telegram
+     */
+    boolean offSynch(long[] words);
+
+    /**
+     * Longest run of valid words over the bit offsets 0..10, reading 30 words past the
+     * end of the telegram as {@link TelegramEncoder#getMaxRunValidWords} does.
+     *
+     * @param words the bits, zero at positions {@code >= n}
+     * @return the length of the longest run
+     */
+    int maxRun(long[] words);
+
+    /**
+     * Creates the vector kernels for a format, if they are available.
+     *
+     * @param isLongFormat true for 1023-bit telegrams
+     * @return a new instance, or null when the scalar code has to be used
+     */
+    static WordKernels create(boolean isLongFormat) {
+        Constructor<? extends WordKernels> constructor = Loader.CONSTRUCTOR;
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return constructor.newInstance(isLongFormat);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if {@link #create(boolean)} returns vector kernels
+     */
+    static boolean isVectorAvailable() {
+        return Loader.CONSTRUCTOR != null;
+    }
+
+    /**
+     * Resolves the vector implementation once per JVM.
+     */
+    final class Loader {
+
+        private static final Logger LOG = LogManager.getLogger(WordKernels.class);
+
+        static final Constructor<? extends WordKernels> CONSTRUCTOR = load(VECTOR_CLASS);
+
+        private Loader() {
+        }
+
+        /**
+         * Loads and instantiates a kernel class by name, trying both formats once so
+         * that a missing module fails here and not in the middle of a search.
+         *
+         * @param className the implementation class
+         * @return its {@code (boolean)} constructor, or null if it cannot be used
+         */
+        static Constructor<? extends WordKernels> load(String className) {
+            if ("false".equalsIgnoreCase(System.getProperty(DISABLE_PROPERTY))) {
+                LOG.info("Vektorové kontroly slov jsou vypnuté vlastností " + DISABLE_PROPERTY);
+                return null;
+            }
+            try {
+                Constructor<? extends WordKernels> constructor = Class.forName(className)
+                        .asSubclass(WordKernels.class)
+                        .getDeclaredConstructor(boolean.class);
+                constructor.newInstance(true);
+                constructor.newInstance(false);
+                LOG.info("Kontroly slov používají " + className);
+                return constructor;
+            } catch (ClassNotFoundException e) {
+                LOG.debug("Vektorové kontroly slov nejsou přeložené, použije se skalární kód");
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // Typically NoClassDefFoundError without --add-modules jdk.incubator.vector
+                LOG.info("Vektorové kontroly slov nelze použít (" + e + "), použije se skalární kód");
+            }
+            return null;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package UI.Builders;
 
+import Encoding.CancellationToken;
+import Encoding.EncodeCache;
+import Encoding.EncodeReport;
+import Encoding.EncoderSession;
 import Encoding.TelegramDecoder;
-import Encoding.TelegramEncoder;
+import Encoding.TelegramFileWriter;
 import UI.DnDTabbedPane.DnDTabbedPane;
 import UI.DockingPanes.SimplePanel;
 import UI.FileManager.FileManager;
@@ -26,6 +30,7 @@ import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static tools.string.StringHelper.createHtmlDiffTable;
 
@@ -1007,14 +1012,35 @@ public class DockPanelBuilder {
         encodingProgressBar.setStringPainted(true);
         addPacketContainer.add(encodingProgressBar, "growx, wrap");
 
+        JButton cancelEncodeBtn = createModernButton("✖ Zrušit kódování", "danger");
+        cancelEncodeBtn.setEnabled(false);
+        addPacketContainer.add(cancelEncodeBtn, "growx, wrap");
+
         final Logger LOG = LogManager.getLogger(encodeBtn.getClass());
 
+        // Tokens of the encodings started from this tab
+        Set<CancellationToken> runningEncodings = ConcurrentHashMap.newKeySet();
+
+        cancelEncodeBtn.addActionListener(e -> {
+            LOG.info("Kódování zrušeno uživatelem");
+            runningEncodings.forEach(CancellationToken::cancel);
+        });
+
+        // Encodings must not outlive the closed tab
+        addPacketContainer.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0
+                    && !addPacketContainer.isDisplayable()) {
+                runningEncodings.forEach(CancellationToken::cancel);
+            }
+        });
+
         encodeBtn.addActionListener(e -> {
-            encodingProgressBar.setIndeterminate(true);
-            encodingProgressBar.setString("🔄 Kódování telegramu...");
-            encodingProgressBar.setStringPainted(true);
+            CancellationToken token = startEncoding(runningEncodings, cancelEncodeBtn, encodingProgressBar);
+
+            SwingWorker<Void, long[]> encoderWorker = new SwingWorker<>() {
+                // Outcome of the last search; null if no search was run
+                private EncodeReport.Outcome outcome;
 
-            SwingWorker<Void, Void> encoderWorker = new SwingWorker<>() {
                 @Override
                 protected Void doInBackground() {
                     String s = "";
@@ -1040,7 +1066,17 @@ public class DockPanelBuilder {
                     sb.append('0');
                     s = sb.toString();
 
-                    String tlg = TelegramEncoder.encode((s));
+                    EncodeReport report = new EncoderSession(s)
+                            .setCancellationToken(token)
+                            .setCache(EncodeCache.getDefault())
+                            .setProgressListener((tried, total) -> publish(new long[]{tried, total}))
+                            .encodeWithReport();
+                    outcome = report.getOutcome();
+                    if (!report.isSuccess()) {
+                        LOG.warn("Telegram nezakódován - " + report.getOutcome());
+                        return null;
+                    }
+                    String tlg = report.getResult();
                     String as = TelegramDecoder.decodeTelegram(tlg);
                     PH ph = new PH(new String[]{s});
 
@@ -1076,23 +1112,8 @@ public class DockPanelBuilder {
 
                         try {
                             final File outputFile = file.getAbsoluteFile();
-                            String lastTelegram = tlg;
                             LOG.info("Ukládám: " + outputFile.getAbsolutePath());
-                            ArrayList<Byte> tmp = new ArrayList<Byte>();
-
-                            for (int i = 0; i < lastTelegram.length() - 1; i += 2) {
-                                final char c = (char) ArithmeticalFunctions.bin2Dec(ArithmeticalFunctions.hex2Bin(lastTelegram.charAt(i) + "" + lastTelegram.charAt(i + 1)));
-                                tmp.add((byte) c);
-                            }
-
-                            try (final FileOutputStream outputStream = new FileOutputStream(outputFile)) {
-                                byte[] byteArray = new byte[tmp.size()];
-                                for (int i = 0; i < tmp.size(); i++) {
-                                    byteArray[i] = tmp.get(i);
-                                }
-                                outputStream.write(byteArray);
-                            }
-
+                            TelegramFileWriter.write(outputFile.toPath(), report.getBytes());
                         } catch (final IOException ex) {
                             LOG.error(ex.getMessage());
                         }
@@ -1102,25 +1123,25 @@ public class DockPanelBuilder {
                 }
 
                 @Override
-                protected void done() {
-                    encodingProgressBar.setIndeterminate(false);
-                    encodingProgressBar.setString("✅ Hotovo!");
-                    encodingProgressBar.setValue(encodingProgressBar.getMaximum());
+                protected void process(java.util.List<long[]> chunks) {
+                    showEncodingProgress(encodingProgressBar, chunks.get(chunks.size() - 1));
+                }
 
-                    Color successColor = UIManager.getColor("Actions.Green");
-                    if (successColor == null) successColor = Color.GREEN.darker();
-                    encodingProgressBar.setForeground(successColor);
+                @Override
+                protected void done() {
+                    finishEncoding(runningEncodings, token, outcome, cancelEncodeBtn, encodingProgressBar);
                 }
             };
             encoderWorker.execute();
         });
 
         encodeBtn2.addActionListener(e -> {
-            encodingProgressBar.setIndeterminate(true);
-            encodingProgressBar.setString("🔄 Kódování telegramu...");
-            encodingProgressBar.setStringPainted(true);
+            CancellationToken token = startEncoding(runningEncodings, cancelEncodeBtn, encodingProgressBar);
+
+            SwingWorker<Void, long[]> encoderWorker = new SwingWorker<>() {
+                // Outcome of the last search; null if no search was run
+                private EncodeReport.Outcome outcome;
 
-            SwingWorker<Void, Void> encoderWorker = new SwingWorker<>() {
                 @Override
                 protected Void doInBackground() {
                     // **FIX: Get first PH packet in correct order**
@@ -1129,7 +1150,7 @@ public class DockPanelBuilder {
 
                     if (phX == null) return null;
 
-                    for (int ii = 0; ii < 2; ii++) {
+                    for (int ii = 0; ii < 2 && !token.isCancelled(); ii++) {
                         PH ph1 = (PH) phX.deepCopy();
 
                         ph1.getQ_updown().setBinValue(phX.getQ_updown().getBinValue());
@@ -1166,7 +1187,17 @@ public class DockPanelBuilder {
                         sb.append('0');
                         s = sb.toString();
 
-                        String tlg = TelegramEncoder.encode((s));
+                        EncodeReport report = new EncoderSession(s)
+                                .setCancellationToken(token)
+                                .setCache(EncodeCache.getDefault())
+                                .setProgressListener((tried, total) -> publish(new long[]{tried, total}))
+                                .encodeWithReport();
+                        outcome = report.getOutcome();
+                        if (!report.isSuccess()) {
+                            LOG.warn("Telegram nezakódován - " + report.getOutcome());
+                            return null;
+                        }
+                        String tlg = report.getResult();
                         String as = TelegramDecoder.decodeTelegram(tlg);
                         PH ph = new PH(new String[]{s});
 
@@ -1202,23 +1233,8 @@ public class DockPanelBuilder {
 
                             try {
                                 final File outputFile = file.getAbsoluteFile();
-                                String lastTelegram = tlg;
                                 LOG.info("Ukládám: " + outputFile.getAbsolutePath());
-                                ArrayList<Byte> tmp = new ArrayList<Byte>();
-
-                                for (int i = 0; i < lastTelegram.length() - 1; i += 2) {
-                                    final char c = (char) ArithmeticalFunctions.bin2Dec(ArithmeticalFunctions.hex2Bin(lastTelegram.charAt(i) + "" + lastTelegram.charAt(i + 1)));
-                                    tmp.add((byte) c);
-                                }
-
-                                try (final FileOutputStream outputStream = new FileOutputStream(outputFile)) {
-                                    byte[] byteArray = new byte[tmp.size()];
-                                    for (int i = 0; i < tmp.size(); i++) {
-                                        byteArray[i] = tmp.get(i);
-                                    }
-                                    outputStream.write(byteArray);
-                                }
-
+                                TelegramFileWriter.write(outputFile.toPath(), report.getBytes());
                             } catch (final IOException ex) {
                                 LOG.error(ex.getMessage());
                             }
@@ -1229,14 +1245,13 @@ public class DockPanelBuilder {
                 }
 
                 @Override
-                protected void done() {
-                    encodingProgressBar.setIndeterminate(false);
-                    encodingProgressBar.setString("✅ Hotovo!");
-                    encodingProgressBar.setValue(encodingProgressBar.getMaximum());
+                protected void process(java.util.List<long[]> chunks) {
+                    showEncodingProgress(encodingProgressBar, chunks.get(chunks.size() - 1));
+                }
 
-                    Color successColor = UIManager.getColor("Actions.Green");
-                    if (successColor == null) successColor = Color.GREEN.darker();
-                    encodingProgressBar.setForeground(successColor);
+                @Override
+                protected void done() {
+                    finishEncoding(runningEncodings, token, outcome, cancelEncodeBtn, encodingProgressBar);
                 }
             };
             encoderWorker.execute();
@@ -1247,6 +1262,72 @@ public class DockPanelBuilder {
         packetTabbedPane.setEnabledAt(lastIndex, false);
     }
 
+    /**
+     * Registers a new encoding of this tab and switches the progress bar to it.
+     */
+    private CancellationToken startEncoding(Set<CancellationToken> runningEncodings,
+                                            JButton cancelButton,
+                                            JProgressBar progressBar) {
+        CancellationToken token = new CancellationToken();
+        runningEncodings.add(token);
+        cancelButton.setEnabled(true);
+
+        progressBar.setIndeterminate(true);
+        progressBar.setString("🔄 Kódování telegramu...");
+        progressBar.setStringPainted(true);
+        progressBar.setForeground(UIManager.getColor("ProgressBar.foreground"));
+        return token;
+    }
+
+    /**
+     * Shows the number of candidates tried out of the search space.
+     */
+    private static void showEncodingProgress(JProgressBar progressBar, long[] progress) {
+        progressBar.setIndeterminate(false);
+        progressBar.setMinimum(0);
+        progressBar.setMaximum((int) progress[1]);
+        progressBar.setValue((int) progress[0]);
+        progressBar.setString(String.format("🔄 Kódování telegramu... %,d / %,d", progress[0], progress[1]));
+    }
+
+    /**
+     * Unregisters a finished encoding and shows its result; anything but a found
+     * telegram is shown as a failure.
+     *
+     * @param outcome outcome of the last search, or null if none was run
+     */
+    private void finishEncoding(Set<CancellationToken> runningEncodings,
+                                CancellationToken token,
+                                EncodeReport.Outcome outcome,
+                                JButton cancelButton,
+                                JProgressBar progressBar) {
+        runningEncodings.remove(token);
+        cancelButton.setEnabled(!runningEncodings.isEmpty());
+
+        progressBar.setIndeterminate(false);
+        progressBar.setValue(progressBar.getMaximum());
+        if (token.isCancelled() || outcome != EncodeReport.Outcome.FOUND) {
+            if (token.isCancelled() || outcome == EncodeReport.Outcome.CANCELLED) {
+                progressBar.setString("⛔ Kódování zrušeno");
+            } else if (outcome == EncodeReport.Outcome.DEADLINE_EXCEEDED) {
+                progressBar.setString("⛔ Vypršel časový limit kódování");
+            } else if (outcome == EncodeReport.Outcome.LIMIT_REACHED) {
+                progressBar.setString("⛔ Platné kódování nenalezeno");
+            } else {
+                progressBar.setString("⛔ Telegram nezakódován");
+            }
+            Color errorColor = UIManager.getColor("Actions.Red");
+            if (errorColor == null) errorColor = Color.RED;
+            progressBar.setForeground(errorColor);
+            return;
+        }
+        progressBar.setString("✅ Hotovo!");
+
+        Color successColor = UIManager.getColor("Actions.Green");
+        if (successColor == null) successColor = Color.GREEN.darker();
+        progressBar.setForeground(successColor);
+    }
+
     private JPanel buildModernTelegramTabHeader(DnDTabbedPane topTabbedPane,
                                                 DefaultListModel<TlgTemp> listModel,
                                                 TlgTemp telegramEntry) {
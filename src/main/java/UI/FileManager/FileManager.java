@@ -5,6 +5,8 @@ The MIT License
 ...
 */
 
+import Encoding.BatchDecoder;
+import Encoding.DecodeResult;
 import Encoding.TelegramDecoder;
 import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
@@ -39,7 +41,6 @@ import java.nio.file.*;
 import java.security.MessageDigest;
 import java.util.List;
 
-import static tools.crypto.ArithmeticalFunctions.bin2Hex;
 import static tools.crypto.ArithmeticalFunctions.dec2XBin;
 import static tools.string.StringHelper.*;
 
@@ -87,6 +88,7 @@ public class FileManager {
     private JButton openFile;
     private JButton deleteFile;
     private JButton printFile;
+    private JButton decodeFolder;
     private JLabel fileName;
     private JTextField path;
     private JLabel date; // Zobrazuje MD4 pro .tlg soubory
@@ -334,6 +336,15 @@ public class FileManager {
         });
         toolBar.add(printFile);
 
+        // Tlačítko "Dekódovat složku"
+        decodeFolder = createModernButton("🗂️ Dekódovat složku", "primary");
+        decodeFolder.addActionListener(e -> {
+            LOG.debug("Kliknuto na tlačítko 'Dekódovat složku'.");
+            handleDecodeFolderAction();
+            gui.repaint();
+        });
+        toolBar.add(decodeFolder);
+
         // Nastavení dostupnosti tlačítek podle podpory
         openFile.setEnabled(desktop.isSupported(Desktop.Action.OPEN));
         printFile.setEnabled(desktop.isSupported(Desktop.Action.PRINT));
@@ -612,6 +623,80 @@ public class FileManager {
         worker.execute();
     }
 
+    /**
+     * Volá se při stisku tlačítka "Dekódovat složku". Dekóduje všechny ".tlg" soubory
+     * vybrané složky (u souboru jeho nadřazené složky) včetně podsložek pomocí
+     * {@link BatchDecoder}; dekódované telegramy se průběžně přidávají do seznamu.
+     */
+    private void handleDecodeFolderAction() {
+        if (currentFile == null) {
+            LOG.warn("Nebyla vybrána žádná složka k dekódování.");
+            return;
+        }
+        File folder = currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        if (folder == null) {
+            LOG.warn("Složku vybraného souboru nelze určit.");
+            return;
+        }
+
+        decodeFolder.setEnabled(false);
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Dekóduji složku...");
+
+        SwingWorker<BatchDecoder.Summary, BatchDecoder.FileResult<TlgTemp>> worker = new SwingWorker<>() {
+            private int total;
+            private int processed;
+
+            @Override
+            protected BatchDecoder.Summary doInBackground() throws Exception {
+                LOG.info("Dekóduji složku: [{}]", folder.getAbsolutePath());
+                List<Path> files = BatchDecoder.findTelegrams(folder.toPath());
+                total = files.size();
+                // Balíčky se parsují ve vláknech poolu, do seznamu se přidávají na EDT
+                return new BatchDecoder<>((file, result) -> new TlgTemp(file.getFileName().toString(), result.getUserDataHex()))
+                        .decode(files, this::publish);
+            }
+
+            @Override
+            protected void process(List<BatchDecoder.FileResult<TlgTemp>> chunks) {
+                @SuppressWarnings("unchecked")
+                DefaultListModel<TlgTemp> model = (DefaultListModel<TlgTemp>) externalTlgList.getModel();
+                for (BatchDecoder.FileResult<TlgTemp> result : chunks) {
+                    processed++;
+                    if (result.isSuccess()) {
+                        model.add(0, result.getParsed());
+                    } else {
+                        LOG.warn("Soubor nedekódován: {}", result);
+                    }
+                }
+                progressBar.setIndeterminate(false);
+                progressBar.setMaximum(Math.max(total, 1));
+                progressBar.setValue(processed);
+                progressBar.setString("Dekódováno " + processed + " / " + total);
+            }
+
+            @Override
+            protected void done() {
+                decodeFolder.setEnabled(true);
+                progressBar.setVisible(false);
+                progressBar.setIndeterminate(false);
+                try {
+                    BatchDecoder.Summary summary = get();
+                    LOG.info("Složka dekódována: {}", summary);
+                    if (summary.getFailed() > 0) {
+                        showModernErrorMessage("Nepodařilo se dekódovat " + summary.getFailed() + " z "
+                                + summary.getFiles() + " souborů", "Dekódování složky");
+                    }
+                } catch (Exception e) {
+                    LOG.error("Chyba při dekódování složky: {}", e.getMessage(), e);
+                    showThrowable(e);
+                }
+            }
+        };
+        worker.execute();
+    }
+
     /**
      * Vytvoří PDF z TLG souboru.
      */
@@ -685,21 +770,19 @@ public class FileManager {
     private void decodeTlgFile(File file, JList<TlgTemp> jList) {
         LOG.debug("Spouštím dekódování TLG souboru: {}", file.getName());
 
-        StringBuilder builder = new StringBuilder();
-        try (InputStream inputStream = new FileInputStream(file)) {
-            int byteRead;
-            while ((byteRead = inputStream.read()) != -1) {
-                String str = dec2XBin(String.valueOf(byteRead), 8);
-                builder.append(str);
-            }
+        DecodeResult result;
+        try {
+            result = TelegramDecoder.decode(Files.readAllBytes(file.toPath()));
         } catch (IOException ex) {
             LOG.error("Chyba při čtení TLG souboru: {}", ex.getMessage(), ex);
             throw new RuntimeException(ex);
         }
 
-        String hexData = bin2Hex(builder.toString());
-        LOG.trace("HexData pro TLG soubor: {}", hexData);
-        String decoded = TelegramDecoder.decodeTelegram(hexData);
+        LOG.debug("Výsledek dekódování TLG souboru: {}", result);
+        if (!result.isSuccess()) {
+            LOG.error("TLG soubor nelze dekódovat: {} - {}", file.getName(), result);
+        }
+        String decoded = result.getUserDataHex();
 
         @SuppressWarnings("unchecked")
         DefaultListModel<TlgTemp> model = (DefaultListModel<TlgTemp>) jList.getModel();
@@ -1,6 +1,11 @@
 package UI.SZIFEditor;
 
-import Encoding.TelegramEncoder;
+import Encoding.CancellationToken;
+import Encoding.EncodeCache;
+import Encoding.EncodeReport;
+import Encoding.EncoderSession;
+import Encoding.SearchHints;
+import Encoding.TelegramFileWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import tools.crypto.ArithmeticalFunctions;
@@ -12,6 +17,7 @@ import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 /**
  * Main controller for application logic with repository change notifications
@@ -125,11 +131,25 @@ public class EditorController {
      * Generate telegrams from table row data
      */
     public List<TelegramData> generateTelegrams(List<TableRowData> rowData) {
+        return generateTelegrams(rowData, null, null);
+    }
+
+    /**
+     * Generate telegrams from table row data, reporting the number of processed rows
+     * and stopping early once the token is cancelled
+     */
+    public List<TelegramData> generateTelegrams(List<TableRowData> rowData,
+                                                CancellationToken token,
+                                                IntConsumer rowsDone) {
         LOG.info("Generování telegramů - počet řádků: " + rowData.size());
         List<TelegramData> telegrams = new ArrayList<>();
 
         // Process each row, filling in empty values
         for (int i = 0; i < rowData.size(); i++) {
+            if (token != null && token.isCancelled()) {
+                LOG.info("Generování telegramů zrušeno po " + i + " řádcích");
+                break;
+            }
             TableRowData row = rowData.get(i);
             LOG.debug("Zpracování řádku " + i);
 
@@ -172,6 +192,10 @@ public class EditorController {
             } catch (Exception e) {
                 LOG.error("Chyba při generování telegramu pro řádek " + i + ": " + e.getMessage(), e);
             }
+
+            if (rowsDone != null) {
+                rowsDone.accept(i + 1);
+            }
         }
 
         LOG.info("Dokončeno generování telegramů - celkem: " + telegrams.size());
@@ -198,28 +222,45 @@ public class EditorController {
      * Save a telegram to a file
      */
     public void saveTelegramToFile(TelegramData telegram, File file) {
+        saveTelegramToFile(telegram, file, null, null);
+    }
+
+    /**
+     * Encode and save a telegram to a file; the encoding can be cancelled through the
+     * token and reports its progress to the listener
+     *
+     * @return true if the telegram was encoded and saved
+     */
+    public boolean saveTelegramToFile(TelegramData telegram, File file,
+                                      CancellationToken token,
+                                      EncoderSession.ProgressListener progressListener) {
         LOG.info("Ukládání telegramu do souboru: [" + file.getName() + "]");
         try {
 
+            EncodeReport report = new EncoderSession(ArithmeticalFunctions.hex2Bin(telegram.getEncodedData()))
+                    .setCancellationToken(token)
+                    .setCache(EncodeCache.getDefault())
+                    .setHints(SearchHints.getDefault())
+                    .setDeterministic(true)
+                    .setProgressListener(progressListener)
+                    .encodeWithReport();
+            if (!report.isSuccess()) {
+                LOG.warn("Telegram neuložen - " + report.getOutcome());
+                return false;
+            }
 
+            LOG.debug("Kódování - " + report + " - úspěšnost nápověd "
+                    + String.format("%.1f %%", SearchHints.getDefault().getHitRate() * 100));
 
-            byte[] binaryData = BinaryConverter.hexStringToByteArray(
-                    TelegramEncoder.encode(
-                            ArithmeticalFunctions.hex2Bin(
-                            telegram.getEncodedData())));
-
-            LOG.debug("Převedena hex data na binární, velikost: " + binaryData.length + " bajtů");
-
-            try (FileOutputStream fos = new FileOutputStream(file))
-            {
-                fos.write(binaryData);
-            }
+            TelegramFileWriter.write(file.toPath(), report.getBytes());
 
             LOG.info("Úspěšně uložen telegram do souboru: [" + file.getAbsolutePath() + "]");
+            return true;
 
         } catch (IOException e) {
 
             LOG.error("Chyba při ukládání telegramu: " + e.getMessage(), e);
+            return false;
 
         }
     }
@@ -1,10 +1,12 @@
 package UI.SZIFEditor;
 
+import Encoding.CancellationToken;
 import tools.ui.TlgTemp;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,6 +20,9 @@ class TelegramGeneratorPanel extends JPanel {
     private JProgressBar progressBar;
     private JButton generateButton;
     private JButton saveButton;
+    private JButton cancelButton;
+    // Token of the running generation or save, null when idle
+    private volatile CancellationToken runningToken;
 
     public TelegramGeneratorPanel(EditorController controller, EditorTable editorTable, DefaultListModel<TlgTemp> telegramList2) {
         this.controller = controller;
@@ -35,9 +40,18 @@ class TelegramGeneratorPanel extends JPanel {
         generateButton = new JButton("Generate Telegrams");
         saveButton = new JButton("Save Telegrams");
         JButton exportButton = new JButton("Export Selected to editor");
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
 
         generateButton.addActionListener(e -> generateTelegrams());
 
+        cancelButton.addActionListener(e -> {
+            CancellationToken token = runningToken;
+            if (token != null) {
+                token.cancel();
+            }
+        });
+
         saveButton.addActionListener(e -> saveTelegrams());
 
         exportButton.addActionListener(e -> {
@@ -54,6 +68,7 @@ class TelegramGeneratorPanel extends JPanel {
         buttonPanel.add(generateButton);
         buttonPanel.add(saveButton);
         buttonPanel.add(exportButton);
+        buttonPanel.add(cancelButton);
 
         controlPanel.add(buttonPanel, BorderLayout.NORTH);
         controlPanel.add(progressBar, BorderLayout.SOUTH);
@@ -64,8 +79,7 @@ class TelegramGeneratorPanel extends JPanel {
 
     // In TelegramGeneratorPanel.generateTelegrams() method
     private void generateTelegrams() {
-        generateButton.setEnabled(false);
-        progressBar.setIndeterminate(true);
+        CancellationToken token = startTask();
 
         // Create worker thread to avoid UI freeze
         SwingWorker<java.util.List<TelegramData>, Integer> worker = new SwingWorker<>() {
@@ -73,7 +87,18 @@ class TelegramGeneratorPanel extends JPanel {
             protected java.util.List<TelegramData> doInBackground() {
                 // Use the new method to get visually filled rows
                 java.util.List<TableRowData> rows = editorTable.getVisuallyFilledRows();
-                return controller.generateTelegrams(rows);
+                SwingUtilities.invokeLater(() -> {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setMaximum(Math.max(rows.size(), 1));
+                });
+                return controller.generateTelegrams(rows, token, this::publish);
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                int rowsDone = chunks.get(chunks.size() - 1);
+                progressBar.setValue(rowsDone);
+                progressBar.setString(rowsDone + " / " + progressBar.getMaximum());
             }
 
             @Override
@@ -84,14 +109,11 @@ class TelegramGeneratorPanel extends JPanel {
                     for (TelegramData telegram : telegrams) {
                         listModel.addElement(telegram);
                     }
-
-                    progressBar.setIndeterminate(false);
-                    progressBar.setValue(100);
-                    generateButton.setEnabled(true);
+                    progressBar.setValue(progressBar.getMaximum());
                 } catch (Exception e) {
-                    progressBar.setIndeterminate(false);
-                    generateButton.setEnabled(true);
+                    progressBar.setValue(0);
                 }
+                finishTask(token);
             }
         };
 
@@ -113,20 +135,93 @@ class TelegramGeneratorPanel extends JPanel {
 
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             File directory = fileChooser.getSelectedFile();
-
+            List<TelegramData> telegrams = new ArrayList<>();
             for (int i = 0; i < listModel.getSize(); i++) {
-                TelegramData telegram = listModel.getElementAt(i);
+                telegrams.add(listModel.getElementAt(i));
+            }
+            CancellationToken token = startTask();
 
-                String filename = telegram.getName() + ".tlg";
+            // Encoding runs off the EDT; progress is {telegram index, candidates tried, search space}
+            SwingWorker<Integer, long[]> worker = new SwingWorker<>() {
+                @Override
+                protected Integer doInBackground() {
+                    int saved = 0;
+                    for (int i = 0; i < telegrams.size() && !token.isCancelled(); i++) {
+                        TelegramData telegram = telegrams.get(i);
+                        final long index = i;
 
-                File outputFile = new File(directory, filename);
+                        String filename = telegram.getName() + ".tlg";
 
-                controller.saveTelegramToFile(telegram, outputFile);
+                        File outputFile = new File(directory, filename);
 
-            }
+                        if (controller.saveTelegramToFile(telegram, outputFile, token,
+                                (tried, total) -> publish(new long[]{index, tried, total}))) {
+                            saved++;
+                        }
+                    }
+                    return saved;
+                }
+
+                @Override
+                protected void process(List<long[]> chunks) {
+                    long[] progress = chunks.get(chunks.size() - 1);
+                    progressBar.setIndeterminate(false);
+                    progressBar.setMaximum((int) progress[2]);
+                    progressBar.setValue((int) progress[1]);
+                    progressBar.setString(String.format("Encoding %d / %d: %,d / %,d",
+                            progress[0] + 1, telegrams.size(), progress[1], progress[2]));
+                }
+
+                @Override
+                protected void done() {
+                    finishTask(token);
+                    int saved;
+                    try {
+                        saved = get();
+                    } catch (Exception e) {
+                        saved = 0;
+                    }
+                    if (token.isCancelled()) {
+                        JOptionPane.showMessageDialog(TelegramGeneratorPanel.this,
+                                "Saving cancelled, " + saved + " of " + telegrams.size() + " telegrams saved.");
+                    } else if (saved != telegrams.size()) {
+                        JOptionPane.showMessageDialog(TelegramGeneratorPanel.this,
+                                "Saving failed, " + saved + " of " + telegrams.size() + " telegrams saved.",
+                                "Save Error", JOptionPane.ERROR_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(TelegramGeneratorPanel.this, "Telegrams saved successfully.");
+                    }
+                }
+            };
+
+            worker.execute();
+        }
+    }
+
+    /**
+     * Disables the actions while a background task runs and returns its token.
+     */
+    private CancellationToken startTask() {
+        CancellationToken token = new CancellationToken();
+        runningToken = token;
+        generateButton.setEnabled(false);
+        saveButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setIndeterminate(true);
+        progressBar.setValue(0);
+        progressBar.setString(null);
+        return token;
+    }
 
-            JOptionPane.showMessageDialog(this, "Telegrams saved successfully.");
+    private void finishTask(CancellationToken token) {
+        if (runningToken == token) {
+            runningToken = null;
         }
+        progressBar.setIndeterminate(false);
+        progressBar.setString(token.isCancelled() ? "Cancelled" : null);
+        generateButton.setEnabled(true);
+        saveButton.setEnabled(true);
+        cancelButton.setEnabled(false);
     }
 
     private static class TelegramListCellRenderer extends DefaultListCellRenderer {
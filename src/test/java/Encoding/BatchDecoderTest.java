@@ -0,0 +1,170 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class BatchDecoderTest {
+
+    private static byte[] bytes(String hex) {
+        return ArithmeticalFunctions.decodeHexString(hex.replace(" ", ""));
+    }
+
+    // Strom složek: copies kopií všech testovacích telegramů, rozdělených do podsložek
+    private static Path createTree(int copies) throws IOException {
+        Path root = Files.createTempDirectory("batch");
+        int count = 0;
+        for (int copy = 0; copy < copies; copy++) {
+            for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+                for (String[] values : telegrams) {
+                    Path folder = Files.createDirectories(root.resolve("balise" + (count % 7)).resolve("sub" + (count % 3)));
+                    Files.write(folder.resolve(String.format("%05d.tlg", count++)), bytes(values[1]));
+                }
+            }
+        }
+        return root;
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void test_decodes_folder_tree() throws IOException {
+        Path root = createTree(1);
+        try {
+            // Poškozený telegram, soubor jiného typu a telegram s velkou příponou
+            Files.write(root.resolve("broken.tlg"), new byte[43]);
+            Files.write(root.resolve("notes.txt"), new byte[]{1, 2, 3});
+            Files.write(root.resolve("UPPER.TLG"), bytes(TestValues.telegrams_short[0][1]));
+
+            int expectedFiles = TestValues.telegrams_short.length + TestValues.telegrams_long.length + 2;
+            assertEquals(expectedFiles, BatchDecoder.findTelegrams(root).size());
+
+            Map<Path, BatchDecoder.FileResult<String>> results = new ConcurrentHashMap<>();
+            BatchDecoder.Summary summary = new BatchDecoder<>((file, result) -> result.getUserDataHex())
+                    .setPool(new ForkJoinPool(4))
+                    .decode(root, result -> results.put(result.getFile(), result));
+
+            assertEquals(expectedFiles, summary.getFiles());
+            assertEquals(1, summary.getFailed());
+            assertFalse(summary.isCancelled());
+            assertEquals(expectedFiles, results.size());
+
+            BatchDecoder.FileResult<String> broken = results.get(root.resolve("broken.tlg"));
+            assertFalse(broken.isSuccess());
+            assertNull(broken.getParsed());
+            assertNull(broken.getError());
+            assertFalse(broken.getDecoded().isSuccess());
+
+            BatchDecoder.FileResult<String> upper = results.get(root.resolve("UPPER.TLG"));
+            assertTrue(upper.isSuccess());
+            assertEquals(TestValues.telegrams_short[0][0].replace(" ", ""), upper.getParsed());
+            assertTrue(upper.getTotalNanos() > 0);
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void test_parser_errors_are_reported() throws IOException {
+        Path root = createTree(1);
+        try {
+            BatchDecoder.Summary summary = new BatchDecoder<String>((file, result) -> {
+                if (result.isLongFormat()) {
+                    throw new IllegalStateException("long");
+                }
+                return result.getUserDataHex();
+            }).decode(root, result -> {
+                if (result.getDecoded().isLongFormat()) {
+                    assertTrue(result.getError() instanceof IllegalStateException);
+                    assertFalse(result.isSuccess());
+                } else {
+                    assertTrue(result.isSuccess());
+                }
+            });
+            assertEquals(TestValues.telegrams_long.length, summary.getFailed());
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void test_corrects_damaged_file() throws IOException {
+        Path root = Files.createTempDirectory("batch");
+        try {
+            // Jeden převrácený bit v záznamu z trati
+            byte[] telegram = bytes(TestValues.telegrams_long[2][1]);
+            telegram[40] ^= 0x04;
+            Path file = root.resolve("field.tlg");
+            Files.write(file, telegram);
+
+            Map<Path, BatchDecoder.FileResult<String>> strict = new ConcurrentHashMap<>();
+            BatchDecoder<String> decoder = new BatchDecoder<>((path, result) -> result.getUserDataHex());
+            assertEquals(1, decoder.decode(root, result -> strict.put(result.getFile(), result)).getFailed());
+            assertEquals(DecodeResult.Stage.G_SYNDROME, strict.get(file).getDecoded().getFailureStage());
+
+            Map<Path, BatchDecoder.FileResult<String>> tolerant = new ConcurrentHashMap<>();
+            assertEquals(0, decoder.setCorrectErrors(true)
+                    .decode(root, result -> tolerant.put(result.getFile(), result)).getFailed());
+            BatchDecoder.FileResult<String> corrected = tolerant.get(file);
+            assertTrue(corrected.isSuccess());
+            assertTrue(corrected.getDecoded().isCorrected());
+            assertArrayEquals(new int[]{40 * 8 + 5}, corrected.getDecoded().getCorrectedBits());
+            assertEquals(TestValues.telegrams_long[2][0].replace(" ", ""), corrected.getParsed());
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void test_cancellation() throws IOException {
+        Path root = createTree(3);
+        try {
+            CancellationToken token = new CancellationToken();
+            BatchDecoder.Summary summary = new BatchDecoder<>((file, result) -> result)
+                    .setPool(new ForkJoinPool(1))
+                    .setCancellationToken(token)
+                    .decode(root, result -> token.cancel());
+            assertEquals(1, summary.getFiles());
+            assertTrue(summary.isCancelled());
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void performance_serial_vs_parallel() throws IOException {
+        Path root = createTree(20);
+        try {
+            List<Path> files = BatchDecoder.findTelegrams(root);
+            BatchDecoder<String> decoder = new BatchDecoder<>((file, result) -> result.getUserDataHex());
+            decoder.setPool(new ForkJoinPool(1)).decode(files, result -> { });
+
+            long serial = decoder.setPool(new ForkJoinPool(1)).decode(files, result -> { }).getElapsedNanos();
+            int cores = Runtime.getRuntime().availableProcessors();
+            BatchDecoder.Summary parallel = decoder.setPool(new ForkJoinPool(cores)).decode(files, result -> { });
+
+            assertEquals(files.size(), parallel.getFiles());
+            assertEquals(0, parallel.getFailed());
+            System.out.println(String.format("%d files: 1 thread %.3f ms, %d threads %.3f ms",
+                    files.size(), serial / 1_000_000.0, cores, parallel.getElapsedNanos() / 1_000_000.0));
+        } finally {
+            deleteTree(root);
+        }
+    }
+}
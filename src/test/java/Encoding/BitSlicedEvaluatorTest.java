@@ -0,0 +1,131 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+
+public class BitSlicedEvaluatorTest {
+
+    private static String input(String[] values) {
+        return ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""));
+    }
+
+    /**
+     * Porovná masky bit-sliced vyhodnocení se skalární cestou pro všechny bloky jednoho SB.
+     *
+     * @return počet kandidátů, kteří prošli abecedou i off-synch
+     */
+    private int assertMatchesScalar(String input, int sb) {
+        TelegramEncoder.Telegram telegram = new TelegramEncoder.Telegram(input);
+        int m = telegram.isLongTelegram ? 830 : 210;
+        int size = telegram.getSize();
+
+        BigInteger uTick = TelegramEncoder.determineUTick(telegram.userdata, m);
+        BigInteger scrambled = TelegramEncoder.scrambleUserData(
+                TelegramEncoder.calculateS(BigInteger.valueOf(sb)), EncryptionHelperList.CURRENT_INPUT, uTick, m);
+        TelegramBits shaped = TelegramBits.fromBigInteger(TelegramEncoder.transform10to11(scrambled, m), size);
+
+        BitSlicedEvaluator sliced = new BitSlicedEvaluator(telegram.isLongTelegram);
+        TelegramBits base = new TelegramBits(size);
+        long[] remainder = new long[2];
+        int passed = 0;
+        for (int block = 0; block < 1024; block += BitSlicedEvaluator.LANES) {
+            long expectedAlphabet = 0;
+            long expectedOffSynch = 0;
+            for (int j = 0; j < BitSlicedEvaluator.LANES; j++) {
+                TelegramBits data = telegram.transformData;
+                data.clear();
+                data.write(85, (TelegramEncoder.STATIC_VALUE << 10) | (sb << 10) | (block + j), 25);
+                data.or(shaped);
+                TelegramEncoder.computeCheckBits(data, telegram.isLongTelegram, remainder);
+                if (j == 0) {
+                    base.copyFrom(data);
+                }
+                if (TelegramEncoder.check_alphabet_condition(telegram)) {
+                    expectedAlphabet |= 1L << j;
+                }
+                if (TelegramEncoder.check_off_synch_parsing_condition(telegram)) {
+                    expectedOffSynch |= 1L << j;
+                }
+            }
+
+            String where = "SB=" + sb + " block=" + block;
+            long alphabet = sliced.alphabet(base.words(), sb, -1L);
+            assertEquals("Alphabet " + where, expectedAlphabet, alphabet);
+            // Off-synch musí sedět pro libovolnou podmnožinu kandidátů
+            assertEquals("Off-synch " + where, expectedOffSynch, sliced.offSynch(base.words(), -1L));
+            assertEquals("Off-synch after alphabet " + where,
+                    expectedAlphabet & expectedOffSynch, sliced.offSynch(base.words(), alphabet));
+            passed += Long.bitCount(expectedAlphabet & expectedOffSynch);
+        }
+        return passed;
+    }
+
+    @Test
+    public void test_masks_match_scalar_short() {
+        int passed = 0;
+        for (int sb : new int[]{0, 16, 18, 63, 1000, 4095}) {
+            passed += assertMatchesScalar(input(TestValues.telegrams_short[0]), sb);
+        }
+        assertTrue("No candidate passed both conditions", passed > 0);
+    }
+
+    @Test
+    public void test_masks_match_scalar_long() {
+        for (int sb : new int[]{0, 16, 27, 2048}) {
+            assertMatchesScalar(input(TestValues.telegrams_long[0]), sb);
+        }
+    }
+
+    @Test
+    public void test_same_telegram_as_scalar() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            for (String[] values : telegrams) {
+                EncodeReport scalar = new EncoderSession(input(values)).encodeWithReport();
+                EncodeReport sliced = new EncoderSession(input(values))
+                        .setEvaluation(EncoderSession.Evaluation.BIT_SLICED)
+                        .encodeWithReport();
+
+                assertEquals(values[1].replace(" ", ""), sliced.getResult());
+                assertEquals(scalar.getSB(), sliced.getSB());
+                assertEquals(scalar.getESB(), sliced.getESB());
+                assertEquals(scalar.getCandidatesTried(), sliced.getCandidatesTried());
+                assertEquals(scalar.getCandidatesEvaluated(), sliced.getCandidatesEvaluated());
+                assertEquals(scalar.getCondition(EncoderSession.Condition.ALPHABET).getRejected(),
+                        sliced.getCondition(EncoderSession.Condition.ALPHABET).getRejected());
+            }
+        }
+    }
+
+    @Test
+    public void test_unaligned_start_and_parallel() {
+        String input = input(TestValues.telegrams_short[1]);
+        String scalar = new EncoderSession(input, 16, 37, BigInteger.ONE).encode();
+        assertEquals(scalar, new EncoderSession(input, 16, 37, BigInteger.ONE)
+                .setEvaluation(EncoderSession.Evaluation.BIT_SLICED).encode());
+        assertEquals(scalar, new EncoderSession(input, 16, 37, BigInteger.ONE)
+                .setEvaluation(EncoderSession.Evaluation.BIT_SLICED)
+                .setSearchMode(EncoderSession.SearchMode.PARALLEL).encode());
+    }
+
+    @Test
+    public void performance_bit_sliced() {
+        for (EncoderSession.Evaluation evaluation : EncoderSession.Evaluation.values()) {
+            long nanos = 0;
+            long tried = 0;
+            for (int round = 0; round < 2; round++) {
+                for (String[] values : TestValues.telegrams_short) {
+                    EncodeReport report = new EncoderSession(input(values)).setEvaluation(evaluation).encodeWithReport();
+                    if (round == 1) {
+                        nanos += report.getTotalNanos();
+                        tried += report.getCandidatesTried();
+                    }
+                }
+            }
+            System.out.println(String.format("%s: %d candidates in %.3f ms (%.1f ns/candidate)",
+                    evaluation, tried, nanos / 1_000_000.0, nanos / (double) tried));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class CaptureDecoderTest {
+
+    // Záznam složený po bitech jako řetězec '0'/'1'
+    private static final class Capture {
+        final StringBuilder bits = new StringBuilder();
+        final Random random = new Random(23);
+
+        // Šum, jehož poslední bit nepokračuje v následujícím opakování
+        Capture noise(int length, char next) {
+            for (int i = 0; i < length - 1; i++) {
+                bits.append(random.nextBoolean() ? '1' : '0');
+            }
+            bits.append(next);
+            return this;
+        }
+
+        // Opakování telegramu, začíná bitem rotation
+        int repeat(String telegram, int rotation, int copies) {
+            int start = bits.length();
+            String rotated = telegram.substring(rotation) + telegram.substring(0, rotation);
+            for (int i = 0; i < copies; i++) {
+                bits.append(rotated);
+            }
+            return start;
+        }
+
+        byte[] pack() {
+            byte[] bytes = new byte[(bits.length() + 7) / 8];
+            for (int i = 0; i < bits.length(); i++) {
+                if (bits.charAt(i) == '1') {
+                    bytes[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+                }
+            }
+            return bytes;
+        }
+    }
+
+    private static String telegram(String[] values, int n) {
+        return ArithmeticalFunctions.hex2Bin(values[1].replace(" ", "")).substring(0, n);
+    }
+
+    private static char not(char bit) {
+        return bit == '1' ? '0' : '1';
+    }
+
+    @Test
+    public void test_decodes_and_deduplicates() throws IOException {
+        String a = telegram(TestValues.telegrams_short[0], 341);
+        String b = telegram(TestValues.telegrams_long[1], 1023);
+        String c = telegram(TestValues.telegrams_short[3], 341);
+
+        Capture capture = new Capture();
+        capture.noise(37, not(a.charAt(49)));
+        int startA = capture.repeat(a, 50, 5);
+        capture.noise(100, not(b.charAt(1022)));
+        int startB = capture.repeat(b, 0, 3);
+        capture.noise(64, not(a.charAt(340)));
+        capture.repeat(a, 0, 2);
+        capture.noise(80, not(c.charAt(199)));
+        int startC = capture.repeat(c, 200, 4);
+        capture.noise(50, '0');
+        byte[] packed = capture.pack();
+
+        List<Long> offsets = new ArrayList<>();
+        List<String> results = new ArrayList<>();
+        CaptureDecoder decoder = new CaptureDecoder((offset, result) -> {
+            offsets.add(offset);
+            results.add(result.getUserDataHex());
+        });
+        assertEquals(3, decoder.decode(ByteBuffer.wrap(packed)));
+        assertEquals(List.of((long) startA, (long) startB, (long) startC), offsets);
+        assertEquals(List.of(TestValues.telegrams_short[0][0].replace(" ", ""),
+                TestValues.telegrams_long[1][0].replace(" ", ""),
+                TestValues.telegrams_short[3][0].replace(" ", "")), results);
+        assertEquals(1, decoder.getRepeats());
+        assertEquals(0, decoder.getFailures());
+        assertTrue(decoder.getWindows() > 5 * 341);
+
+        // Stejný výsledek ze souboru přes MappedByteBuffer
+        Path file = Files.createTempFile("capture", ".bin");
+        try {
+            Files.write(file, packed);
+            List<Long> fromFile = new ArrayList<>();
+            assertEquals(3, new CaptureDecoder((offset, result) -> fromFile.add(offset)).decode(file));
+            assertEquals(offsets, fromFile);
+        } finally {
+            Files.delete(file);
+        }
+
+        // Bez paměti na předchozí telegramy se opakovaný telegram hlásí znovu
+        List<Long> forgetful = new ArrayList<>();
+        new CaptureDecoder((offset, result) -> forgetful.add(offset), 1).decode(ByteBuffer.wrap(packed));
+        assertEquals(4, forgetful.size());
+    }
+
+    @Test
+    public void test_noise_only() {
+        Capture capture = new Capture();
+        capture.noise(20000, '1');
+        CaptureDecoder decoder = new CaptureDecoder((offset, result) -> fail());
+        assertEquals(0, decoder.decode(ByteBuffer.wrap(capture.pack())));
+        assertEquals(0, decoder.getWindows());
+    }
+
+    @Test
+    public void performance_large_capture() throws IOException {
+        // Přibližně 2 MB záznamu z několika balíz
+        Capture capture = new Capture();
+        String[][][] sets = {TestValues.telegrams_short, TestValues.telegrams_long};
+        Set<String> distinct = new HashSet<>();
+        int balises = 0;
+        while (capture.bits.length() < 16_000_000) {
+            String[][] set = sets[balises % 2];
+            String[] values = set[(balises / 2) % set.length];
+            int n = set == TestValues.telegrams_long ? 1023 : 341;
+            String telegram = telegram(values, n);
+            capture.noise(500, not(telegram.charAt(n - 1)));
+            capture.repeat(telegram, 0, 2000 * 341 / n);
+            distinct.add(n + values[0]);
+            balises++;
+        }
+        Path file = Files.createTempFile("capture", ".bin");
+        try {
+            Files.write(file, capture.pack());
+            capture.bits.setLength(0);
+            capture.bits.trimToSize();
+            Runtime runtime = Runtime.getRuntime();
+            runtime.gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            CaptureDecoder decoder = new CaptureDecoder((offset, result) -> { });
+            long start = System.nanoTime();
+            long telegrams = decoder.decode(file);
+            long nanos = System.nanoTime() - start;
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+            assertEquals(distinct.size(), telegrams);
+            assertEquals(0, decoder.getFailures());
+            System.out.println(String.format("%.1f MB capture, %d balise passes: %d telegrams, %d repeats in %.3f ms"
+                            + " (%.1f Mbit/s, heap %d kB -> %d kB)",
+                    Files.size(file) / 1_000_000.0, balises, telegrams, decoder.getRepeats(), nanos / 1_000_000.0,
+                    Files.size(file) * 8 / (nanos / 1000.0), heapBefore / 1024, heapAfter / 1024));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
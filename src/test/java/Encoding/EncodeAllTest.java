@@ -0,0 +1,130 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EncodeAllTest {
+
+    private static String input(String[] values) {
+        return ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""));
+    }
+
+    // Řešení jako trojice {SB, ESB} spolu s hex výsledkem
+    private static List<String> collect(EncoderSession session, int maxSolutions) {
+        List<String> solutions = new ArrayList<>();
+        session.encodeAll(maxSolutions, (hex, sb, esb) -> solutions.add(sb + "/" + esb + "/" + hex));
+        return solutions;
+    }
+
+    @Test
+    public void test_matches_restarted_searches() {
+        String[] values = TestValues.telegrams_short[0];
+        String input = input(values);
+        List<String> solutions = collect(new EncoderSession(input), 4);
+        assertEquals(4, solutions.size());
+        assertTrue(solutions.get(0).endsWith("/" + values[1].replace(" ", "")));
+
+        // Každé další řešení je to, které by našlo nové hledání od předchozího
+        int sb = 0;
+        int esb = 0;
+        int previous = -1;
+        for (String solution : solutions) {
+            String[] parts = solution.split("/");
+            EncoderSession restarted = new EncoderSession(input, sb, esb, BigInteger.ONE);
+            assertEquals(parts[2], restarted.encode());
+            assertEquals(Integer.parseInt(parts[0]), restarted.getSB());
+            assertEquals(Integer.parseInt(parts[1]), restarted.getESB());
+
+            sb = restarted.getSB();
+            esb = restarted.getESB();
+            int index = sb << 10 | esb;
+            assertTrue(index > previous);
+            previous = index;
+            // Všechna řešení se dekódují na stejná uživatelská data
+            assertEquals(values[0].replace(" ", ""), TelegramDecoder.decodeTelegram(parts[2]).toUpperCase());
+        }
+    }
+
+    @Test
+    public void test_same_solutions_in_all_modes() {
+        String input = input(TestValues.telegrams_long[0]);
+        List<String> serial = collect(new EncoderSession(input), 3);
+        assertEquals(serial, collect(new EncoderSession(input).setSearchMode(EncoderSession.SearchMode.PARALLEL), 3));
+        assertEquals(serial, collect(new EncoderSession(input).setEvaluation(EncoderSession.Evaluation.BIT_SLICED), 3));
+    }
+
+    @Test
+    public void test_report_and_cancellation() {
+        String input = input(TestValues.telegrams_short[1]);
+        List<String> solutions = new ArrayList<>();
+        EncodeReport report = new EncoderSession(input).encodeAllWithReport(2, (hex, sb, esb) -> solutions.add(hex));
+        assertEquals(EncodeReport.Outcome.FOUND, report.getOutcome());
+        assertEquals(solutions.get(1), report.getResult());
+        assertTrue(report.getCandidatesTried() >= (report.getSB() << 10 | report.getESB()));
+
+        // Zrušení z listeneru po druhém řešení
+        CancellationToken token = new CancellationToken();
+        solutions.clear();
+        EncodeReport cancelled = new EncoderSession(input)
+                .setCancellationToken(token)
+                .encodeAllWithReport(10, (hex, sb, esb) -> {
+                    solutions.add(hex);
+                    if (solutions.size() == 2) {
+                        token.cancel();
+                    }
+                });
+        assertEquals(EncodeReport.Outcome.CANCELLED, cancelled.getOutcome());
+        assertEquals(2, solutions.size());
+        assertEquals(solutions.get(1), cancelled.getResult());
+
+        // Na konci prostoru kandidátů zbývá méně řešení, než bylo požadováno
+        EncodeReport limit = new EncoderSession(input, 4095, 1023, BigInteger.ONE)
+                .encodeAllWithReport(3, (hex, sb, esb) -> fail());
+        assertEquals(EncodeReport.Outcome.LIMIT_REACHED, limit.getOutcome());
+        assertNull(limit.getResult());
+    }
+
+    @Test
+    public void test_static_facade() {
+        String[] values = TestValues.telegrams_short[0];
+        List<String> solutions = new ArrayList<>();
+        assertEquals(3, TelegramEncoder.encodeAll(input(values), 3, solutions::add));
+        assertEquals(3, solutions.size());
+        assertEquals(values[1].replace(" ", ""), solutions.get(0));
+        assertEquals(3, solutions.stream().distinct().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_rejects_zero_solutions() {
+        new EncoderSession(input(TestValues.telegrams_short[0])).encodeAll(0, (hex, sb, esb) -> { });
+    }
+
+    @Test
+    public void performance_one_pass_vs_restarts() {
+        String input = input(TestValues.telegrams_short[0]);
+        int count = 8;
+
+        long start = System.nanoTime();
+        int sb = 0;
+        int esb = 0;
+        for (int i = 0; i < count; i++) {
+            EncoderSession session = new EncoderSession(input, sb, esb, BigInteger.ONE);
+            assertNotNull(session.encode());
+            sb = session.getSB();
+            esb = session.getESB();
+        }
+        long restarted = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        assertEquals(count, new EncoderSession(input).encodeAll(count, (hex, s, e) -> { }));
+        long onePass = System.nanoTime() - start;
+
+        System.out.println(String.format("%d encodings: %d restarted searches %.3f ms, one pass %.3f ms",
+                count, count, restarted / 1_000_000.0, onePass / 1_000_000.0));
+    }
+}
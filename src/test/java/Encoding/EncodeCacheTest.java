@@ -0,0 +1,181 @@
+package Encoding;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class EncodeCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String input(String[] values) {
+        return ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""));
+    }
+
+    private static String expected(String[] values) {
+        return values[1].replace(" ", "");
+    }
+
+    @Test
+    public void test_memory_hit() throws Exception {
+        EncodeCache cache = new EncodeCache(folder.newFolder().toPath(), 16);
+        String[] values = TestValues.telegrams_short[0];
+
+        EncodeReport first = new EncoderSession(input(values)).setCache(cache).encodeWithReport();
+        EncodeReport second = new EncoderSession(input(values)).setCache(cache).encodeWithReport();
+
+        assertFalse(first.isCached());
+        assertTrue(second.isCached());
+        assertEquals(expected(values), first.getResult());
+        assertEquals(expected(values), second.getResult());
+        assertEquals(first.getSB(), second.getSB());
+        assertEquals(first.getESB(), second.getESB());
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void test_disk_hit_after_restart() throws Exception {
+        Path dir = folder.newFolder().toPath();
+        EncodeCache cache = new EncodeCache(dir, 16);
+        for (String[] values : TestValues.telegrams_long) {
+            assertEquals(expected(values), new EncoderSession(input(values)).setCache(cache).encode());
+        }
+
+        // Nová instance načte index z disku
+        EncodeCache restarted = new EncodeCache(dir, 16);
+        for (String[] values : TestValues.telegrams_long) {
+            EncodeReport report = new EncoderSession(input(values)).setCache(restarted).encodeWithReport();
+            assertTrue(report.isCached());
+            assertEquals(expected(values), report.getResult());
+        }
+        assertEquals(TestValues.telegrams_long.length, restarted.getDiskHits());
+        assertEquals(0, restarted.getMisses());
+    }
+
+    @Test
+    public void test_concurrent_sessions() throws Exception {
+        Path dir = folder.newFolder().toPath();
+        // Kapacita 1 - většina dotazů jde na disk, souběžné zápisy stejného telegramu
+        EncodeCache cache = new EncodeCache(dir, 1);
+        String[][] telegrams = TestValues.telegrams_short;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4 * telegrams.length; i++) {
+                String[] values = telegrams[i % telegrams.length];
+                results.add(executor.submit(() -> new EncoderSession(input(values)).setCache(cache).encode()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expected(telegrams[i % telegrams.length]), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Každý telegram je v indexu právě jednou
+        assertEquals(telegrams.length * EncodeCache.INDEX_RECORD_BYTES,
+                Files.size(dir.resolve(EncodeCache.INDEX_FILE)));
+        EncodeCache restarted = new EncodeCache(dir, 16);
+        for (String[] values : telegrams) {
+            assertTrue(new EncoderSession(input(values)).setCache(restarted).encodeWithReport().isCached());
+        }
+        assertEquals(telegrams.length, restarted.getDiskHits());
+    }
+
+    @Test
+    public void test_key_includes_search_start() {
+        String in = input(TestValues.telegrams_short[0]);
+        String key = EncodeCache.key(in, 0, 0, BigInteger.ONE, false);
+        assertEquals(key, EncodeCache.key(in, 0, 0, BigInteger.ONE, false));
+        assertNotEquals(key, EncodeCache.key(in, 1, 0, BigInteger.ONE, false));
+        assertNotEquals(key, EncodeCache.key(in, 0, 1, BigInteger.ONE, false));
+        assertNotEquals(key, EncodeCache.key(in, 0, 0, BigInteger.TWO, false));
+        assertNotEquals(key, EncodeCache.key(in, 0, 0, BigInteger.ONE, true));
+        assertNotEquals(key, EncodeCache.key(input(TestValues.telegrams_short[1]), 0, 0, BigInteger.ONE, false));
+    }
+
+    @Test
+    public void test_corrupted_record_is_reencoded() throws Exception {
+        Path dir = folder.newFolder().toPath();
+        String[] values = TestValues.telegrams_short[0];
+        new EncoderSession(input(values)).setCache(new EncodeCache(dir, 16)).encode();
+
+        // Poškození uloženého telegramu - dekodér ho musí odmítnout
+        File data = dir.resolve(EncodeCache.DATA_FILE).toFile();
+        byte[] bytes = Files.readAllBytes(data.toPath());
+        int last = bytes.length - 10;
+        bytes[last] = (byte) (bytes[last] == 'A' ? 'B' : 'A');
+        Files.write(data.toPath(), bytes);
+
+        EncodeCache restarted = new EncodeCache(dir, 16);
+        EncodeReport report = new EncoderSession(input(values)).setCache(restarted).encodeWithReport();
+        assertFalse(report.isCached());
+        assertEquals(expected(values), report.getResult());
+        assertEquals(1, restarted.getMisses());
+    }
+
+    @Test
+    public void test_index_recovered_from_data_file() throws Exception {
+        Path dir = folder.newFolder().toPath();
+        EncodeCache cache = new EncodeCache(dir, 16);
+        for (String[] values : TestValues.telegrams_short) {
+            new EncoderSession(input(values)).setCache(cache).encode();
+        }
+        Files.delete(dir.resolve(EncodeCache.INDEX_FILE));
+
+        EncodeCache restarted = new EncodeCache(dir, 16);
+        for (String[] values : TestValues.telegrams_short) {
+            assertEquals(expected(values), new EncoderSession(input(values)).setCache(restarted).encode());
+        }
+        assertEquals(TestValues.telegrams_short.length, restarted.getDiskHits());
+        assertTrue(Files.exists(dir.resolve(EncodeCache.INDEX_FILE)));
+    }
+
+    @Test
+    public void test_truncated_tail_is_ignored() throws Exception {
+        Path dir = folder.newFolder().toPath();
+        String[] values = TestValues.telegrams_short[0];
+        new EncoderSession(input(values)).setCache(new EncodeCache(dir, 16)).encode();
+        Files.write(dir.resolve(EncodeCache.DATA_FILE), "garbage".getBytes(StandardCharsets.US_ASCII),
+                java.nio.file.StandardOpenOption.APPEND);
+
+        EncodeCache restarted = new EncodeCache(dir, 16);
+        assertEquals(expected(values), new EncoderSession(input(values)).setCache(restarted).encode());
+        assertEquals(1, restarted.getDiskHits());
+    }
+
+    @Test
+    public void performance_repeated_export() throws Exception {
+        EncodeCache cache = new EncodeCache(folder.newFolder().toPath(), EncodeCache.DEFAULT_MEMORY_CAPACITY);
+        String[][] telegrams = TestValues.telegrams_short;
+        for (String[] values : telegrams) {
+            new EncoderSession(input(values)).setCache(cache).encode();
+        }
+
+        // 500 nezměněných řádků
+        long start = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            String[] values = telegrams[i % telegrams.length];
+            assertEquals(expected(values), new EncoderSession(input(values)).setCache(cache).encode());
+        }
+        double ms = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.println(String.format("500 cached encodes: %.3f ms", ms));
+
+        assertTrue("Cached export is too slow: " + ms + " ms", ms < 1000);
+    }
+}
@@ -0,0 +1,73 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class GF2PolynomialTest {
+
+    private static final GF2Polynomial[] ENGINES = {
+            GF2Polynomial.FG_LONG, GF2Polynomial.FG_SHORT,
+            GF2Polynomial.G_LONG, GF2Polynomial.G_SHORT,
+            GF2Polynomial.F_LONG, GF2Polynomial.F_SHORT
+    };
+
+    @Test
+    public void test_degrees() {
+        assertEquals(85, GF2Polynomial.FG_LONG.degree());
+        assertEquals(85, GF2Polynomial.FG_SHORT.degree());
+        assertEquals(75, GF2Polynomial.G_LONG.degree());
+        assertEquals(75, GF2Polynomial.G_SHORT.degree());
+        assertEquals(10, GF2Polynomial.F_LONG.degree());
+        assertEquals(10, GF2Polynomial.F_SHORT.degree());
+    }
+
+    @Test
+    public void test_remainder_matches_long_division() {
+        Random random = new Random(1023);
+        for (int size : new int[]{1023, 341}) {
+            for (int i = 0; i < 20; i++) {
+                BigInteger data = new BigInteger(size, random);
+                String binary = ArithmeticalFunctions.padToEnd(data, size);
+                TelegramBits bits = TelegramBits.fromBigInteger(data, size);
+
+                for (GF2Polynomial engine : ENGINES) {
+                    BigInteger expected = new BigInteger(
+                            ArithmeticalFunctions.polynomialDivision2(binary, engine.toBigInteger()), 2);
+                    assertEquals("Remainder from bit vector", expected, engine.remainder(bits));
+                    assertEquals("Remainder from BigInteger", expected, engine.remainder(data));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_single_pass_remainders() {
+        Random random = new Random(341);
+        long[] out = new long[4];
+        for (int i = 0; i < 20; i++) {
+            TelegramBits bits = TelegramBits.fromBigInteger(new BigInteger(1023, random), 1023);
+            GF2Polynomial.remainders(bits, GF2Polynomial.G_LONG, GF2Polynomial.F_LONG, out);
+
+            BigInteger g = BigInteger.valueOf(out[1]).shiftLeft(64).or(new BigInteger(Long.toUnsignedString(out[0])));
+            assertEquals(GF2Polynomial.G_LONG.remainder(bits), g);
+            assertEquals(GF2Polynomial.F_LONG.remainder(bits), BigInteger.valueOf(out[2]));
+            assertEquals(0, out[3]);
+        }
+    }
+
+    @Test
+    public void test_encoded_telegrams_have_zero_g_syndrome() {
+        for (String[] temp : TestValues.telegrams_long) {
+            String bin = ArithmeticalFunctions.hex2Bin(temp[1].replace(" ", "")).substring(0, 1023);
+            assertEquals(BigInteger.ZERO, GF2Polynomial.G_LONG.remainder(TelegramBits.fromBinaryString(bin)));
+        }
+        for (String[] temp : TestValues.telegrams_short) {
+            String bin = ArithmeticalFunctions.hex2Bin(temp[1].replace(" ", "")).substring(0, 341);
+            assertEquals(BigInteger.ZERO, GF2Polynomial.G_SHORT.remainder(TelegramBits.fromBinaryString(bin)));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+
+public class IncrementalCheckBitsTest {
+
+    /**
+     * Porovná inkrementální check bity s plným dělením pro všechny hodnoty ESB.
+     */
+    private void assertMatchesFullDivision(String[][] telegrams, int sb) {
+        for (String[] temp : telegrams) {
+            TelegramEncoder.Telegram telegram = new TelegramEncoder.Telegram(
+                    ArithmeticalFunctions.hex2Bin(temp[0].replace(" ", "")));
+            int m = telegram.isLongTelegram ? 830 : 210;
+            int size = telegram.getSize();
+
+            BigInteger uTick = TelegramEncoder.determineUTick(telegram.userdata, m);
+            BigInteger scrambled = TelegramEncoder.scrambleUserData(
+                    TelegramEncoder.calculateS(BigInteger.valueOf(sb)), EncryptionHelperList.CURRENT_INPUT, uTick, m);
+            TelegramBits shaped = TelegramBits.fromBigInteger(TelegramEncoder.transform10to11(scrambled, m), size);
+
+            IncrementalCheckBits incremental = new IncrementalCheckBits(telegram.isLongTelegram);
+            TelegramBits base = new TelegramBits(size);
+            base.write(85, (TelegramEncoder.STATIC_VALUE << 10) | (sb << 10), 25);
+            base.or(shaped);
+            incremental.setBase(base);
+
+            TelegramBits expected = new TelegramBits(size);
+            TelegramBits actual = new TelegramBits(size);
+            long[] remainder = new long[2];
+            for (int esb = 0; esb < 1024; esb++) {
+                expected.clear();
+                expected.write(85, (TelegramEncoder.STATIC_VALUE << 10) | (sb << 10) | esb, 25);
+                expected.or(shaped);
+                actual.copyFrom(expected);
+
+                TelegramEncoder.computeCheckBits(expected, telegram.isLongTelegram, remainder);
+                incremental.apply(actual, esb);
+
+                assertEquals("Check bits differ for SB=" + sb + " ESB=" + esb, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void test_incremental_matches_full_division_long() {
+        assertMatchesFullDivision(TestValues.telegrams_long, 27);
+        assertMatchesFullDivision(TestValues.telegrams_long, 4095);
+    }
+
+    @Test
+    public void test_incremental_matches_full_division_short() {
+        assertMatchesFullDivision(TestValues.telegrams_short, 54);
+        assertMatchesFullDivision(TestValues.telegrams_short, 4095);
+    }
+}
@@ -0,0 +1,183 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class ScramblerTest {
+
+    // Původní bitová implementace z TelegramEncoder.scrambleUserData
+    private static BigInteger scrambleReference(BigInteger S, BigInteger userData, int m) {
+        BigInteger scrambled = BigInteger.ZERO;
+        for (int i = m - 1; i >= 0; i--) {
+            boolean t = S.testBit(31);
+            boolean bit = t ^ userData.testBit(i);
+            if (bit) {
+                scrambled = scrambled.setBit(i);
+            }
+            S = S.shiftLeft(1);
+            if (bit) {
+                S = S.xor(EncryptionHelperList.CURRENT_INPUT);
+            }
+        }
+        return scrambled;
+    }
+
+    // Původní implementace z TelegramDecoder.deScramble nad poli znaků
+    private static String descrambleReference(String scrambledBits, int sb) {
+        char[] state = new char[33];
+        String seed = ArithmeticalFunctions.dec2XBin(
+                String.valueOf(Math.round((double) (2801775573L * sb) % 4294967296.0)), 32);
+        System.arraycopy(seed.toCharArray(), 0, state, 0, 32);
+
+        StringBuilder sb2 = new StringBuilder();
+        sb2.append(ArithmeticalFunctions.textXOR(scrambledBits.charAt(0), state[0]));
+        for (int i = 1; i < scrambledBits.length(); i++) {
+            char prev = scrambledBits.charAt(i - 1);
+            for (int j = 0; j < 3; j++) {
+                state[j] = ArithmeticalFunctions.textXOR(state[j + 1], prev);
+            }
+            state[3] = state[4];
+            state[4] = ArithmeticalFunctions.textXOR(state[5], prev);
+            state[5] = state[6];
+            state[6] = ArithmeticalFunctions.textXOR(state[7], prev);
+            System.arraycopy(state, 8, state, 7, 24);
+            state[31] = prev;
+            sb2.append(ArithmeticalFunctions.textXOR(scrambledBits.charAt(i), state[0]));
+        }
+        return sb2.toString();
+    }
+
+    private static String toBinary(BigInteger value, int m) {
+        String digits = value.toString(2);
+        return "0".repeat(m - digits.length()) + digits;
+    }
+
+    @Test
+    public void test_polynomial_mask() {
+        assertEquals(0xEA000001, Scrambler.H);
+        assertEquals(TelegramEncoder.calculateS(BigInteger.valueOf(4095)).intValue(), Scrambler.seed(4095));
+    }
+
+    @Test
+    public void test_scramble_matches_reference() {
+        Random random = new Random(36);
+        for (int m : new int[]{830, 210, 1, 7, 8, 9, 64, 65}) {
+            for (int i = 0; i < 40; i++) {
+                int sb = random.nextInt(4096);
+                BigInteger data = new BigInteger(m, random);
+                BigInteger S = TelegramEncoder.calculateS(BigInteger.valueOf(sb));
+
+                TelegramBits bits = TelegramBits.fromBigInteger(data, m);
+                Scrambler.scramble(Scrambler.seed(sb), bits.words(), bits.words(), m);
+
+                assertEquals("m=" + m + " SB=" + sb, scrambleReference(S, data, m), bits.toBigInteger());
+            }
+        }
+    }
+
+    @Test
+    public void test_scramble_all_sb() {
+        Random random = new Random(5);
+        BigInteger data = new BigInteger(830, random);
+        for (int sb = 0; sb < 4096; sb++) {
+            BigInteger S = TelegramEncoder.calculateS(BigInteger.valueOf(sb));
+            assertEquals("SB=" + sb, scrambleReference(S, data, 830),
+                    TelegramEncoder.scrambleUserData(S, EncryptionHelperList.CURRENT_INPUT, data, 830));
+        }
+    }
+
+    @Test
+    public void test_descramble_matches_reference() {
+        Random random = new Random(12);
+        for (int m : new int[]{830, 210, 13}) {
+            for (int i = 0; i < 40; i++) {
+                int sb = random.nextInt(4096);
+                BigInteger scrambled = new BigInteger(m, random);
+
+                TelegramBits bits = TelegramBits.fromBigInteger(scrambled, m);
+                Scrambler.descramble(Scrambler.seed(sb), bits.words(), bits.words(), m);
+
+                assertEquals("m=" + m + " SB=" + sb,
+                        descrambleReference(toBinary(scrambled, m), sb), bits.toBinaryString());
+            }
+        }
+    }
+
+    @Test
+    public void test_round_trip_long_and_byte() {
+        Random random = new Random(99);
+        for (int m : new int[]{830, 210, 16, 3}) {
+            int sb = random.nextInt(4096);
+            BigInteger data = new BigInteger(m, random);
+
+            long[] words = TelegramBits.fromBigInteger(data, m).words();
+            Scrambler.scramble(Scrambler.seed(sb), words, words, m);
+            long[] restored = words.clone();
+            Scrambler.descramble(Scrambler.seed(sb), restored, restored, m);
+            TelegramBits roundTrip = TelegramBits.fromBigInteger(BigInteger.ZERO, m);
+            System.arraycopy(restored, 0, roundTrip.words(), 0, restored.length);
+            assertEquals(data, roundTrip.toBigInteger());
+
+            // Proud bajtů: první bit je nejvyšší bit prvního bajtu
+            byte[] stream = new byte[(m + 7) / 8];
+            String bits = toBinary(data, m);
+            for (int i = 0; i < m; i++) {
+                if (bits.charAt(i) == '1') {
+                    stream[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+                }
+            }
+            byte[] original = stream.clone();
+            Scrambler.scramble(Scrambler.seed(sb), stream, m);
+            String expected = toBinary(scrambleReference(TelegramEncoder.calculateS(BigInteger.valueOf(sb)), data, m), m);
+            for (int i = 0; i < m; i++) {
+                assertEquals("bit " + i, expected.charAt(i) == '1', (stream[i >>> 3] & (0x80 >>> (i & 7))) != 0);
+            }
+            Scrambler.descramble(Scrambler.seed(sb), stream, m);
+            assertArrayEquals(original, stream);
+        }
+    }
+
+    @Test
+    public void test_vectors_decode_and_encode() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            for (String[] values : telegrams) {
+                String input = values[0].replace(" ", "");
+                String encoded = values[1].replace(" ", "");
+                assertEquals(input, TelegramDecoder.decodeTelegram(encoded).toUpperCase());
+            }
+        }
+        String[] values = TestValues.telegrams_long[0];
+        assertEquals(values[1].replace(" ", ""),
+                TelegramEncoder.encode(ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""))));
+    }
+
+    @Test
+    public void performance_scramble_all_sb() {
+        Random random = new Random(1);
+        BigInteger data = new BigInteger(830, random);
+        long[] words = TelegramBits.fromBigInteger(data, 830).words();
+        long[] out = new long[words.length];
+
+        long start = System.nanoTime();
+        for (int sb = 0; sb < 4096; sb++) {
+            scrambleReference(TelegramEncoder.calculateS(BigInteger.valueOf(sb)), data, 830);
+        }
+        long reference = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            for (int sb = 0; sb < 4096; sb++) {
+                Scrambler.scramble(Scrambler.seed(sb), words, out, 830);
+            }
+        }
+        long table = (System.nanoTime() - start) / 10;
+
+        System.out.println(String.format("Scrambling 4096 SB: BigInteger %.3f ms, table %.3f ms",
+                reference / 1_000_000.0, table / 1_000_000.0));
+        assertTrue(table < reference);
+    }
+}
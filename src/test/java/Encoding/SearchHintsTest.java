@@ -0,0 +1,137 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+public class SearchHintsTest {
+
+    private static String input(String[] values) {
+        return ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""));
+    }
+
+    // Stejný telegram s jiným M_MCOUNT (bity 17..24 hlavičky)
+    private static String withMCount(String input, int mCount) {
+        String bits = String.format("%8s", Integer.toBinaryString(mCount)).replace(' ', '0');
+        return input.substring(0, 17) + bits + input.substring(25);
+    }
+
+    @Test
+    public void test_family_of_header() {
+        assertEquals("021_00018", SearchHints.familyOf(ArithmeticalFunctions.hex2Bin("A0007F02A0094")));
+        assertNull(SearchHints.familyOf("0101"));
+
+        String input = input(TestValues.telegrams_short[0]);
+        assertEquals(SearchHints.familyOf(input), SearchHints.familyOf(withMCount(input, 77)));
+    }
+
+    @Test
+    public void test_record_and_suggest() {
+        SearchHints hints = new SearchHints();
+        assertEquals(-1, hints.suggest("a"));
+
+        hints.record("a", 20);
+        hints.record("a", 40);
+        hints.record("b", 7);
+        assertEquals(40, hints.suggest("a"));
+        assertEquals(7, hints.suggest("b"));
+
+        hints.record("a", 20);
+        assertEquals(20, hints.suggest("a"));
+    }
+
+    @Test
+    public void test_score() {
+        SearchHints hints = new SearchHints();
+        assertTrue(hints.score(20, 20));
+        assertTrue(hints.score(20, 20 + SearchHints.HINT_SPAN - 1));
+        assertFalse(hints.score(20, 20 + SearchHints.HINT_SPAN));
+        assertFalse(hints.score(20, 19));
+        assertFalse(hints.score(20, -1));
+        assertEquals(5, hints.getLookups());
+        assertEquals(2, hints.getHits());
+        assertEquals(0.4, hints.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void test_warm_start_finds_hinted_candidate() {
+        String input = input(TestValues.telegrams_short[0]);
+        EncodeReport canonical = new EncoderSession(input).encodeWithReport();
+
+        SearchHints hints = new SearchHints();
+        hints.record("family", canonical.getSB());
+        EncodeReport warm = new EncoderSession(input).setHints(hints, "family").encodeWithReport();
+
+        // Od začátku hintovaného SB je první platný kandidát ten kanonický
+        assertEquals(canonical.getResult(), warm.getResult());
+        assertEquals(canonical.getSB(), warm.getHintSB());
+        assertTrue(warm.isHintHit());
+        assertTrue(warm.getCandidatesTried() < canonical.getCandidatesTried());
+        assertEquals(1, hints.getHits());
+    }
+
+    @Test
+    public void test_warm_start_wraps_around() {
+        String input = input(TestValues.telegrams_short[1]);
+        SearchHints hints = new SearchHints();
+        hints.record("family", 4095);
+
+        EncodeReport warm = new EncoderSession(input).setHints(hints, "family").encodeWithReport();
+
+        assertTrue(warm.isSuccess());
+        assertEquals(ArithmeticalFunctions.bin2Hex(input),
+                TelegramDecoder.decodeTelegram(warm.getResult()).toUpperCase());
+        assertEquals(warm.getSB(), hints.suggest("family"));
+    }
+
+    @Test
+    public void test_deterministic_ignores_hint() {
+        String input = input(TestValues.telegrams_short[2]);
+        String expected = TestValues.telegrams_short[2][1].replace(" ", "");
+
+        SearchHints hints = new SearchHints();
+        hints.record("family", 2000);
+        EncodeReport report = new EncoderSession(input)
+                .setHints(hints, "family")
+                .setDeterministic(true)
+                .encodeWithReport();
+
+        assertEquals(expected, report.getResult());
+        assertEquals(2000, report.getHintSB());
+        assertFalse(report.isHintHit());
+        assertEquals(1, hints.getLookups());
+        assertEquals(report.getSB(), hints.suggest("family"));
+    }
+
+    @Test
+    public void performance_batch_of_one_family() {
+        String base = input(TestValues.telegrams_short[0]);
+        int batch = 6;
+
+        long canonicalTried = 0;
+        long canonicalNanos = 0;
+        for (int i = 0; i < batch; i++) {
+            EncodeReport report = new EncoderSession(withMCount(base, i)).encodeWithReport();
+            assertTrue(report.isSuccess());
+            canonicalTried += report.getCandidatesTried();
+            canonicalNanos += report.getTotalNanos();
+        }
+
+        SearchHints hints = new SearchHints();
+        long warmTried = 0;
+        long warmNanos = 0;
+        for (int i = 0; i < batch; i++) {
+            String input = withMCount(base, i);
+            EncodeReport report = new EncoderSession(input).setHints(hints).encodeWithReport();
+            assertTrue(report.isSuccess());
+            assertEquals(ArithmeticalFunctions.bin2Hex(input),
+                    TelegramDecoder.decodeTelegram(report.getResult()).toUpperCase());
+            warmTried += report.getCandidatesTried();
+            warmNanos += report.getTotalNanos();
+        }
+
+        System.out.println(String.format("Batch of %d: canonical %d tried / %.1f ms, warm start %d tried / %.1f ms, hint hit rate %.2f",
+                batch, canonicalTried, canonicalNanos / 1_000_000.0, warmTried, warmNanos / 1_000_000.0, hints.getHitRate()));
+        assertEquals(batch - 1, hints.getLookups());
+    }
+}
@@ -0,0 +1,180 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+public class SearchStrategyTest {
+
+    private static String input(String[] values) {
+        return ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""));
+    }
+
+    // Stejný telegram s jiným M_MCOUNT (bity 17..24 hlavičky)
+    private static String withMCount(String input, int mCount) {
+        String bits = String.format("%8s", Integer.toBinaryString(mCount)).replace(' ', '0');
+        return input.substring(0, 17) + bits + input.substring(25);
+    }
+
+    private static void assertBijection(SearchStrategy strategy, int from, int count) {
+        IntUnaryOperator order = strategy.order(from, count);
+        BitSet seen = new BitSet(count);
+        for (int rank = 0; rank < count; rank++) {
+            int offset = order.applyAsInt(rank);
+            assertTrue(strategy + " rank " + rank, offset >= 0 && offset < count);
+            assertFalse(strategy + " offset " + offset + " twice", seen.get(offset));
+            seen.set(offset);
+        }
+    }
+
+    @Test
+    public void test_orders_are_permutations() {
+        SearchStrategy[] strategies = {
+                SearchStrategy.lexicographic(),
+                SearchStrategy.strided(1), SearchStrategy.strided(2), SearchStrategy.strided(1021),
+                SearchStrategy.random(1), SearchStrategy.random(-7),
+                SearchStrategy.warmStart(0), SearchStrategy.warmStart(5), SearchStrategy.warmStart(4095)
+        };
+        for (SearchStrategy strategy : strategies) {
+            for (int count : new int[]{1, 2, 3, 64, 1000, 65539}) {
+                assertBijection(strategy, 1, count);
+            }
+        }
+        // Celý prostor platných hlaviček
+        int count = ValidHeaders.indices().length - ValidHeaders.positionOf(1);
+        assertBijection(SearchStrategy.random(42), 1, count);
+        assertBijection(SearchStrategy.strided(1024), 1, count);
+    }
+
+    @Test
+    public void test_strided_and_warm_start_orders() {
+        // Krok 2 není nesoudělný se 100, použije se 3
+        IntUnaryOperator strided = SearchStrategy.strided(2).order(0, 100);
+        assertEquals(0, strided.applyAsInt(0));
+        assertEquals(3, strided.applyAsInt(1));
+        assertEquals(99, strided.applyAsInt(33));
+
+        int from = 1;
+        int count = ValidHeaders.indices().length - ValidHeaders.positionOf(from);
+        // SB pod 16 nemá žádnou platnou hlavičku, rotace začíná až od SB 20
+        IntUnaryOperator warm = SearchStrategy.warmStart(20).order(from, count);
+        int[] headers = ValidHeaders.indices();
+        int base = ValidHeaders.positionOf(from);
+        int shift = ValidHeaders.positionOf(20 << 10) - base;
+        assertTrue(shift > 0);
+        assertEquals(shift, warm.applyAsInt(0));
+        assertEquals(0, warm.applyAsInt(count - shift));
+        assertEquals(shift - 1, warm.applyAsInt(count - 1));
+        assertTrue(headers[base + warm.applyAsInt(0)] >= 20 << 10);
+        assertTrue(headers[base + warm.applyAsInt(0) - 1] < 20 << 10);
+
+        // Stejné semínko, stejné pořadí
+        IntUnaryOperator a = SearchStrategy.random(9).order(from, count);
+        IntUnaryOperator b = SearchStrategy.random(9).order(from, count);
+        IntUnaryOperator c = SearchStrategy.random(10).order(from, count);
+        int differ = 0;
+        for (int rank = 0; rank < 100; rank++) {
+            assertEquals(a.applyAsInt(rank), b.applyAsInt(rank));
+            differ += a.applyAsInt(rank) != c.applyAsInt(rank) ? 1 : 0;
+        }
+        assertTrue(differ > 90);
+    }
+
+    @Test
+    public void test_lexicographic_matches_reference() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            String[] values = telegrams[0];
+            EncodeReport report = new EncoderSession(input(values))
+                    .setSearchStrategy(SearchStrategy.lexicographic())
+                    .encodeWithReport();
+            assertEquals(values[1].replace(" ", ""), report.getResult());
+        }
+    }
+
+    @Test
+    public void test_other_orders_give_valid_encodings() {
+        String[] values = TestValues.telegrams_short[2];
+        String input = input(values);
+        for (SearchStrategy strategy : new SearchStrategy[]{SearchStrategy.strided(1021), SearchStrategy.random(3)}) {
+            EncodeReport serial = new EncoderSession(input).setSearchStrategy(strategy).encodeWithReport();
+            assertTrue(strategy.toString(), serial.isSuccess());
+            assertEquals(values[0].replace(" ", ""), TelegramDecoder.decodeTelegram(serial.getResult()).toUpperCase());
+            assertEquals(serial.getCandidatesEvaluated(), serial.getCandidatesTried());
+
+            EncodeReport parallel = new EncoderSession(input).setSearchStrategy(strategy)
+                    .setSearchMode(EncoderSession.SearchMode.PARALLEL).encodeWithReport();
+            assertEquals(serial.getResult(), parallel.getResult());
+            assertEquals(serial.getSB(), parallel.getSB());
+            assertEquals(serial.getESB(), parallel.getESB());
+        }
+
+        // Více řešení ve stejném pořadí
+        List<String> solutions = new ArrayList<>();
+        new EncoderSession(input).setSearchStrategy(SearchStrategy.random(3))
+                .encodeAll(3, (hex, sb, esb) -> solutions.add(hex));
+        assertEquals(3, solutions.size());
+        assertEquals(new EncoderSession(input).setSearchStrategy(SearchStrategy.random(3)).encode(), solutions.get(0));
+        assertEquals(3, solutions.stream().distinct().count());
+    }
+
+    @Test
+    public void test_warm_start_strategy_matches_hints() {
+        String input = input(TestValues.telegrams_short[1]);
+        for (int hintSB : new int[]{3, 16, 2000}) {
+            SearchHints hints = new SearchHints();
+            hints.record("family", hintSB);
+            String hinted = new EncoderSession(input).setHints(hints, "family").encode();
+            String strategy = new EncoderSession(input).setSearchStrategy(SearchStrategy.warmStart(hintSB)).encode();
+            assertEquals("SB " + hintSB, hinted, strategy);
+        }
+    }
+
+    @Test
+    public void performance_strategies() {
+        List<String> corpus = new ArrayList<>();
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            for (String[] values : telegrams) {
+                for (int mCount = 0; mCount < 3; mCount++) {
+                    corpus.add(withMCount(input(values), mCount * 85));
+                }
+            }
+        }
+
+        SearchStrategy[] strategies = {null, SearchStrategy.strided(1021), SearchStrategy.random(1), null};
+        String[] names = {"lexicographic", "strided(1021)", "random(1)", "warm-start"};
+        for (int s = 0; s < strategies.length; s++) {
+            SearchHints hints = new SearchHints();
+            long[] evaluated = new long[corpus.size()];
+            long nanos = 0;
+            for (int i = 0; i < corpus.size(); i++) {
+                String input = corpus.get(i);
+                EncoderSession session = new EncoderSession(input);
+                if (s == 3) {
+                    // Teplý start z nápovědy předchozího telegramu stejné rodiny
+                    int hint = hints.suggest(SearchHints.familyOf(input));
+                    if (hint >= 0) {
+                        session.setSearchStrategy(SearchStrategy.warmStart(hint));
+                    }
+                } else {
+                    session.setSearchStrategy(strategies[s]);
+                }
+                EncodeReport report = session.encodeWithReport();
+                assertTrue(report.isSuccess());
+                hints.record(SearchHints.familyOf(input), report.getSB());
+                evaluated[i] = report.getCandidatesEvaluated();
+                nanos += report.getTotalNanos();
+            }
+            Arrays.sort(evaluated);
+            double mean = Arrays.stream(evaluated).average().orElse(0);
+            long p99 = evaluated[Math.min(evaluated.length - 1, (int) Math.ceil(evaluated.length * 0.99) - 1)];
+            System.out.println(String.format("%-14s %d telegrams: candidates to first hit mean %.0f, p99 %d, max %d (%.3f ms)",
+                    names[s], corpus.size(), mean, p99, evaluated[evaluated.length - 1], nanos / 1_000_000.0));
+        }
+    }
+}
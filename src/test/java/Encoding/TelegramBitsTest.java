@@ -0,0 +1,106 @@
+package Encoding;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class TelegramBitsTest {
+
+    @Test
+    public void test_word_count_per_format() {
+        assertEquals(16, TelegramBits.forFormat(true).words().length);
+        assertEquals(6, TelegramBits.forFormat(false).words().length);
+    }
+
+    @Test
+    public void test_round_trip_big_integer() {
+        Random random = new Random(36);
+        for (int size : new int[]{1023, 341}) {
+            for (int i = 0; i < 50; i++) {
+                BigInteger value = new BigInteger(size, random);
+                TelegramBits bits = TelegramBits.fromBigInteger(value, size);
+                assertEquals(value, bits.toBigInteger());
+                assertEquals(value.bitLength(), bits.bitLength());
+            }
+        }
+    }
+
+    @Test
+    public void test_round_trip_binary_string() {
+        Random random = new Random(7);
+        for (int size : new int[]{1023, 341, 830, 1}) {
+            BigInteger value = new BigInteger(size, random);
+            String digits = value.toString(2);
+            String binary = "0".repeat(size - digits.length()) + digits;
+            TelegramBits bits = TelegramBits.fromBinaryString(binary);
+            assertEquals(binary, bits.toBinaryString());
+            assertEquals(value, bits.toBigInteger());
+        }
+    }
+
+    @Test
+    public void test_extract_matches_big_integer() {
+        Random random = new Random(11);
+        BigInteger value = new BigInteger(1023, random);
+        TelegramBits bits = TelegramBits.fromBigInteger(value, 1023);
+
+        // Čtení i za koncem vektoru musí vracet nuly jako BigInteger.shiftRight
+        for (int position = 0; position < 1400; position++) {
+            int expected = value.shiftRight(position).intValue() & 0x7FF;
+            assertEquals("Window at " + position, expected, bits.extract(position, 11));
+        }
+    }
+
+    @Test
+    public void test_extract_wrap_reads_cyclically() {
+        Random random = new Random(7);
+        int size = 341;
+        BigInteger value = new BigInteger(size, random);
+        TelegramBits bits = TelegramBits.fromBigInteger(value, size);
+        BigInteger doubled = value.shiftLeft(size).or(value);
+
+        for (int position = 0; position < 2 * size - 11; position++) {
+            int expected = doubled.shiftRight(position).intValue() & 0x7FF;
+            assertEquals("Wrapped window at " + position, expected, bits.extractWrap(position, 11));
+        }
+    }
+
+    @Test
+    public void test_write_and_or_in_place() {
+        TelegramBits bits = new TelegramBits(1023);
+        bits.write(60, 0x1FFFFFFL, 25);
+        assertEquals(0x1FFFFFF, bits.extract(60, 25));
+
+        bits.write(62, 0, 4);
+        assertEquals(0x1FFFFC3, bits.extract(60, 25));
+
+        TelegramBits other = new TelegramBits(1023);
+        other.setBit(1022);
+        bits.or(other);
+        assertTrue(bits.testBit(1022));
+        assertEquals(1023, bits.bitLength());
+
+        bits.clear();
+        assertEquals(0, bits.bitLength());
+    }
+
+    @Test
+    public void test_byte_array_matches_binary_string() {
+        Random random = new Random(20);
+        for (int size : new int[]{1023, 341, 8, 13}) {
+            TelegramBits bits = TelegramBits.fromBigInteger(new BigInteger(size, random), size);
+            byte[] bytes = bits.toByteArray();
+            assertEquals((size + 7) / 8, bytes.length);
+            // Binární řetězec doplněný nulami na celé bajty
+            StringBuilder binary = new StringBuilder(bits.toBinaryString());
+            while (binary.length() % 8 != 0) {
+                binary.append('0');
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                assertEquals("bajt " + i, Integer.parseInt(binary.substring(8 * i, 8 * i + 8), 2), bytes[i] & 0xFF);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.After;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import static org.junit.Assert.*;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
@@ -260,4 +261,205 @@ public class TelegramDecoderTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    private static byte[] bytes(String hex) {
+        hex = hex.replace(" ", "");
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void test_decode_bytes() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            boolean isLong = telegrams == TestValues.telegrams_long;
+            for (String[] temp : telegrams) {
+                String expected = temp[0].replace(" ", "");
+                DecodeResult result = TelegramDecoder.decode(bytes(temp[1]));
+                assertTrue(result.toString(), result.isSuccess());
+                assertNull(result.getFailureStage());
+                assertEquals(isLong, result.isLongFormat());
+                assertEquals(expected, result.getUserDataHex());
+                assertEquals(isLong ? 830 : 210, result.getUserData().size());
+                assertEquals(isLong ? 104 : 27, result.getUserDataBytes().length);
+                assertEquals(0b001, result.getControlBits());
+                assertFalse(result.isInverted());
+                assertTrue(result.getSyndrome() >= 0);
+                assertTrue(result.getSubstitutionIndex() >= 0);
+
+                // Telegram uprostřed bufferu, pozice se nemění
+                byte[] telegram = bytes(temp[1]);
+                ByteBuffer buffer = ByteBuffer.allocate(telegram.length + 7);
+                buffer.position(5);
+                buffer.put(telegram);
+                buffer.position(5).limit(5 + telegram.length);
+                DecodeResult fromBuffer = TelegramDecoder.decode(buffer);
+                assertEquals(5, buffer.position());
+                assertEquals(expected, fromBuffer.getUserDataHex());
+                assertEquals(result.getSyndrome(), fromBuffer.getSyndrome());
+            }
+        }
+    }
+
+    @Test
+    public void test_decode_failure_stages() {
+        DecodeResult tooShort = TelegramDecoder.decode(new byte[42]);
+        assertEquals(DecodeResult.Stage.FORMAT, tooShort.getFailureStage());
+        assertNull(tooShort.getUserData());
+        assertEquals("", tooShort.getUserDataHex());
+
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            byte[] telegram = bytes(telegrams[0][1]);
+            telegram[5] ^= 0x10;
+            DecodeResult corrupted = TelegramDecoder.decode(telegram);
+            assertEquals(DecodeResult.Stage.G_SYNDROME, corrupted.getFailureStage());
+            assertEquals(-1, corrupted.getSyndrome());
+            assertEquals(-1, corrupted.getControlBits());
+        }
+    }
+
+    @Test
+    public void test_decode_inverted() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            byte[] telegram = bytes(telegrams[0][1]);
+            DecodeResult plain = TelegramDecoder.decode(telegram);
+            // Celý telegram vysílaný invertovaně (b109 = 1)
+            for (int i = 0; i < telegram.length; i++) {
+                telegram[i] = (byte) ~telegram[i];
+            }
+            DecodeResult inverted = TelegramDecoder.decode(telegram);
+            assertTrue(inverted.toString(), inverted.isSuccess());
+            assertTrue(inverted.isInverted());
+            assertEquals(0b110, inverted.getControlBits());
+            assertEquals(plain.getUserDataHex(), inverted.getUserDataHex());
+        }
+    }
+
+    // Převrátí bit telegramu, počítáno od prvního vysílaného bitu
+    private static byte[] flip(byte[] telegram, int... bits) {
+        byte[] damaged = telegram.clone();
+        for (int bit : bits) {
+            damaged[bit >>> 3] ^= (byte) (0x80 >>> (bit & 7));
+        }
+        return damaged;
+    }
+
+    @Test
+    public void test_correct_single_bit_errors() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            int n = telegrams == TestValues.telegrams_long ? 1023 : 341;
+            byte[] telegram = bytes(telegrams[1][1]);
+            String expected = telegrams[1][0].replace(" ", "");
+
+            DecodeResult clean = TelegramDecoder.decode(telegram, true);
+            assertTrue(clean.isSuccess());
+            assertFalse(clean.isCorrected());
+            assertEquals(0, clean.getCorrectedBits().length);
+
+            for (int bit = 0; bit < n; bit++) {
+                byte[] damaged = flip(telegram, bit);
+                assertEquals(DecodeResult.Stage.G_SYNDROME, TelegramDecoder.decode(damaged).getFailureStage());
+                DecodeResult corrected = TelegramDecoder.decode(damaged, true);
+                assertTrue(corrected.toString(), corrected.isSuccess());
+                assertTrue(corrected.isCorrected());
+                assertArrayEquals(new int[]{bit}, corrected.getCorrectedBits());
+                assertEquals(expected, corrected.getUserDataHex());
+                assertEquals(clean.getSubstitutionIndex(), corrected.getSubstitutionIndex());
+            }
+        }
+    }
+
+    @Test
+    public void test_correct_double_bit_errors() {
+        byte[] telegram = bytes(TestValues.telegrams_short[2][1]);
+        String expected = TestValues.telegrams_short[2][0].replace(" ", "");
+        for (int bit = 0; bit < 341; bit++) {
+            for (int span = 1; span <= SyndromeTable.MAX_DOUBLE_SPAN; span++) {
+                int second = (bit + span) % 341;
+                DecodeResult corrected = TelegramDecoder.decode(flip(telegram, bit, second), true);
+                assertTrue(corrected.toString(), corrected.isSuccess());
+                assertArrayEquals(new int[]{Math.min(bit, second), Math.max(bit, second)}, corrected.getCorrectedBits());
+                assertEquals(expected, corrected.getUserDataHex());
+            }
+        }
+
+        // Dlouhý telegram: chyby přes konec telegramu a invertovaný telegram
+        byte[] longTelegram = bytes(TestValues.telegrams_long[0][1]);
+        byte[] inverted = longTelegram.clone();
+        for (int i = 0; i < inverted.length; i++) {
+            inverted[i] = (byte) ~inverted[i];
+        }
+        for (byte[] source : new byte[][]{longTelegram, inverted}) {
+            DecodeResult corrected = TelegramDecoder.decode(flip(source, 1020, 7), true);
+            assertTrue(corrected.toString(), corrected.isSuccess());
+            assertArrayEquals(new int[]{7, 1020}, corrected.getCorrectedBits());
+            assertEquals(source == inverted, corrected.isInverted());
+            assertEquals(TestValues.telegrams_long[0][0].replace(" ", ""), corrected.getUserDataHex());
+        }
+
+        // Vzdálené dvojité chyby a trojité chyby tabulka neobsahuje
+        DecodeResult far = TelegramDecoder.decode(flip(longTelegram, 100, 600), true);
+        assertEquals(DecodeResult.Stage.G_SYNDROME, far.getFailureStage());
+        assertFalse(far.isCorrected());
+        DecodeResult triple = TelegramDecoder.decode(flip(telegram, 10, 11, 12), true);
+        assertFalse(triple.isSuccess());
+    }
+
+    @Test
+    public void performance_decode_with_correction() {
+        byte[] telegram = bytes(TestValues.telegrams_long[0][1]);
+        byte[] damaged = flip(telegram, 500, 510);
+        int iterations = 2000;
+
+        long start = System.nanoTime();
+        assertTrue(TelegramDecoder.decode(damaged, true).isSuccess());
+        long build = System.nanoTime() - start;
+        for (int i = 0; i < 100; i++) {
+            TelegramDecoder.decode(telegram);
+            TelegramDecoder.decode(damaged, true);
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertTrue(TelegramDecoder.decode(telegram).isSuccess());
+        }
+        long clean = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertTrue(TelegramDecoder.decode(damaged, true).isCorrected());
+        }
+        long corrected = System.nanoTime() - start;
+
+        System.out.println(String.format("%d long telegrams: clean %.3f ms, double error corrected %.3f ms (first call %.3f ms)",
+                iterations, clean / 1_000_000.0, corrected / 1_000_000.0, build / 1_000_000.0));
+    }
+
+    @Test
+    public void performance_decode_bytes_vs_hex() {
+        String hex = TestValues.telegrams_long[0][1].replace(" ", "");
+        byte[] telegram = bytes(hex);
+        int iterations = 2000;
+        for (int i = 0; i < 100; i++) {
+            TelegramDecoder.decode(telegram);
+            TelegramDecoder.decodeTelegram(hex);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertEquals(830, TelegramDecoder.decodeTelegram(hex).length() * 4 - 2);
+        }
+        long fromHex = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertTrue(TelegramDecoder.decode(telegram).isSuccess());
+        }
+        long fromBytes = System.nanoTime() - start;
+
+        System.out.println(String.format("%d long telegrams: hex %.3f ms, bytes %.3f ms",
+                iterations, fromHex / 1_000_000.0, fromBytes / 1_000_000.0));
+    }
+}
@@ -10,6 +10,7 @@ import tools.crypto.ArithmeticalFunctions;
 import static org.junit.Assert.*;
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -61,6 +62,211 @@ public class TelegramEncoderTest {
         }
     }
 
+    @Test
+    public void encode_long_parallel_functional() {
+        // Paralelní hledání musí vrátit stejného (nejnižšího) kandidáta jako sériové
+        for (String[] temp : TestValues.telegrams_long) {
+            String input = ArithmeticalFunctions.hex2Bin(temp[0].replace(" ", ""));
+            String expected = temp[1].replace(" ", "");
+
+            String result = TelegramEncoder.encode(input, EncoderSession.SearchMode.PARALLEL);
+
+            assertNotNull("Parallel encoding returned null for input: " + temp[0], result);
+            assertEquals("Parallel encoding failed for input: " + temp[0], expected, result);
+        }
+    }
+
+    @Test
+    public void encode_adaptive_order_functional() {
+        // Adaptivní pořadí podmínek nesmí změnit výsledek
+        String[][][] sets = {TestValues.telegrams_short, TestValues.telegrams_long};
+        for (String[][] telegrams : sets) {
+            for (String[] temp : telegrams) {
+                String input = ArithmeticalFunctions.hex2Bin(temp[0].replace(" ", ""));
+                String expected = temp[1].replace(" ", "");
+
+                String result = new EncoderSession(input)
+                        .setConditionOrder(EncoderSession.ConditionOrder.ADAPTIVE)
+                        .encode();
+
+                assertEquals("Adaptive encoding failed for input: " + temp[0], expected, result);
+            }
+        }
+    }
+
+    @Test
+    public void test_condition_stats() {
+        String input = ArithmeticalFunctions.hex2Bin(TestValues.telegrams_long[0][0].replace(" ", ""));
+        EncoderSession session = new EncoderSession(input);
+        assertNotNull(session.encode());
+
+        // V pevném pořadí vidí každá podmínka právě kandidáty, kteří prošli předchozími
+        List<EncoderSession.ConditionStats> stats = session.getConditionStats();
+        for (int i = 1; i < stats.size(); i++) {
+            EncoderSession.ConditionStats previous = stats.get(i - 1);
+            assertEquals(stats.get(i).toString(),
+                    previous.getChecked() - previous.getRejected(), stats.get(i).getChecked());
+        }
+        EncoderSession.ConditionStats last = stats.get(stats.size() - 1);
+        assertEquals("Only the accepted candidate passes all conditions", 1, last.getChecked() - last.getRejected());
+    }
+
+    @Test
+    public void test_encode_with_report() {
+        String[][][] sets = {TestValues.telegrams_short, TestValues.telegrams_long};
+        for (String[][] telegrams : sets) {
+            for (String[] temp : telegrams) {
+                String input = ArithmeticalFunctions.hex2Bin(temp[0].replace(" ", ""));
+                EncodeReport report = TelegramEncoder.encodeWithReport(input);
+
+                assertTrue(report.isSuccess());
+                assertFalse(report.isLimitReached());
+                assertEquals(temp[1].replace(" ", ""), report.getResult());
+
+                // SB a ESB z reportu musí odpovídat hlavičce zakódovaného telegramu
+                int n = input.length() > 500 ? 1023 : 341;
+                TelegramBits bits = TelegramBits.fromBinaryString(
+                        ArithmeticalFunctions.hex2Bin(report.getResult()).substring(0, n));
+                int index = (report.getSB() << 10) | report.getESB();
+                assertEquals(bits.extract(85, 22), index);
+
+                // Hledání začíná indexem 1, takže počet zkoušených kandidátů je roven nalezenému indexu
+                assertEquals(index, report.getCandidatesTried());
+                assertEquals(report.getCandidatesEvaluated(),
+                        report.getCondition(EncoderSession.Condition.ALPHABET).getChecked());
+                assertTrue(report.getCandidatesEvaluated() <= report.getCandidatesTried());
+                assertTrue(report.getTotalNanos() > 0);
+                assertNotNull(report.toString());
+
+                // Časy jednotlivých fází
+                assertTrue(report.getScrambleNanos() > 0);
+                assertTrue(report.getShapingNanos() > 0);
+                assertTrue(report.getCheckBitsNanos() > 0);
+
+                // Každý vyhodnocený kandidát je zamítnut právě jednou podmínkou, kromě nalezeného
+                assertEquals(EncoderSession.Condition.values().length, report.getConditions().size());
+                long remaining = report.getCandidatesEvaluated();
+                long rejected = 0;
+                for (EncoderSession.ConditionStats stats : report.getConditions()) {
+                    assertEquals(remaining, stats.getChecked());
+                    assertTrue(stats.getRejected() <= stats.getChecked());
+                    remaining -= stats.getRejected();
+                    rejected += stats.getRejected();
+                }
+                assertEquals(1, remaining);
+                assertEquals(report.getCandidatesEvaluated(), rejected + 1);
+            }
+        }
+    }
+
+    @Test
+    public void test_encode_with_report_limit_reached() {
+        String input = ArithmeticalFunctions.hex2Bin(TestValues.telegrams_short[0][0].replace(" ", ""));
+        EncodeReport report = TelegramEncoder.encodeWithReport(input, 4095, 1023, BigInteger.ONE);
+
+        assertNull(report.getResult());
+        assertFalse(report.isSuccess());
+        assertTrue(report.isLimitReached());
+        assertEquals(0, report.getCandidatesTried());
+    }
+
+    @Test
+    public void test_encode_cancellation_and_progress() {
+        String input = ArithmeticalFunctions.hex2Bin(TestValues.telegrams_long[0][0].replace(" ", ""));
+
+        for (EncoderSession.SearchMode mode : EncoderSession.SearchMode.values()) {
+            // Zrušení z progress callbacku při prvním hlášení
+            CancellationToken token = new CancellationToken();
+            List<long[]> progress = new java.util.concurrent.CopyOnWriteArrayList<>();
+            EncodeReport report = new EncoderSession(input)
+                    .setSearchMode(mode)
+                    .setCancellationToken(token)
+                    .setProgressListener((tried, total) -> {
+                        progress.add(new long[]{tried, total});
+                        token.cancel();
+                    })
+                    .encodeWithReport();
+
+            assertEquals(mode.toString(), EncodeReport.Outcome.CANCELLED, report.getOutcome());
+            assertNull(report.getResult());
+            assertFalse(progress.isEmpty());
+            assertEquals(EncoderSession.SEARCH_SPACE - 1, progress.get(0)[1]);
+            assertTrue(progress.get(0)[0] >= EncoderSession.CHECKPOINT_INTERVAL);
+            assertTrue("Search must stop soon after cancellation",
+                    report.getCandidatesTried() < 4L * EncoderSession.CHECKPOINT_INTERVAL);
+        }
+    }
+
+    @Test
+    public void test_encode_deadline() {
+        String input = ArithmeticalFunctions.hex2Bin(TestValues.telegrams_long[0][0].replace(" ", ""));
+
+        EncodeReport expired = new EncoderSession(input)
+                .setDeadline(java.time.Instant.now().minusSeconds(1))
+                .encodeWithReport();
+        assertEquals(EncodeReport.Outcome.DEADLINE_EXCEEDED, expired.getOutcome());
+        assertEquals(0, expired.getCandidatesTried());
+
+        EncodeReport inTime = new EncoderSession(input)
+                .setDeadline(java.time.Instant.now().plusSeconds(60))
+                .setCancellationToken(new CancellationToken())
+                .encodeWithReport();
+        assertEquals(EncodeReport.Outcome.FOUND, inTime.getOutcome());
+        assertEquals(TestValues.telegrams_long[0][1].replace(" ", ""), inTime.getResult());
+    }
+
+    @Test
+    public void performance_fixed_vs_adaptive_order() {
+        long fixedTotal = 0;
+        long adaptiveTotal = 0;
+        String[][][] sets = {TestValues.telegrams_short, TestValues.telegrams_long};
+        for (String[][] telegrams : sets) {
+            for (String[] temp : telegrams) {
+                String input = ArithmeticalFunctions.hex2Bin(temp[0].replace(" ", ""));
+
+                long start = System.nanoTime();
+                String fixed = new EncoderSession(input).encode();
+                long mid = System.nanoTime();
+                String adaptive = new EncoderSession(input)
+                        .setConditionOrder(EncoderSession.ConditionOrder.ADAPTIVE)
+                        .encode();
+                long end = System.nanoTime();
+
+                fixedTotal += mid - start;
+                adaptiveTotal += end - mid;
+                assertEquals("Fixed and adaptive order differ", fixed, adaptive);
+            }
+        }
+
+        System.out.println(String.format("Condition order - fixed: %.3f ms, adaptive: %.3f ms",
+                fixedTotal / 1_000_000.0, adaptiveTotal / 1_000_000.0));
+    }
+
+    @Test
+    public void performance_parallel_vs_serial_long() {
+        // Porovnání sériového a paralelního hledání na dlouhých telegramech
+        long serialTotal = 0;
+        long parallelTotal = 0;
+
+        for (String[] temp : TestValues.telegrams_long) {
+            String input = ArithmeticalFunctions.hex2Bin(temp[0].replace(" ", ""));
+
+            long start = System.nanoTime();
+            String serial = TelegramEncoder.encode(input, EncoderSession.SearchMode.SERIAL);
+            long mid = System.nanoTime();
+            String parallel = TelegramEncoder.encode(input, EncoderSession.SearchMode.PARALLEL);
+            long end = System.nanoTime();
+
+            serialTotal += mid - start;
+            parallelTotal += end - mid;
+            assertEquals("Serial and parallel search differ", serial, parallel);
+        }
+
+        System.out.println(String.format("Long telegrams - serial: %.3f ms, parallel: %.3f ms (%d threads)",
+                serialTotal / 1_000_000.0, parallelTotal / 1_000_000.0,
+                java.util.concurrent.ForkJoinPool.commonPool().getParallelism()));
+    }
+
     @Test
     public void performance_encode_short() {
         String[] testData = TestValues.telegrams_short[0];
@@ -172,31 +378,54 @@ public class TelegramEncoderTest {
     @Test
     public void test_concurrent_encoding() throws InterruptedException {
         final int threadCount = 5;
+        final int roundsPerThread = 2;
+        final CountDownLatch start = new CountDownLatch(1);
         final CountDownLatch latch = new CountDownLatch(threadCount);
         final AtomicInteger successCount = new AtomicInteger(0);
 
         String[] testData = TestValues.telegrams_short[0];
         final String input = ArithmeticalFunctions.hex2Bin(testData[0].replace(" ", ""));
 
+        // Referenční výsledky spočtené sekvenčně
+        final String[] expected = new String[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            expected[i] = TelegramEncoder.encode(input, i * 10, i * 5, BigInteger.valueOf(i + 1));
+            assertNotNull("Sequential encoding failed for thread " + i, expected[i]);
+        }
+
+        final String[] mismatch = new String[threadCount];
+
         for (int i = 0; i < threadCount; i++) {
             final int threadId = i;
             new Thread(() -> {
                 try {
-                    // Každé vlákno použije jiné parametry
-                    String result = TelegramEncoder.encode(input, threadId * 10, threadId * 5, BigInteger.valueOf(threadId + 1));
-                    if (result != null) {
-                        successCount.incrementAndGet();
-                        System.out.println("Thread " + threadId + " succeeded");
+                    start.await();
+                    for (int round = 0; round < roundsPerThread; round++) {
+                        // Každé vlákno použije jiné parametry
+                        String result = TelegramEncoder.encode(input, threadId * 10, threadId * 5, BigInteger.valueOf(threadId + 1));
+                        if (!expected[threadId].equals(result)) {
+                            mismatch[threadId] = result;
+                            return;
+                        }
                     }
+                    successCount.incrementAndGet();
+                    System.out.println("Thread " + threadId + " succeeded");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 } finally {
                     latch.countDown();
                 }
             }).start();
         }
 
+        // Všechna vlákna startují současně, aby se hledání překrývala
+        start.countDown();
         latch.await();
 
-        assertTrue("Not all threads succeeded", successCount.get() >= threadCount / 2);
+        for (int i = 0; i < threadCount; i++) {
+            assertNull("Thread " + i + " produced a different encoding under contention", mismatch[i]);
+        }
+        assertEquals("Not all threads succeeded", threadCount, successCount.get());
     }
 
     @Test
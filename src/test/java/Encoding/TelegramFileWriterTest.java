@@ -0,0 +1,118 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TelegramFileWriterTest {
+
+    private static String input(String[] values) {
+        return ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""));
+    }
+
+    // Původní převod hex -> bajty z DockPanelBuilder
+    private static byte[] legacyBytes(String hex) {
+        List<Byte> tmp = new ArrayList<>();
+        for (int i = 0; i < hex.length() - 1; i += 2) {
+            tmp.add((byte) ArithmeticalFunctions.bin2Dec(ArithmeticalFunctions.hex2Bin(hex.charAt(i) + "" + hex.charAt(i + 1))));
+        }
+        byte[] bytes = new byte[tmp.size()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = tmp.get(i);
+        }
+        return bytes;
+    }
+
+    private static void deleteTree(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void test_bytes_match_hex_result() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            String[] values = telegrams[0];
+            EncodeReport report = TelegramEncoder.encodeWithReport(input(values));
+            byte[] bytes = report.getBytes();
+            assertEquals(telegrams == TestValues.telegrams_long ? 128 : 43, bytes.length);
+            assertArrayEquals(legacyBytes(values[1].replace(" ", "")), bytes);
+            assertArrayEquals(bytes, TelegramEncoder.encodeToBytes(input(values)));
+
+            // Výsledek z cache dává stejné bajty
+            EncodeCache cache = new EncodeCache(null, 16);
+            new EncoderSession(input(values)).setCache(cache).encode();
+            EncodeReport cached = new EncoderSession(input(values)).setCache(cache).encodeWithReport();
+            assertTrue(cached.isCached());
+            assertArrayEquals(bytes, cached.getBytes());
+        }
+        assertNull(new EncoderSession(input(TestValues.telegrams_short[0]), 4095, 1023, BigInteger.ONE).encodeToBytes());
+    }
+
+    @Test
+    public void test_write_replaces_file() throws IOException {
+        Path directory = Files.createTempDirectory("tlg");
+        try {
+            Path target = directory.resolve("1_2_3_4_v000.tlg");
+            byte[] first = TelegramEncoder.encodeToBytes(input(TestValues.telegrams_long[0]));
+            TelegramFileWriter.write(target, first);
+            assertArrayEquals(first, Files.readAllBytes(target));
+
+            byte[] second = TelegramEncoder.encodeToBytes(input(TestValues.telegrams_short[0]));
+            TelegramFileWriter.write(target, second);
+            assertArrayEquals(second, Files.readAllBytes(target));
+
+            // Po zápisu nezůstal žádný dočasný soubor
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            deleteTree(directory);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void test_missing_directory() throws IOException {
+        Path directory = Files.createTempDirectory("tlg");
+        Files.delete(directory);
+        TelegramFileWriter.write(directory.resolve("x.tlg"), new byte[43]);
+    }
+
+    @Test
+    public void performance_bytes_vs_hex_round_trip() {
+        TelegramEncoder.Telegram telegram = new TelegramEncoder.Telegram(input(TestValues.telegrams_long[0]));
+        telegram.transformData.setFrom(new BigInteger(
+                ArithmeticalFunctions.hex2Bin(TestValues.telegrams_long[0][1].replace(" ", "")), 2).shiftRight(1));
+        int rounds = 2000;
+
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            String binary = TelegramEncoder.padStart(telegram.transformData.toBigInteger().toString(2), 1023, '0');
+            String hex = ArithmeticalFunctions.bin2Hex(TelegramEncoder.padEnd(binary, 1024, '0'));
+            sink += legacyBytes(hex)[i & 127];
+        }
+        long legacy = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += telegram.transformData.toByteArray()[i & 127];
+        }
+        long direct = System.nanoTime() - start;
+
+        assertArrayEquals(legacyBytes(TestValues.telegrams_long[0][1].replace(" ", "")), telegram.transformData.toByteArray());
+        System.out.println(String.format("%d long telegrams to bytes: hex round trip %.3f ms, direct %.3f ms (%d)",
+                rounds, legacy / 1_000_000.0, direct / 1_000_000.0, sink & 1));
+    }
+}
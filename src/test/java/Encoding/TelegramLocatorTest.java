@@ -0,0 +1,148 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TelegramLocatorTest {
+
+    // Binární řetězec prvních n bitů telegramu
+    private static String telegram(String[] values, int n) {
+        return ArithmeticalFunctions.hex2Bin(values[1].replace(" ", "")).substring(0, n);
+    }
+
+    private static String random(Random random, int bits) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < bits; i++) {
+            builder.append(random.nextBoolean() ? '1' : '0');
+        }
+        return builder.toString();
+    }
+
+    private static byte[] pack(String binary) {
+        byte[] bytes = new byte[(binary.length() + 7) / 8];
+        for (int i = 0; i < binary.length(); i++) {
+            if (binary.charAt(i) == '1') {
+                bytes[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+            }
+        }
+        return bytes;
+    }
+
+    // Referenční hledání: plné dělení g(x) pro každé okno
+    private static int[] bruteForce(byte[] capture, int bits, boolean isLong) {
+        int n = isLong ? 1023 : 341;
+        GF2Polynomial g = isLong ? GF2Polynomial.G_LONG : GF2Polynomial.G_SHORT;
+        long[] remainder = new long[2];
+        List<Integer> offsets = new ArrayList<>();
+        for (int offset = 0; offset < bits; offset++) {
+            g.remainder(TelegramLocator.window(capture, bits, offset, n), remainder);
+            if (remainder[0] == 0 && remainder[1] == 0) {
+                offsets.add(offset);
+            }
+        }
+        return offsets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void test_shift_in_matches_remainder() {
+        Random random = new Random(22);
+        for (GF2Polynomial p : new GF2Polynomial[]{GF2Polynomial.G_LONG, GF2Polynomial.F_SHORT, GF2Polynomial.FG_LONG}) {
+            String binary = random(random, 1023);
+            long[] register = new long[2];
+            for (int i = 0; i < binary.length(); i++) {
+                p.shiftIn(register, binary.charAt(i) - '0');
+            }
+            long[] expected = new long[2];
+            p.remainder(TelegramBits.fromBinaryString(binary), expected);
+            assertArrayEquals(expected, register);
+        }
+    }
+
+    @Test
+    public void test_locates_telegram_between_noise() {
+        Random random = new Random(7);
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            boolean isLong = telegrams == TestValues.telegrams_long;
+            int n = isLong ? 1023 : 341;
+            String[] values = telegrams[1];
+            String telegram = telegram(values, n);
+            // Šum na hranicích telegramu nepokračuje cyklicky v telegramu
+            String before = random(random, 212) + (telegram.charAt(n - 1) == '1' ? '0' : '1');
+            String after = (telegram.charAt(0) == '1' ? '0' : '1') + random(random, 149);
+            String capture = before + telegram + after;
+            byte[] packed = pack(capture);
+
+            int[] offsets = TelegramLocator.locate(packed, capture.length(), isLong);
+            assertArrayEquals(new int[]{213}, offsets);
+            assertArrayEquals(bruteForce(packed, capture.length(), isLong), offsets);
+
+            DecodeResult result = TelegramLocator.decodeCapture(packed, capture.length());
+            assertTrue(result.toString(), result.isSuccess());
+            assertEquals(values[0].replace(" ", ""), result.getUserDataHex());
+        }
+    }
+
+    @Test
+    public void test_repeated_telegram_at_any_offset() {
+        String[] values = TestValues.telegrams_short[2];
+        String telegram = telegram(values, 341);
+        // Záznam začíná uprostřed telegramu a obsahuje tři opakování
+        String capture = telegram.substring(100) + telegram + telegram + telegram.substring(0, 100);
+        byte[] packed = pack(capture);
+
+        int[] offsets = TelegramLocator.locate(packed, capture.length(), false);
+        assertEquals(capture.length(), offsets.length);
+        DecodeResult result = TelegramLocator.decodeCapture(packed, capture.length());
+        assertTrue(result.isSuccess());
+        assertEquals(100, result.getSubstitutionIndex());
+        assertEquals(values[0].replace(" ", ""), result.getUserDataHex());
+
+        // Prokluz o jeden bit ve druhém opakování
+        String slipped = telegram + telegram.substring(0, 200) + telegram.substring(201) + telegram;
+        int[] hits = TelegramLocator.locate(pack(slipped), slipped.length(), false);
+        assertTrue(hits.length > 0 && hits.length < slipped.length());
+        assertArrayEquals(bruteForce(pack(slipped), slipped.length(), false), hits);
+    }
+
+    @Test
+    public void test_no_telegram() {
+        Random random = new Random(3);
+        String capture = random(random, 2000);
+        assertEquals(0, TelegramLocator.locate(pack(capture), capture.length(), true).length);
+        DecodeResult result = TelegramLocator.decodeCapture(pack(capture), capture.length());
+        assertEquals(DecodeResult.Stage.G_SYNDROME, result.getFailureStage());
+        assertEquals(DecodeResult.Stage.FORMAT, TelegramLocator.decodeCapture(new byte[40], 320).getFailureStage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_rejects_short_capture() {
+        TelegramLocator.locate(new byte[100], 800, true);
+    }
+
+    @Test
+    public void performance_rolling_vs_full_division() {
+        Random random = new Random(11);
+        String capture = random(random, 600) + telegram(TestValues.telegrams_long[0], 1023) + random(random, 423);
+        byte[] packed = pack(capture);
+        for (int i = 0; i < 5; i++) {
+            TelegramLocator.locate(packed, capture.length(), true);
+        }
+
+        long start = System.nanoTime();
+        int[] rolling = TelegramLocator.locate(packed, capture.length(), true);
+        long rollingNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] full = bruteForce(packed, capture.length(), true);
+        long fullNanos = System.nanoTime() - start;
+
+        assertArrayEquals(full, rolling);
+        System.out.println(String.format("%d windows of a long telegram: rolling syndrome %.3f ms, full divisions %.3f ms",
+                capture.length(), rollingNanos / 1_000_000.0, fullNanos / 1_000_000.0));
+    }
+}
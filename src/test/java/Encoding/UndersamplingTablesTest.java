@@ -0,0 +1,156 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+public class UndersamplingTablesTest {
+
+    /**
+     * Původní výpočet: podvzorkování bit po bitu a plné hledání nejdelšího běhu.
+     */
+    private static boolean reference(TelegramEncoder.Telegram telegram) {
+        TelegramBits v = new TelegramBits(telegram.getSize());
+        for (int k = 2; k <= 16; k *= 2) {
+            for (int offset = 0; offset < 11 * k; offset++) {
+                TelegramEncoder.undersampleTelegram(telegram, k, offset, v);
+                if (TelegramEncoder.getMaxRunValidWords(v, telegram) > UndersamplingTables.MAX_RUN) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static TelegramEncoder.Telegram encodedTelegram(String[] values) {
+        TelegramEncoder.Telegram telegram = new TelegramEncoder.Telegram(
+                ArithmeticalFunctions.hex2Bin(values[0].replace(" ", "")));
+        String bin = ArithmeticalFunctions.hex2Bin(values[1].replace(" ", "")).substring(0, telegram.getSize());
+        telegram.transformData.copyFrom(TelegramBits.fromBinaryString(bin));
+        return telegram;
+    }
+
+    private static int firstValidWord() {
+        for (int word = 0; word < 2048; word++) {
+            if (EncryptionHelperList.WORDS_11_REVERSE[word] != -1) {
+                return word;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Zapíše do telegramu běh platných slov tak, aby se objevil v podvzorkování (k, offset).
+     */
+    private static void plantRun(TelegramEncoder.Telegram telegram, int k, int offset, int start, int words) {
+        int n = telegram.getSize();
+        int word = firstValidWord();
+        for (int i = 0; i < words * 11 && start + i < n; i++) {
+            int position = (int) (((long) (start + i) * k + offset) % n);
+            if (((word >>> (i % 11)) & 1) != 0) {
+                telegram.transformData.setBit(position);
+            } else {
+                telegram.transformData.clearBit(position);
+            }
+        }
+    }
+
+    @Test
+    public void test_encoded_telegrams_pass() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            for (String[] temp : telegrams) {
+                TelegramEncoder.Telegram telegram = encodedTelegram(temp);
+                assertTrue(reference(telegram));
+                assertTrue(TelegramEncoder.checkUndersamplingCondition(telegram));
+            }
+        }
+    }
+
+    @Test
+    public void test_matches_reference_on_random_data() {
+        Random random = new Random(11);
+        for (String[] temp : new String[][]{TestValues.telegrams_short[0], TestValues.telegrams_long[0]}) {
+            TelegramEncoder.Telegram telegram = encodedTelegram(temp);
+            int n = telegram.getSize();
+            for (int i = 0; i < 20; i++) {
+                telegram.transformData.clear();
+                for (int bit = 0; bit < n; bit++) {
+                    if (random.nextBoolean()) {
+                        telegram.transformData.setBit(bit);
+                    }
+                }
+                assertEquals(reference(telegram), TelegramEncoder.checkUndersamplingCondition(telegram));
+            }
+        }
+    }
+
+    @Test
+    public void test_matches_reference_on_planted_runs() {
+        // Běhy délky 30 a 31 na různých místech, včetně useknutého posledního slova
+        Random random = new Random(341);
+        int[] factors = {2, 4, 8, 16};
+        int rejected = 0;
+        for (String[] temp : new String[][]{TestValues.telegrams_short[0], TestValues.telegrams_long[0]}) {
+            TelegramEncoder.Telegram telegram = encodedTelegram(temp);
+            int n = telegram.getSize();
+            for (int i = 0; i < 40; i++) {
+                TelegramEncoder.Telegram copy = new TelegramEncoder.Telegram(telegram);
+                int k = factors[random.nextInt(factors.length)];
+                int offset = random.nextInt(11 * k);
+                int words = 30 + random.nextInt(2);
+                int start = i % 2 == 0 ? random.nextInt(Math.max(1, n - words * 11)) : n - words * 11 + 1 + random.nextInt(10);
+                plantRun(copy, k, offset, start, words);
+
+                boolean expected = reference(copy);
+                if (!expected) {
+                    rejected++;
+                }
+                assertEquals("k=" + k + " offset=" + offset + " start=" + start + " words=" + words,
+                        expected, TelegramEncoder.checkUndersamplingCondition(copy));
+            }
+        }
+        assertTrue("Test data must cover both outcomes", rejected > 0 && rejected < 80);
+    }
+
+    @Test
+    public void performance_undersampling_long() {
+        String[][] telegrams = TestValues.telegrams_long;
+        TelegramEncoder.Telegram[] inputs = new TelegramEncoder.Telegram[telegrams.length];
+        for (int i = 0; i < telegrams.length; i++) {
+            inputs[i] = encodedTelegram(telegrams[i]);
+        }
+
+        // Warm-up
+        for (int i = 0; i < 20; i++) {
+            for (TelegramEncoder.Telegram telegram : inputs) {
+                reference(telegram);
+                TelegramEncoder.checkUndersamplingCondition(telegram);
+            }
+        }
+
+        int iterations = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (TelegramEncoder.Telegram telegram : inputs) {
+                assertTrue(reference(telegram));
+            }
+        }
+        long mid = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (TelegramEncoder.Telegram telegram : inputs) {
+                assertTrue(TelegramEncoder.checkUndersamplingCondition(telegram));
+            }
+        }
+        long end = System.nanoTime();
+
+        int checks = iterations * inputs.length;
+        double referenceUs = (mid - start) / (double) checks / 1_000.0;
+        double tablesUs = (end - mid) / (double) checks / 1_000.0;
+        System.out.println(String.format("Undersampling check (long) - bit by bit: %.1f us, gather tables: %.1f us",
+                referenceUs, tablesUs));
+
+        assertTrue("Gather tables are not faster: " + tablesUs + " us", tablesUs < referenceUs);
+    }
+}
@@ -0,0 +1,65 @@
+package Encoding;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ValidHeadersTest {
+
+    @Test
+    public void test_table_matches_header_check() {
+        int[] headers = ValidHeaders.indices();
+        int position = 0;
+        for (int index = 0; index < EncoderSession.SEARCH_SPACE; index++) {
+            if (EncoderSession.isValidHeader(index)) {
+                assertEquals("Index " + index, index, headers[position++]);
+            }
+        }
+        assertEquals(headers.length, position);
+        // Tabulka se sestaví jen jednou
+        assertSame(headers, ValidHeaders.indices());
+    }
+
+    @Test
+    public void test_position_of() {
+        int[] headers = ValidHeaders.indices();
+        assertEquals(0, ValidHeaders.positionOf(0));
+        assertEquals(headers.length, ValidHeaders.positionOf(EncoderSession.SEARCH_SPACE));
+        for (int position : new int[]{0, 1, 1000, headers.length / 2, headers.length - 1}) {
+            int index = headers[position];
+            assertEquals(position, ValidHeaders.positionOf(index));
+            // Neplatné indexy mezi dvěma platnými patří k následujícímu
+            if (position > 0 && headers[position - 1] + 1 < index) {
+                assertEquals(position, ValidHeaders.positionOf(index - 1));
+            }
+            assertEquals(position + 1, ValidHeaders.positionOf(index + 1));
+        }
+    }
+
+    @Test
+    public void performance_header_walk() {
+        int[] headers = ValidHeaders.indices();
+        long sink = 0;
+        long scan = 0;
+        long walk = 0;
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            for (int index = 0; index < EncoderSession.SEARCH_SPACE; index++) {
+                if (EncoderSession.isValidHeader(index)) {
+                    sink += index;
+                }
+            }
+            long middle = System.nanoTime();
+            for (int index : headers) {
+                sink -= index;
+            }
+            long end = System.nanoTime();
+            if (round >= 5) {
+                scan += middle - start;
+                walk += end - middle;
+            }
+        }
+        System.out.println(String.format("%d valid headers of %d: scan %.3f ms, table walk %.3f ms",
+                headers.length, EncoderSession.SEARCH_SPACE, scan / 5_000_000.0, walk / 5_000_000.0));
+        assertEquals(0, sink);
+    }
+}
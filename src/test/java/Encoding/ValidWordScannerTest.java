@@ -0,0 +1,63 @@
+package Encoding;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class ValidWordScannerTest {
+
+    @Test
+    public void test_bitmap_matches_lookup_table() {
+        int valid = 0;
+        for (int word = 0; word < 2048; word++) {
+            boolean expected = EncryptionHelperList.WORDS_11_REVERSE[word] != -1;
+            assertEquals("Word " + word, expected, ValidWordScanner.isValid(word));
+            if (expected) {
+                valid++;
+            }
+        }
+        assertEquals(1024, valid);
+    }
+
+    @Test
+    public void test_windows_match_bit_vector() {
+        Random random = new Random(2048);
+        for (int size : new int[]{1023, 341}) {
+            TelegramBits bits = TelegramBits.fromBigInteger(new BigInteger(size, random), size);
+            for (int position = 0; position < size + 20; position++) {
+                assertEquals("Window at " + position, bits.extract(position, 11),
+                        ValidWordScanner.window(bits.words(), position));
+            }
+            for (int position = 0; position < 2 * size; position++) {
+                assertEquals("Cyclic window at " + position, bits.extractWrap(position, 11),
+                        ValidWordScanner.windowWrap(bits.words(), size, position));
+            }
+        }
+    }
+
+    @Test
+    public void test_counts_and_runs() {
+        Random random = new Random(1024);
+        for (int size : new int[]{1023, 341}) {
+            TelegramBits bits = TelegramBits.fromBigInteger(new BigInteger(size, random), size);
+            for (int position = 0; position < 11; position++) {
+                int count = size / 11;
+                int valid = 0;
+                int run = 0;
+                int maxRun = 0;
+                for (int i = 0; i < count; i++) {
+                    if (EncryptionHelperList.WORDS_11_REVERSE[bits.extract(position + 11 * i, 11)] != -1) {
+                        valid++;
+                        maxRun = Math.max(maxRun, ++run);
+                    } else {
+                        run = 0;
+                    }
+                }
+                assertEquals(maxRun, ValidWordScanner.maxRun(bits.words(), position, count));
+                assertEquals(valid == count, ValidWordScanner.allValid(bits.words(), position, count));
+            }
+        }
+    }
+}
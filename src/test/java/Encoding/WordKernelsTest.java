@@ -0,0 +1,149 @@
+package Encoding;
+
+import org.junit.Test;
+import tools.crypto.ArithmeticalFunctions;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+public class WordKernelsTest {
+
+    // Skalární výpočty přes ValidWordScanner, stejné jako v TelegramEncoder
+    private static boolean alphabetReference(long[] data, int size) {
+        return ValidWordScanner.allValid(data, 0, size / 11);
+    }
+
+    private static boolean offSynchReference(long[] data, int size) {
+        int[] maxCvw = size == EncryptionHelperList.SIZE_LONG ? TelegramEncoder.MAX_CVW_LONG : TelegramEncoder.MAX_CVW_SHORT;
+        for (int offset = 1; offset < 11; offset++) {
+            int err = 0;
+            for (int i = offset; i < size + ((offset + 1) * 11); i += 11) {
+                err = ValidWordScanner.isValid(ValidWordScanner.windowWrap(data, size, i)) ? err + 1 : 0;
+                if (err > maxCvw[offset]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int maxRunReference(long[] data, int size) {
+        int words = (size + 30 * 11 + 10) / 11;
+        int maxRun = 0;
+        for (int offset = 0; offset < 11; offset++) {
+            maxRun = Math.max(maxRun, ValidWordScanner.maxRun(data, offset, words));
+        }
+        return maxRun;
+    }
+
+    // Telegram ze slov platných s pravděpodobností validShare, občas posunutý o pár bitů
+    private static long[] randomTelegram(Random random, int size, double validShare) {
+        TelegramBits bits = new TelegramBits(size);
+        int shift = random.nextInt(4) == 0 ? random.nextInt(11) : 0;
+        for (int position = shift; position + 11 <= size; position += 11) {
+            int word = random.nextDouble() < validShare
+                    ? EncryptionHelperList.WORDS_11[random.nextInt(1024)]
+                    : random.nextInt(2048);
+            bits.write(position, word, 11);
+        }
+        return bits.words();
+    }
+
+    private static void assertEquivalent(boolean isLongFormat, int seed) {
+        int size = isLongFormat ? EncryptionHelperList.SIZE_LONG : EncryptionHelperList.SIZE_SHORT;
+        WordKernels kernels = WordKernels.create(isLongFormat);
+        if (kernels == null) {
+            // Bez profilu vector není co porovnávat, kontroly běží jen skalárně
+            return;
+        }
+        Random random = new Random(seed);
+        int alphabetPassed = 0;
+        int offSynchPassed = 0;
+        for (int n = 0; n < 20000; n++) {
+            double share = n % 2 == 0 ? 1.0 - random.nextDouble() * 0.05 : random.nextDouble();
+            long[] data = randomTelegram(random, size, share);
+            boolean alphabet = alphabetReference(data, size);
+            boolean offSynch = offSynchReference(data, size);
+            assertEquals("Alphabet " + n, alphabet, kernels.allValid(data));
+            assertEquals("Off-synch " + n, offSynch, kernels.offSynch(data));
+            assertEquals("Max run " + n, maxRunReference(data, size), kernels.maxRun(data));
+            alphabetPassed += alphabet ? 1 : 0;
+            offSynchPassed += offSynch ? 1 : 0;
+        }
+        // Obě větve obou podmínek musí být pokryté
+        assertTrue(alphabetPassed > 0 && alphabetPassed < 20000);
+        assertTrue(offSynchPassed > 0 && offSynchPassed < 20000);
+    }
+
+    @Test
+    public void test_vector_matches_scalar_short() {
+        assertEquivalent(false, 341);
+    }
+
+    @Test
+    public void test_vector_matches_scalar_long() {
+        assertEquivalent(true, 1023);
+    }
+
+    @Test
+    public void test_fallback_when_class_is_missing() {
+        assertNull(WordKernels.Loader.load("Encoding.MissingWordKernels"));
+
+        String input = ArithmeticalFunctions.hex2Bin(TestValues.telegrams_short[0][0].replace(" ", ""));
+        TelegramEncoder.Telegram telegram = new TelegramEncoder.Telegram(input);
+        assertEquals(WordKernels.isVectorAvailable(), telegram.kernels != null);
+        assertEquals(WordKernels.isVectorAvailable(), new TelegramEncoder.Telegram(telegram).kernels != null);
+    }
+
+    @Test
+    public void test_vectors_encode_with_selected_kernels() {
+        for (String[][] telegrams : new String[][][]{TestValues.telegrams_short, TestValues.telegrams_long}) {
+            String[] values = telegrams[0];
+            assertEquals(values[1].replace(" ", ""),
+                    TelegramEncoder.encode(ArithmeticalFunctions.hex2Bin(values[0].replace(" ", ""))));
+        }
+    }
+
+    @Test
+    public void performance_vector_kernels() {
+        for (boolean isLongFormat : new boolean[]{false, true}) {
+            int size = isLongFormat ? EncryptionHelperList.SIZE_LONG : EncryptionHelperList.SIZE_SHORT;
+            WordKernels kernels = WordKernels.create(isLongFormat);
+            if (kernels == null) {
+                System.out.println("Vector kernels not available, run with -Pvector");
+                return;
+            }
+            Random random = new Random(7);
+            long[][] telegrams = new long[4096][];
+            for (int i = 0; i < telegrams.length; i++) {
+                telegrams[i] = randomTelegram(random, size, 0.995);
+            }
+
+            int sink = 0;
+            long scalar = 0;
+            long vector = 0;
+            for (int round = 0; round < 20; round++) {
+                long start = System.nanoTime();
+                for (long[] data : telegrams) {
+                    if (alphabetReference(data, size)) sink++;
+                    if (offSynchReference(data, size)) sink++;
+                    sink += maxRunReference(data, size);
+                }
+                long middle = System.nanoTime();
+                for (long[] data : telegrams) {
+                    if (kernels.allValid(data)) sink--;
+                    if (kernels.offSynch(data)) sink--;
+                    sink -= kernels.maxRun(data);
+                }
+                long end = System.nanoTime();
+                if (round >= 10) {
+                    scalar += middle - start;
+                    vector += end - middle;
+                }
+            }
+            System.out.println(String.format("%s checks of 40960 telegrams: scalar %.3f ms, vector %.3f ms",
+                    isLongFormat ? "Long" : "Short", scalar / 1_000_000.0, vector / 1_000_000.0));
+            assertEquals(0, sink);
+        }
+    }
+}
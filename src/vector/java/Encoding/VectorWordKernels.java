@@ -0,0 +1,242 @@
+package Encoding;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+import static Encoding.EncryptionHelperList.*;
+
+/**
+ * VectorWordKernels - {@link WordKernels} on the incubating Vector API.
+ * <p>
+ * Every check reads a fixed sequence of 11-bit windows, so the source ints and shifts of
+ * each window are computed once per format into {@link Windows} tables. A check first
+ * splits the telegram into 32-bit ints, then evaluates one vector of windows per pass:
+ * two gathers fetch the ints holding the low and high part of each window, lane-wise
+ * shifts assemble the windows, and a third gather looks them up in a 2048-entry table of
+ * valid words. The alphabet condition stops at the first vector with an invalid lane;
+ * the run-based checks collect one validity bit per window and measure the runs on the
+ * packed bits.
+ * </p>
+ * <p>
+ * Only compiled by the {@code vector} Maven profile and only usable on a JVM started with
+ * {@code --add-modules jdk.incubator.vector}; {@link WordKernels#create(boolean)} falls
+ * back to the scalar code otherwise, and also when the CPU offers fewer than four int
+ * lanes, where the gathers are emulated and slower than the scalar code.
+ * </p>
+ */
+final class VectorWordKernels implements WordKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private static final long FULL = -1L >>> (64 - SPECIES.length());
+
+    // 1 for the valid words, indexed by the 11-bit window
+    private static final int[] VALID = new int[2048];
+
+    static {
+        for (int word = 0; word < WORDS_11_REVERSE.length; word++) {
+            if (WORDS_11_REVERSE[word] != -1) {
+                VALID[word] = 1;
+            }
+        }
+    }
+
+    private static final Format LONG = new Format(SIZE_LONG, TelegramEncoder.MAX_CVW_LONG);
+    private static final Format SHORT = new Format(SIZE_SHORT, TelegramEncoder.MAX_CVW_SHORT);
+
+    private final Format format;
+    private final int[] ints;
+    private final int[] index = new int[SPECIES.length()];
+    private final long[] bits = new long[2];
+
+    VectorWordKernels(boolean isLongFormat) {
+        if (SPECIES.length() < 4) {
+            throw new UnsupportedOperationException(SPECIES + " is too narrow for the vector kernels");
+        }
+        this.format = isLongFormat ? LONG : SHORT;
+        this.ints = new int[format.ints + 1];
+    }
+
+    /**
+     * Splits the telegram into {@link #ints}; the int after the telegram stays zero.
+     */
+    private void load(long[] words) {
+        for (int k = 0; k < format.ints / 2; k++) {
+            long w = words[k];
+            ints[2 * k] = (int) w;
+            ints[2 * k + 1] = (int) (w >>> 32);
+        }
+    }
+
+    @Override
+    public boolean allValid(long[] words) {
+        load(words);
+        Windows windows = format.alphabet;
+        for (int i = 0; i < windows.count; i += SPECIES.length()) {
+            long lanes = lanes(windows.count - i);
+            if ((valid(windows.read(ints, i)).toLong() & lanes) != lanes) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offSynch(long[] words) {
+        load(words);
+        for (int offset = 1; offset < 11; offset++) {
+            int max = format.maxCvw[offset];
+            Windows windows = format.offSynch[offset];
+            collect(windows);
+            if (longestRun(bits, windows.count, max) > max) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int maxRun(long[] words) {
+        load(words);
+        int maxRun = 0;
+        for (Windows windows : format.maxRun) {
+            collect(windows);
+            maxRun = Math.max(maxRun, longestRun(bits, windows.count, Integer.MAX_VALUE));
+        }
+        return maxRun;
+    }
+
+    /**
+     * Stores the validity of every window of the table in {@link #bits}, window
+     * {@code i} at bit {@code i & 63} of {@code bits[i >>> 6]}.
+     */
+    private void collect(Windows windows) {
+        bits[0] = 0;
+        bits[1] = 0;
+        // The lane count divides 64, so a pass never straddles two longs
+        for (int i = 0; i < windows.count; i += SPECIES.length()) {
+            long lanes = valid(windows.read(ints, i)).toLong() & lanes(windows.count - i);
+            bits[i >>> 6] |= lanes << (i & 63);
+        }
+    }
+
+    /**
+     * @return the mask of the lanes holding one of the {@code remaining} windows
+     */
+    private static long lanes(int remaining) {
+        return remaining >= SPECIES.length() ? FULL : (1L << remaining) - 1;
+    }
+
+    /**
+     * Looks the windows up in the table of valid words.
+     */
+    private VectorMask<Integer> valid(IntVector window) {
+        window.intoArray(index, 0);
+        return IntVector.fromArray(SPECIES, VALID, 0, index, 0).compare(VectorOperators.NE, 0);
+    }
+
+    /**
+     * Finds the longest run of set bits among the first {@code count} bits, stopping as
+     * soon as it exceeds {@code limit}.
+     */
+    private static int longestRun(long[] bits, int count, int limit) {
+        int best = 0;
+        int run = 0;
+        int pos = 0;
+        while (pos < count && best <= limit) {
+            long rest = bits[pos >>> 6] >>> (pos & 63);
+            int available = Math.min(64 - (pos & 63), count - pos);
+            int ones = Math.min(Long.numberOfTrailingZeros(~rest), available);
+            run += ones;
+            pos += ones;
+            best = Math.max(best, run);
+            if (ones < available) {
+                run = 0;
+                pos += Math.min(Long.numberOfTrailingZeros(rest >>> ones), available - ones);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Window tables of one telegram format.
+     */
+    private static final class Format {
+        // Number of ints holding the telegram
+        final int ints;
+        final int[] maxCvw;
+        final Windows alphabet;
+        final Windows[] offSynch = new Windows[11];
+        final Windows[] maxRun = new Windows[11];
+
+        Format(int size, int[] maxCvw) {
+            this.ints = (size + 63) >>> 6 << 1;
+            this.maxCvw = maxCvw;
+            this.alphabet = new Windows(size, ints, 0, size / 11, false);
+            for (int offset = 1; offset < 11; offset++) {
+                int end = size + (offset + 1) * 11;
+                offSynch[offset] = new Windows(size, ints, offset, (end - offset + 10) / 11, true);
+            }
+            int words = (size + 30 * 11 + 10) / 11;
+            for (int offset = 0; offset < 11; offset++) {
+                maxRun[offset] = new Windows(size, ints, offset, words, false);
+            }
+        }
+    }
+
+    /**
+     * The windows {@code first, first + 11, ...} of a telegram split into ints. A window
+     * is {@code (data[low] >>> lowShift | data[high] << 1 << highShift) & 0x7FF}; indices
+     * past the telegram point to the zero int after it, and a cyclic window crossing bit
+     * {@code n - 1} takes its high part from bit 0. The arrays are padded to whole vectors.
+     */
+    private static final class Windows {
+        final int count;
+        final int[] low;
+        final int[] high;
+        final int[] lowShift;
+        final int[] highShift;
+
+        Windows(int size, int ints, int first, int count, boolean cyclic) {
+            this.count = count;
+            int padded = (count + SPECIES.length() - 1) / SPECIES.length() * SPECIES.length();
+            low = new int[padded];
+            high = new int[padded];
+            lowShift = new int[padded];
+            highShift = new int[padded];
+            Arrays.fill(low, ints);
+            Arrays.fill(high, ints);
+            for (int i = 0; i < count; i++) {
+                int position = first + i * 11;
+                if (cyclic && position >= size) {
+                    position -= size;
+                }
+                int w = position >>> 5;
+                int b = position & 31;
+                low[i] = Math.min(w, ints);
+                lowShift[i] = b;
+                if (cyclic && size - position < 11) {
+                    // Both sizes end inside an int, so the low part is never split
+                    high[i] = 0;
+                    highShift[i] = size - position - 1;
+                } else {
+                    high[i] = Math.min(w + 1, ints);
+                    highShift[i] = 31 - b;
+                }
+            }
+        }
+
+        IntVector read(int[] data, int i) {
+            IntVector lowPart = IntVector.fromArray(SPECIES, data, 0, low, i)
+                    .lanewise(VectorOperators.LSHR, IntVector.fromArray(SPECIES, lowShift, i));
+            IntVector highPart = IntVector.fromArray(SPECIES, data, 0, high, i)
+                    .lanewise(VectorOperators.LSHL, 1)
+                    .lanewise(VectorOperators.LSHL, IntVector.fromArray(SPECIES, highShift, i));
+            return lowPart.or(highPart).and(0x7FF);
+        }
+    }
+}